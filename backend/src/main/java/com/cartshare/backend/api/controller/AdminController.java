@@ -1,6 +1,8 @@
 package com.cartshare.backend.api.controller;
 
+import com.cartshare.backend.core.service.AutocompleteRebuildScheduler;
 import com.cartshare.backend.core.service.ProductExportService;
+import com.cartshare.backend.core.service.ProductIdMigrationService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
@@ -8,9 +10,13 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/admin")
 @RequiredArgsConstructor
@@ -18,6 +24,8 @@ import org.springframework.web.bind.annotation.RestController;
 public class AdminController {
 
     private final ProductExportService exportService;
+    private final ProductIdMigrationService productIdMigrationService;
+    private final AutocompleteRebuildScheduler autocompleteRebuildScheduler;
 
     @GetMapping("/export/products")
     public ResponseEntity<byte[]> downloadProductBackup() {
@@ -35,4 +43,26 @@ public class AdminController {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
     }
+
+    /**
+     * Re-key products saved under random UUIDs to their canonical ID
+     */
+    @PostMapping("/migrate/product-ids")
+    public ResponseEntity<?> migrateProductIds(@RequestParam(defaultValue = "false") boolean dryRun) {
+        try {
+            return ResponseEntity.ok(productIdMigrationService.migrate(dryRun));
+        } catch (Exception e) {
+            log.error("❌ Product ID migration failed: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Product ID migration failed"));
+        }
+    }
+
+    /**
+     * Autocomplete rebuild metrics: pending and completed rebuilds, index version and size
+     */
+    @GetMapping("/autocomplete/stats")
+    public ResponseEntity<Map<String, Object>> getAutocompleteStats() {
+        return ResponseEntity.ok(autocompleteRebuildScheduler.stats());
+    }
 }
@@ -1,19 +1,41 @@
 package com.cartshare.backend.api.controller;
 
 import com.cartshare.backend.api.v1.ContributeProductRequest;
-import com.cartshare.backend.core.model.Keyword;
-import com.cartshare.backend.core.model.Product;
+import com.cartshare.backend.core.model.CatalogChanges;
+import com.cartshare.backend.core.model.Contribution;
+import com.cartshare.backend.core.model.ContributionResult;
+import com.cartshare.backend.core.model.ProductPage;
+import com.cartshare.backend.core.model.ProductProjectionPage;
+import com.cartshare.backend.core.service.CatalogChangeService;
+import com.cartshare.backend.core.service.CatalogEventPublisher;
+import com.cartshare.backend.core.service.CatalogPayloadCache;
+import com.cartshare.backend.core.service.CatalogSnapshotMaterializer;
+import com.cartshare.backend.core.service.CatalogStreamService;
+import com.cartshare.backend.core.service.CatalogVersionService;
+import com.cartshare.backend.core.service.ContributionOutbox;
 import com.cartshare.backend.core.service.KeywordService;
 import com.cartshare.backend.core.service.ProductContributionService;
+import com.cartshare.backend.core.service.SyncFormat;
 import com.google.cloud.firestore.Firestore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPOutputStream;
 
 @Slf4j
 @RestController
@@ -25,63 +47,205 @@ public class SyncController {
     private final Firestore firestore;
     private final ProductContributionService productContributionService;
     private final KeywordService keywordService;
+    private final CatalogChangeService catalogChangeService;
+    private final CatalogStreamService catalogStreamService;
+    private final CatalogVersionService catalogVersionService;
+    private final CatalogPayloadCache catalogPayloadCache;
+    private final CatalogSnapshotMaterializer catalogSnapshotMaterializer;
+    private final CatalogEventPublisher catalogEventPublisher;
+    private final ContributionOutbox contributionOutbox;
+
+    private static final String GZIP = "gzip";
+    private static final String IDEMPOTENCY_KEY = "Idempotency-Key";
+    private static final String VARY_HEADERS = HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING;
 
     // ===== DATA SYNC =====
     /**
-     * Initial sync: Download all data for mobile app
+     * Initial sync: Download all data for mobile app.
+     * JSON is served from the latest materialized snapshot, tagged with its own version;
+     * until one exists the catalog is streamed page by page instead of being held in memory.
      */
     @GetMapping("/initial")
-    public ResponseEntity<?> initialSync() {
+    public ResponseEntity<StreamingResponseBody> initialSync(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
         try {
-            log.info("📱 Initial sync requested");
-            List<Keyword> keywords = keywordService.getAllKeywords();
-            List<Product> products = productContributionService.getAllProducts();
-            Map<String, Object> syncData = Map.of(
-                    "keywords", keywords,
-                    "products", products,
-                    "timestamp", System.currentTimeMillis(),
-                    "syncStatus", "success"
-            );
+            SyncFormat format = SyncFormat.fromAccept(accept);
+            boolean gzip = acceptsGzip(acceptEncoding);
+            long version = catalogVersionService.currentVersion();
+            String etag = catalogVersionService.etag(version, format.etagVariant(gzip));
+            if (CatalogVersionService.matches(ifNoneMatch, etag)) {
+                log.info("📱 Initial sync not modified ({})", etag);
+                return notModified(etag);
+            }
+
+            if (format == SyncFormat.JSON) {
+                Optional<CatalogSnapshotMaterializer.Snapshot> snapshot = catalogSnapshotMaterializer.latest();
+                if (snapshot.isPresent()) {
+                    // Tagged with its own version: it may trail the catalog until the next regeneration
+                    String snapshotEtag = catalogVersionService.etag(snapshot.get().version(), format.etagVariant(gzip));
+                    if (CatalogVersionService.matches(ifNoneMatch, snapshotEtag)) {
+                        return notModified(snapshotEtag);
+                    }
+                    return snapshotResponse(snapshot.get(), snapshotEtag, gzip);
+                }
+            }
 
-            log.info("✅ Initial sync: {} keywords, {} products",
-                    keywords.size(), products.size());
+            log.info("📱 Initial sync requested ({})", format);
+            // Taken before reading so anything written meanwhile shows up in the next delta sync
+            String syncToken = CatalogChangeService.tokenAt(CatalogChangeService.currentTimestamp());
+            CatalogStreamService.CatalogStream stream = catalogStreamService.openInitialSync(syncToken, format);
 
-            return ResponseEntity.ok(syncData);
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .eTag(etag)
+                    .header(HttpHeaders.VARY, VARY_HEADERS)
+                    .contentType(format.mediaType());
+            if (!gzip) {
+                StreamingResponseBody body = stream::writeTo;
+                return response.body(body);
+            }
+
+            // Compressed on the fly: the streamed catalog is never held in memory
+            StreamingResponseBody body = out -> {
+                GZIPOutputStream gz = new GZIPOutputStream(out, 8192);
+                stream.writeTo(gz);
+                gz.finish();
+            };
+            return response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(body);
 
         } catch (InterruptedException | ExecutionException e) {
             log.error("❌ Sync failed: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(Map.of("syncStatus", "failed", "error", "Failed to prepare sync data"));
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .body(syncFailedBody("Failed to prepare sync data"));
         }
     }
 
+    /**
+     * Delta sync: only what changed after the token returned by a previous sync
+     */
+    @GetMapping("/changes")
+    public ResponseEntity<?> getChanges(@RequestParam(required = false) String since) {
+        try {
+            CatalogChanges changes = catalogChangeService.getChangesSince(since);
+            log.info("📱 Delta sync: {} changes", changes.size());
+
+            return ResponseEntity.ok(Map.of(
+                    "products", changes.products(),
+                    "keywords", changes.keywords(),
+                    "deletions", changes.deletions(),
+                    "nextToken", changes.nextToken(),
+                    "timestamp", System.currentTimeMillis(),
+                    "syncStatus", "success"
+            ));
+
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ Invalid sync token: {}", since);
+            return ResponseEntity.badRequest()
+                    .body(Map.of("syncStatus", "failed", "error", e.getMessage()));
+        } catch (InterruptedException | ExecutionException e) {
+            log.error("❌ Delta sync failed: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("syncStatus", "failed", "error", "Failed to prepare sync changes"));
+        }
+    }
+
+    /**
+     * Live catalog changes as Server-Sent Events, so clients stay current without polling.
+     * On a "resync" event the client runs a delta sync and reconnects; on a "changed" event
+     * (a write through another replica) it runs a delta sync and stays connected.
+     */
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public Flux<ServerSentEvent<Object>> streamChanges() {
+        log.info("📡 Sync stream client connected ({} connected)", catalogEventPublisher.subscriberCount() + 1);
+        return catalogEventPublisher.subscribe();
+    }
+
     // ===== PRODUCT CONTRIBUTION =====
 
     /**
-     * User contributes a new product
+     * User contributes a new product.
+     * The contribution is validated and logged durably, then written in the background:
+     * poll statusUrl for the outcome. Retries that send the same Idempotency-Key header
+     * get the original contribution back instead of a new one.
      */
     @PostMapping("/contribute/product")
-    public ResponseEntity<?> contributeProduct(@RequestBody ContributeProductRequest request) {
+    public ResponseEntity<?> contributeProduct(
+            @RequestBody ContributeProductRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey) {
         try {
-            Product product = productContributionService.contributeProduct(
+            Contribution contribution = contributionOutbox.submit(
                     request.getProductName(),
-                    request.getCategoryId()
+                    request.getCategoryId(),
+                    idempotencyKey
             );
 
-            return ResponseEntity.status(HttpStatus.CREATED)
-                    .body(buildProductResponse(product));
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .location(URI.create(contributionStatusUrl(contribution)))
+                    .body(buildContributionResponse(contribution));
 
         } catch (IllegalArgumentException e) {
             log.warn("⚠️ Validation error: {}", e.getMessage());
             return ResponseEntity.badRequest()
                     .body(Map.of("error", e.getMessage()));
-        } catch (InterruptedException | ExecutionException e) {
+        } catch (IOException | InterruptedException | ExecutionException e) {
             log.error("❌ Error adding product: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("error", "Failed to add product"));
         }
     }
 
+    /**
+     * Contribute many products at once, e.g. a whole shopping list.
+     * Written synchronously; each item gets its own result at its position in the request.
+     */
+    @PostMapping("/contribute/products")
+    public ResponseEntity<?> contributeProducts(@RequestBody List<ContributeProductRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", "At least one product is required"));
+        }
+        try {
+            List<ProductContributionService.BulkItem> items = requests.stream()
+                    .map(request -> request == null
+                            ? new ProductContributionService.BulkItem(null, null)
+                            : new ProductContributionService.BulkItem(request.getProductName(), request.getCategoryId()))
+                    .toList();
+            List<ContributionResult> results = productContributionService.contributeProducts(items);
+
+            long created = results.stream()
+                    .filter(result -> result.status() == ContributionResult.Status.CREATED)
+                    .count();
+            return ResponseEntity.ok(Map.of(
+                    "results", results,
+                    "total", results.size(),
+                    "created", created,
+                    "rejected", results.size() - created
+            ));
+
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ Validation error: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (InterruptedException | ExecutionException e) {
+            log.error("❌ Error adding products: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to add products"));
+        }
+    }
+
+    /**
+     * Outcome of an accepted contribution: PENDING, COMPLETED, REJECTED or FAILED
+     */
+    @GetMapping("/contribute/status/{contributionId}")
+    public ResponseEntity<?> getContributionStatus(@PathVariable String contributionId) {
+        return contributionOutbox.status(contributionId)
+                .<ResponseEntity<?>>map(contribution -> ResponseEntity.ok(buildContributionResponse(contribution)))
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(Map.of("error", "Unknown contribution")));
+    }
+
     /**
      * Check if product exists
      */
@@ -118,14 +282,27 @@ public class SyncController {
      * Get only official products
      */
     @GetMapping("/products/official")
-    public ResponseEntity<?> getOfficialProducts() {
+    public ResponseEntity<?> getOfficialProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestParam(required = false) String fields) {
         try {
-            List<Product> products = productContributionService.getOfficialProducts();
-            return ResponseEntity.ok(Map.of(
-                    "products", products,
-                    "count", products.size(),
-                    "type", "official"
-            ));
+            List<String> projection = ProductContributionService.parseFields(fields);
+            return cachedCatalogResponse(catalogKey("products/official", projection), accept, ifNoneMatch, acceptEncoding, () -> {
+                List<?> products = projection == null
+                        ? productContributionService.getOfficialProducts()
+                        : productContributionService.getProductFields(true, projection);
+                return Map.of(
+                        "products", products,
+                        "count", products.size(),
+                        "type", "official"
+                );
+            });
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ Invalid fields: {}", fields);
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
         } catch (InterruptedException | ExecutionException e) {
             log.error("❌ Error fetching official products: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -137,14 +314,27 @@ public class SyncController {
      * Get only user-contributed products
      */
     @GetMapping("/products/user-contributed")
-    public ResponseEntity<?> getUserContributedProducts() {
+    public ResponseEntity<?> getUserContributedProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestParam(required = false) String fields) {
         try {
-            List<Product> products = productContributionService.getUserContributedProducts();
-            return ResponseEntity.ok(Map.of(
-                    "products", products,
-                    "count", products.size(),
-                    "type", "user-contributed"
-            ));
+            List<String> projection = ProductContributionService.parseFields(fields);
+            return cachedCatalogResponse(catalogKey("products/user-contributed", projection), accept, ifNoneMatch, acceptEncoding, () -> {
+                List<?> products = projection == null
+                        ? productContributionService.getUserContributedProducts()
+                        : productContributionService.getProductFields(false, projection);
+                return Map.of(
+                        "products", products,
+                        "count", products.size(),
+                        "type", "user-contributed"
+                );
+            });
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ Invalid fields: {}", fields);
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
         } catch (InterruptedException | ExecutionException e) {
             log.error("❌ Error fetching user-contributed products: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -152,6 +342,57 @@ public class SyncController {
         }
     }
 
+    /**
+     * Cursor-paginated product listing.
+     * Pass the returned nextCursor back to get the following page; it is null on the last page.
+     * fields=productName,isOfficial limits each product to those fields (plus id).
+     */
+    @GetMapping("/products")
+    public ResponseEntity<?> getProductsPage(
+            @RequestParam(defaultValue = "all") String type,
+            @RequestParam(defaultValue = "" + ProductContributionService.DEFAULT_PAGE_SIZE) int pageSize,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) String fields) {
+        try {
+            Boolean isOfficial = switch (type) {
+                case "all" -> null;
+                case "official" -> true;
+                case "user-contributed" -> false;
+                default -> throw new IllegalArgumentException("Unknown product type '" + type + "'");
+            };
+
+            List<String> projection = ProductContributionService.parseFields(fields);
+            List<?> products;
+            String nextCursor;
+            if (projection == null) {
+                ProductPage page = productContributionService.getProductsPage(isOfficial, pageSize, cursor);
+                products = page.products();
+                nextCursor = page.nextCursor();
+            } else {
+                ProductProjectionPage page =
+                        productContributionService.getProductFieldsPage(isOfficial, pageSize, cursor, projection);
+                products = page.products();
+                nextCursor = page.nextCursor();
+            }
+
+            Map<String, Object> body = new HashMap<>();
+            body.put("products", products);
+            body.put("count", products.size());
+            body.put("type", type);
+            body.put("nextCursor", nextCursor);
+            return ResponseEntity.ok(body);
+
+        } catch (IllegalArgumentException e) {
+            log.warn("⚠️ Invalid page request: {}", e.getMessage());
+            return ResponseEntity.badRequest()
+                    .body(Map.of("error", e.getMessage()));
+        } catch (InterruptedException | ExecutionException e) {
+            log.error("❌ Error fetching products page: ", e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(Map.of("error", "Failed to fetch products"));
+        }
+    }
+
     // ===== STATISTICS =====
 
     /**
@@ -160,6 +401,7 @@ public class SyncController {
     @GetMapping("/stats")
     public ResponseEntity<?> getDataStats() {
         try {
+            // Both come from the maintained counters: one aggregation round trip at most, then no reads
             long keywordsCount = keywordService.getKeywordCount();
             Map<String, Object> productsStats = productContributionService.getProductStats();
             long totalProducts = (long) productsStats.get("total");
@@ -200,16 +442,114 @@ public class SyncController {
     // ===== HELPER METHODS =====
 
     /**
-     * Build product response DTO
+     * Serve a catalog payload in the negotiated format with a version ETag, answering
+     * If-None-Match with 304 before any Firestore read, and gzip bytes that were
+     * compressed once per version.
+     */
+    private ResponseEntity<?> cachedCatalogResponse(String key, String accept, String ifNoneMatch,
+                                                    String acceptEncoding, CatalogPayloadCache.PayloadLoader loader)
+            throws ExecutionException, InterruptedException {
+        long version = catalogVersionService.currentVersion();
+        SyncFormat format = SyncFormat.fromAccept(accept);
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = catalogVersionService.etag(version, format.etagVariant(gzip));
+
+        if (CatalogVersionService.matches(ifNoneMatch, etag)) {
+            return notModified(etag);
+        }
+
+        CatalogPayloadCache.EncodedPayload payload = catalogPayloadCache.get(key, version, format, loader);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .header(HttpHeaders.VARY, VARY_HEADERS)
+                .contentType(format.mediaType());
+
+        return gzip
+                ? response.header(HttpHeaders.CONTENT_ENCODING, GZIP).body(payload.gzip())
+                : response.body(payload.body());
+    }
+
+    private ResponseEntity<StreamingResponseBody> snapshotResponse(CatalogSnapshotMaterializer.Snapshot snapshot,
+                                                                  String etag, boolean gzip) {
+        log.info("📱 Initial sync served from snapshot v{}", snapshot.version());
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .header(HttpHeaders.VARY, VARY_HEADERS)
+                .contentType(MediaType.APPLICATION_JSON);
+        if (!gzip) {
+            StreamingResponseBody body = out -> catalogSnapshotMaterializer.writeDecompressed(snapshot, out);
+            return response.body(body);
+        }
+
+        // Pre-compressed bytes are copied from the file, never re-encoded
+        StreamingResponseBody body = out -> catalogSnapshotMaterializer.copyTo(snapshot, out);
+        return response.header(HttpHeaders.CONTENT_ENCODING, GZIP)
+                .contentLength(snapshot.size())
+                .body(body);
+    }
+
+    /**
+     * Cache key per projection, so each field set is encoded once per catalog version
+     */
+    private static String catalogKey(String key, List<String> projection) {
+        return projection == null ? key : key + "?fields=" + String.join(",", projection);
+    }
+
+    private static <T> ResponseEntity<T> notModified(String etag) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .header(HttpHeaders.VARY, VARY_HEADERS)
+                .build();
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase(GZIP)) continue;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Error body for endpoints that stream their payload
      */
-    private Map<String, Object> buildProductResponse(Product product) {
-        return Map.of(
-                "message", "Product added successfully",
-                "productId", product.id(),
-                "productName", product.productName(),
-                "isOfficial", product.isOfficial(),
-                "generatedKeywords", product.searchKeywords(),
-                "keywordCount", product.searchKeywords().size()
-        );
+    private StreamingResponseBody syncFailedBody(String error) {
+        byte[] json = ("{\"syncStatus\":\"failed\",\"error\":\"" + error + "\"}")
+                .getBytes(StandardCharsets.UTF_8);
+        return out -> out.write(json);
+    }
+
+    /**
+     * Build contribution response DTO
+     */
+    private Map<String, Object> buildContributionResponse(Contribution contribution) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("message", contribution.status() == Contribution.Status.PENDING
+                ? "Contribution accepted"
+                : "Contribution " + contribution.status().name().toLowerCase());
+        response.put("contributionId", contribution.id());
+        response.put("productId", contribution.productId());
+        response.put("productName", contribution.productName());
+        response.put("status", contribution.status().name());
+        response.put("attempts", contribution.attempts());
+        response.put("statusUrl", contributionStatusUrl(contribution));
+        if (contribution.error() != null) response.put("error", contribution.error());
+        return response;
+    }
+
+    private static String contributionStatusUrl(Contribution contribution) {
+        return "/api/sync/contribute/status/" + contribution.id();
     }
 }
\ No newline at end of file
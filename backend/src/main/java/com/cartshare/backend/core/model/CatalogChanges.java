@@ -0,0 +1,17 @@
+package com.cartshare.backend.core.model;
+
+import java.util.List;
+
+/**
+ * Everything that changed in the catalog after a sync token.
+ */
+public record CatalogChanges(
+        List<Product> products,
+        List<Keyword> keywords,
+        List<Tombstone> deletions,
+        String nextToken
+) {
+    public int size() {
+        return products.size() + keywords.size() + deletions.size();
+    }
+}
@@ -0,0 +1,36 @@
+package com.cartshare.backend.core.model;
+
+/**
+ * Catalog change pushed to connected clients over the sync event stream
+ */
+public record CatalogEvent(
+        Type type,
+        String documentId,
+        Object document,
+        long timestamp
+) {
+    public enum Type {
+        PRODUCT,
+        KEYWORD,
+        // Too much changed at once (imports, slow clients): run a delta sync instead
+        RESYNC,
+        // Written through another replica: run a delta sync, the stream stays open
+        CHANGED
+    }
+
+    public static CatalogEvent product(Product product, long timestamp) {
+        return new CatalogEvent(Type.PRODUCT, product.id(), product, timestamp);
+    }
+
+    public static CatalogEvent keyword(String documentId, Keyword keyword, long timestamp) {
+        return new CatalogEvent(Type.KEYWORD, documentId, keyword, timestamp);
+    }
+
+    public static CatalogEvent resync(long timestamp) {
+        return new CatalogEvent(Type.RESYNC, null, null, timestamp);
+    }
+
+    public static CatalogEvent changed(long timestamp) {
+        return new CatalogEvent(Type.CHANGED, null, null, timestamp);
+    }
+}
@@ -0,0 +1,41 @@
+package com.cartshare.backend.core.model;
+
+/**
+ * A product contribution accepted into the outbox, as recorded in its log.
+ * Every state change is appended as a new line; the last line for an id wins.
+ */
+public record Contribution(
+        String id,
+        String productName,
+        String categoryId,
+        String productId,
+        Status status,
+        int attempts,
+        long acceptedAt,
+        long updatedAt,
+        String error,
+        // Client-supplied Idempotency-Key, if any
+        String idempotencyKey
+) {
+    public enum Status {
+        PENDING,
+        COMPLETED,
+        // Validation failed when written (duplicate, unknown category): retrying cannot help
+        REJECTED,
+        // Gave up after the maximum number of attempts
+        FAILED
+    }
+
+    public static Contribution accepted(String id, String productName, String categoryId, String productId,
+                                        String idempotencyKey, long now) {
+        return new Contribution(id, productName, categoryId, productId, Status.PENDING, 0, now, now, null, idempotencyKey);
+    }
+
+    public Contribution finished(Status status, int attempts, String error, long now) {
+        return new Contribution(id, productName, categoryId, productId, status, attempts, acceptedAt, now, error, idempotencyKey);
+    }
+
+    public Contribution withAttempts(int attempts, String error, long now) {
+        return new Contribution(id, productName, categoryId, productId, status, attempts, acceptedAt, now, error, idempotencyKey);
+    }
+}
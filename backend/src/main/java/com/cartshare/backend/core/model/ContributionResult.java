@@ -0,0 +1,28 @@
+package com.cartshare.backend.core.model;
+
+/**
+ * Outcome of one item of a bulk contribution, reported at the item's position in the request
+ */
+public record ContributionResult(
+        int index,
+        String productName,
+        String productId,
+        Status status,
+        String error
+) {
+    public enum Status {
+        CREATED,
+        // Already in the catalog, or earlier in the same request
+        DUPLICATE,
+        INVALID,
+        FAILED
+    }
+
+    public static ContributionResult created(int index, String productName, String productId) {
+        return new ContributionResult(index, productName, productId, Status.CREATED, null);
+    }
+
+    public static ContributionResult rejected(int index, String productName, String productId, Status status, String error) {
+        return new ContributionResult(index, productName, productId, status, error);
+    }
+}
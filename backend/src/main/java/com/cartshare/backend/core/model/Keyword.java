@@ -6,5 +6,29 @@ import lombok.NonNull;
 
 @Document(collectionName = "keywords")
 public record Keyword(
-        @DocumentId String keyword
-) {}
+        @DocumentId String keyword,
+        String categoryId,
+        Long updatedAt
+) {
+    /**
+     * Create a Keyword without a category
+     */
+    public Keyword(String keyword, Long updatedAt) {
+        this(keyword, null, updatedAt);
+    }
+
+    /**
+     * Create a Keyword without a category or change timestamp
+     * Used for seed data and tests; writers stamp it before saving
+     */
+    public Keyword(String keyword) {
+        this(keyword, null, null);
+    }
+
+    /**
+     * Copy of this keyword stamped with the server change time
+     */
+    public Keyword withUpdatedAt(long updatedAt) {
+        return new Keyword(keyword, categoryId, updatedAt);
+    }
+}
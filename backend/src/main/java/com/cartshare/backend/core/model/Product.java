@@ -9,13 +9,30 @@ public record Product(
         @DocumentId String id,
         @NonNull String productName,
         boolean isOfficial,
-        List<String> searchKeywords
+        List<String> searchKeywords,
+        String categoryId,
+        Long updatedAt
 ) {
     public Product {
         if (productName.isBlank()) throw new IllegalArgumentException("Name cannot be blank");
         searchKeywords = (searchKeywords == null) ? List.of() : searchKeywords;
     }
 
+    /**
+     * Create a Product without a category
+     */
+    public Product(String id, String productName, boolean isOfficial, List<String> searchKeywords, Long updatedAt) {
+        this(id, productName, isOfficial, searchKeywords, null, updatedAt);
+    }
+
+    /**
+     * Create a Product without a category or change timestamp
+     * Writers stamp updatedAt right before saving
+     */
+    public Product(String id, String productName, boolean isOfficial, List<String> searchKeywords) {
+        this(id, productName, isOfficial, searchKeywords, null, null);
+    }
+
     /**
      * Create a new Product without ID (for new documents)
      * Used when creating products from user input or initial seed
@@ -45,4 +62,18 @@ public record Product(
     public static Product createUserContributed(String productName, List<String> searchKeywords) {
         return new Product(null, productName,false, searchKeywords);
     }
-}
\ No newline at end of file
+
+    /**
+     * Copy of this product stamped with the server change time (used by delta sync)
+     */
+    public Product withUpdatedAt(long updatedAt) {
+        return new Product(id, productName, isOfficial, searchKeywords, categoryId, updatedAt);
+    }
+
+    /**
+     * Copy of this product assigned to a category (seed data carries one per product)
+     */
+    public Product withCategoryId(String categoryId) {
+        return new Product(id, productName, isOfficial, searchKeywords, categoryId, updatedAt);
+    }
+}
@@ -0,0 +1,12 @@
+package com.cartshare.backend.core.model;
+
+import java.util.List;
+
+/**
+ * One page of a cursor-paginated product listing.
+ * nextCursor is null when there are no more pages.
+ */
+public record ProductPage(
+        List<Product> products,
+        String nextCursor
+) {}
@@ -0,0 +1,13 @@
+package com.cartshare.backend.core.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One page of products restricted to the requested fields.
+ * Each product is a map holding "id" plus the selected fields; nextCursor is null on the last page.
+ */
+public record ProductProjectionPage(
+        List<Map<String, Object>> products,
+        String nextCursor
+) {}
@@ -0,0 +1,19 @@
+package com.cartshare.backend.core.model;
+
+import com.google.cloud.firestore.annotation.DocumentId;
+import com.google.cloud.spring.data.firestore.Document;
+
+/**
+ * Records the deletion of a catalog document so delta sync clients can drop it locally.
+ */
+@Document(collectionName = "tombstones")
+public record Tombstone(
+        @DocumentId String id,
+        String collection,
+        String documentId,
+        Long deletedAt
+) {
+    public static Tombstone of(String collection, String documentId, long deletedAt) {
+        return new Tombstone(collection + "_" + documentId, collection, documentId, deletedAt);
+    }
+}
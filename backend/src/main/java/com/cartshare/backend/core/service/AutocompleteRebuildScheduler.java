@@ -0,0 +1,136 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.core.model.Keyword;
+import com.cartshare.backend.core.model.Product;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QuerySnapshot;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Rebuilds the autocomplete index from Firestore on behalf of writers.
+ *
+ * Requests arriving within the debounce window are coalesced into one rebuild, and a
+ * single rebuild thread guarantees two rebuilds never overlap. Requests made while a
+ * rebuild is running schedule exactly one follow-up rebuild.
+ */
+@Service
+@Slf4j
+public class AutocompleteRebuildScheduler {
+
+    private final Firestore firestore;
+    private final AutocompleteService autocompleteService;
+    private final KeywordService keywordService;
+    private final NearDuplicateIndex nearDuplicateIndex;
+    private final long debounceMs;
+    private final ScheduledExecutorService rebuilder =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().name("autocomplete-rebuild").factory());
+
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong pendingRequests = new AtomicLong();
+    private final AtomicLong requested = new AtomicLong();
+    private final AtomicLong completed = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long lastDurationMs;
+    private volatile long lastCompletedAt;
+
+    public AutocompleteRebuildScheduler(Firestore firestore,
+                                        AutocompleteService autocompleteService,
+                                        KeywordService keywordService,
+                                        NearDuplicateIndex nearDuplicateIndex,
+                                        @Value("${app.autocomplete.rebuild-debounce-ms:2000}") long debounceMs) {
+        this.firestore = firestore;
+        this.autocompleteService = autocompleteService;
+        this.keywordService = keywordService;
+        this.nearDuplicateIndex = nearDuplicateIndex;
+        this.debounceMs = debounceMs;
+    }
+
+    /**
+     * Ask for the index to be rebuilt. Returns immediately; the rebuild runs after the
+     * debounce window together with every other request made in the meantime.
+     */
+    public void requestRebuild() {
+        requested.incrementAndGet();
+        pendingRequests.incrementAndGet();
+        if (scheduled.compareAndSet(false, true)) {
+            rebuilder.schedule(this::rebuild, debounceMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Rebuild counters, for monitoring
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("pendingRequests", pendingRequests.get());
+        stats.put("rebuildScheduled", scheduled.get());
+        stats.put("rebuildRunning", running.get());
+        stats.put("requested", requested.get());
+        stats.put("completed", completed.get());
+        stats.put("failed", failed.get());
+        stats.put("lastDurationMs", lastDurationMs);
+        stats.put("lastCompletedAt", lastCompletedAt);
+        stats.put("indexVersion", autocompleteService.version());
+        stats.put("indexSize", autocompleteService.size());
+        stats.put("knownKeywords", keywordService.knownKeywordCount());
+        return stats;
+    }
+
+    @PreDestroy
+    public void stop() {
+        rebuilder.shutdownNow();
+    }
+
+    void rebuild() {
+        // Cleared first: requests from here on need a rebuild that reads after them
+        scheduled.set(false);
+        long coalesced = pendingRequests.getAndSet(0);
+        long versionBefore = autocompleteService.version();
+        long start = System.currentTimeMillis();
+        running.set(true);
+
+        ApiFuture<QuerySnapshot> keywordsFuture = firestore.collection("keywords").get();
+        ApiFuture<QuerySnapshot> productsFuture = firestore.collection("products").get();
+        try {
+            List<Keyword> keywords = keywordsFuture.get().toObjects(Keyword.class);
+            List<Product> products = productsFuture.get().toObjects(Product.class);
+
+            autocompleteService.indexUpdate(keywords, products);
+            keywordService.keywordsExist(keywords.stream().map(Keyword::keyword).toList());
+            nearDuplicateIndex.rebuild(products);
+            completed.incrementAndGet();
+            lastDurationMs = System.currentTimeMillis() - start;
+            lastCompletedAt = System.currentTimeMillis();
+            log.info("🔄 Autocomplete index v{} rebuilt for {} request(s) in {} ms",
+                    autocompleteService.version(), coalesced, lastDurationMs);
+
+            // An incremental update landed while we were reading: it is not in what we just published
+            if (autocompleteService.version() != versionBefore + 1) requestRebuild();
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | RuntimeException e) {
+            keywordsFuture.cancel(true);
+            productsFuture.cancel(true);
+            failed.incrementAndGet();
+            log.error("⚠️ Failed to rebuild autocomplete index: ", e);
+        } finally {
+            running.set(false);
+        }
+    }
+}
@@ -6,22 +6,69 @@ import org.springframework.stereotype.Service;
 
 import java.text.Normalizer;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 @Service
 public class AutocompleteService {
-    // We only need to map the Keyword to its priority now
-    private final Map<String, Integer> masterIndex = new ConcurrentHashMap<>();
+    // We only need to map the Keyword to its priority now.
+    // Readers see whole snapshots; each publish gets the next version.
+    private volatile IndexSnapshot snapshot = new IndexSnapshot(0, Map.of());
+    private final ReentrantLock publishLock = new ReentrantLock();
     private static final Pattern ACCENT_PATTERN = Pattern.compile("\\p{InCombiningDiacriticalMarks}+");
 
+    /**
+     * Immutable index published to readers
+     */
+    public record IndexSnapshot(long version, Map<String, Integer> index) {}
+
     public void indexUpdate(List<Keyword> keywords, List<Product> products) {
         Map<String, Integer> newIndex = new HashMap<>();
+        indexInto(newIndex, keywords, products);
+        publish(newIndex, false);
+    }
+
+    /**
+     * Merge newly created keywords and products into the live index without rebuilding it
+     */
+    public void indexAdd(Collection<Keyword> keywords, Collection<Product> products) {
+        Map<String, Integer> additions = new HashMap<>();
+        indexInto(additions, keywords, products);
+        publish(additions, true);
+    }
 
+    /**
+     * Version of the published index; grows by one with every rebuild or incremental update
+     */
+    public long version() {
+        return snapshot.version();
+    }
+
+    public int size() {
+        return snapshot.index().size();
+    }
+
+    private void publish(Map<String, Integer> entries, boolean merge) {
+        publishLock.lock();
+        try {
+            Map<String, Integer> index = entries;
+            if (merge) {
+                index = new HashMap<>(snapshot.index());
+                for (Map.Entry<String, Integer> entry : entries.entrySet()) {
+                    index.merge(entry.getKey(), entry.getValue(), Math::min);
+                }
+            }
+            snapshot = new IndexSnapshot(snapshot.version() + 1, Map.copyOf(index));
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    private static void indexInto(Map<String, Integer> index, Collection<Keyword> keywords, Collection<Product> products) {
         // 1. Index Keywords
         for (Keyword kw : keywords) {
-            newIndex.merge(kw.keyword().trim(), 1, Math::min);
+            index.merge(kw.keyword().trim(), 1, Math::min);
         }
 
         // 2. Index Products
@@ -29,23 +76,20 @@ public class AutocompleteService {
             int priority = prod.isOfficial() ? 1 : 5;
 
             // CRITICAL: Index the product name itself!
-            newIndex.merge(prod.productName().trim(), priority, Math::min);
+            index.merge(prod.productName().trim(), priority, Math::min);
 
             // Also index the search keywords for tags/fuzzy matching
             for (String term : prod.searchKeywords()) {
-                newIndex.merge(term.trim(), priority, Math::min);
+                index.merge(term.trim(), priority, Math::min);
             }
         }
-
-        masterIndex.clear();
-        masterIndex.putAll(newIndex);
     }
 
     public List<String> suggest(String term) {
         if (term == null || term.isBlank()) return List.of();
         String query = normalize(term);
 
-        return masterIndex.entrySet().stream()
+        return snapshot.index().entrySet().stream()
                 .filter(e -> normalize(e.getKey()).contains(query) || isFuzzyMatch(query, normalize(e.getKey())))
                 .sorted(Map.Entry.comparingByValue()) // Sort by priority (1 comes first)
                 .map(Map.Entry::getKey)
@@ -25,6 +25,8 @@ public class AutocompleteWarmup implements CommandLineRunner {
 
     private final Firestore firestore;
     private final AutocompleteService autocompleteService;
+    private final KeywordService keywordService;
+    private final NearDuplicateIndex nearDuplicateIndex;
 
     @Override
     public void run(String... args) {
@@ -33,11 +35,14 @@ public class AutocompleteWarmup implements CommandLineRunner {
 
             List<Keyword> keywords = fetchCollection("keywords", Keyword.class);
             log.info("Loaded {} keywords for indexing.", keywords.size());
+            // Contributions skip the existence reads of keywords known here
+            keywordService.keywordsExist(keywords.stream().map(Keyword::keyword).toList());
 
             List<Product> products = fetchCollection("products", Product.class);
             log.info("Loaded {} products for indexing.", products.size());
 
             autocompleteService.indexUpdate(keywords, products);
+            nearDuplicateIndex.rebuild(products);
             log.info(">>> Autocomplete Index Warm-up COMPLETED successfully.");
 
         } catch (Exception e) {
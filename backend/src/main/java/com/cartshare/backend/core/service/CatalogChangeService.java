@@ -0,0 +1,126 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.core.model.CatalogChanges;
+import com.cartshare.backend.core.model.Keyword;
+import com.cartshare.backend.core.model.Product;
+import com.cartshare.backend.core.model.Tombstone;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogChangeService {
+
+    private final Firestore firestore;
+
+    private static final String UPDATED_AT = "updatedAt";
+    private static final String TOKEN_PREFIX = "v1:";
+
+    /**
+     * How long a write may take between being stamped and being committed.
+     *
+     * Writers stamp updatedAt before they commit (an import stamps each batch before handing it
+     * to the BulkWriter, which may retry it), and replica clocks drift. So a token never points
+     * past "now - COMMIT_WINDOW_MS": anything stamped earlier is assumed to be committed.
+     */
+    public static final long COMMIT_WINDOW_MS = 5 * 60_000L;
+
+    /**
+     * Get every product, keyword and deletion stamped at or after the given sync token.
+     *
+     * Each collection is queried on its change timestamp only, so a resume costs
+     * one document read per changed document instead of the full catalog. The next token
+     * trails the request time by {@link #COMMIT_WINDOW_MS}, so a write stamped before the
+     * request but committed after it is still returned by the next call. Documents changed
+     * within that window are returned again; clients apply changes by ID, so repeats are harmless.
+     *
+     * @param token Opaque token from a previous sync (null or blank means "from the beginning")
+     * @return Changes plus the token to use on the next call
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public CatalogChanges getChangesSince(String token) throws ExecutionException, InterruptedException {
+        long since = decodeToken(token);
+        // Taken before reading: what is committed by now is in this response or stamped after next
+        long next = Math.max(since, settledBefore(currentTimestamp()));
+
+        ApiFuture<QuerySnapshot> productsFuture = changedSince("products", since);
+        ApiFuture<QuerySnapshot> keywordsFuture = changedSince("keywords", since);
+        ApiFuture<QuerySnapshot> tombstonesFuture = firestore.collection("tombstones")
+                .whereGreaterThanOrEqualTo("deletedAt", since)
+                .get();
+
+        List<Product> products = productsFuture.get().toObjects(Product.class);
+        List<Keyword> keywords = keywordsFuture.get().toObjects(Keyword.class);
+        List<Tombstone> deletions = tombstonesFuture.get().toObjects(Tombstone.class);
+
+        log.info("🔁 Delta sync since {}: {} products, {} keywords, {} deletions",
+                since, products.size(), keywords.size(), deletions.size());
+
+        return new CatalogChanges(products, keywords, deletions, encodeToken(next));
+    }
+
+    /**
+     * Stage a document delete together with its tombstone in the same batch,
+     * so clients never miss a deletion that was committed.
+     */
+    public void stageDeletion(WriteBatch batch, String collection, String documentId) {
+        Tombstone tombstone = Tombstone.of(collection, documentId, currentTimestamp());
+        batch.delete(firestore.collection(collection).document(documentId));
+        batch.set(firestore.collection("tombstones").document(tombstone.id()), tombstone);
+    }
+
+    /**
+     * Server change time stamped on every catalog write
+     */
+    public static long currentTimestamp() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * Token to hand out for a read (full sync, event) that saw everything committed at this time.
+     * It trails the time by {@link #COMMIT_WINDOW_MS}, for writes stamped earlier but not yet committed.
+     */
+    public static String tokenAt(long timestamp) {
+        return encodeToken(settledBefore(timestamp));
+    }
+
+    private static long settledBefore(long timestamp) {
+        return Math.max(0L, timestamp - COMMIT_WINDOW_MS);
+    }
+
+    public static String encodeToken(long timestamp) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((TOKEN_PREFIX + timestamp).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static long decodeToken(String token) {
+        if (token == null || token.isBlank()) return 0L;
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            if (!decoded.startsWith(TOKEN_PREFIX)) {
+                throw new IllegalArgumentException("Invalid sync token");
+            }
+            return Long.parseLong(decoded.substring(TOKEN_PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException and Base64 errors are both IllegalArgumentException
+            throw new IllegalArgumentException("Invalid sync token");
+        }
+    }
+
+    private ApiFuture<QuerySnapshot> changedSince(String collection, long since) {
+        return firestore.collection(collection)
+                .whereGreaterThanOrEqualTo(UPDATED_AT, since)
+                .get();
+    }
+}
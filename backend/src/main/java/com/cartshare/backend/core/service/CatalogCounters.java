@@ -0,0 +1,214 @@
+package com.cartshare.backend.core.service;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.AggregateQuery;
+import com.google.cloud.firestore.AggregateQuerySnapshot;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteResult;
+import com.google.common.util.concurrent.MoreExecutors;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Function;
+
+/**
+ * Product and keyword totals for the stats endpoint, kept in sharded counter documents.
+ *
+ * Every write increments one of SHARDS documents under counters/catalog/shards picked at
+ * random, so replicas and imports never contend on a single document. Reading the totals
+ * costs SHARDS document reads whatever the catalog size. Imports, which overwrite
+ * documents and cannot tell new from existing ones, recount with count() aggregations.
+ *
+ * The shards only hold totals once a recount has stamped counters/catalog (COUNTED_AT);
+ * until then they may hold nothing but early increments, so they are recounted first.
+ * A failed increment or import recount clears the stamp, so the next read recounts
+ * instead of drifting.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class CatalogCounters {
+
+    private final Firestore firestore;
+
+    static final int SHARDS = 10;
+    static final String PRODUCTS = "products";
+    static final String OFFICIAL_PRODUCTS = "officialProducts";
+    static final String KEYWORDS = "keywords";
+    static final String COUNTED_AT = "countedAt";
+
+    public record Counts(long products, long officialProducts, long keywords) {
+        public long userContributedProducts() {
+            return products - officialProducts;
+        }
+    }
+
+    /**
+     * Seed the shards when the catalog has never been counted, so the first read is cheap
+     */
+    @PostConstruct
+    public void start() {
+        try {
+            if (!counter().get().get().contains(COUNTED_AT)) {
+                log.info("🔢 Catalog counters not initialized, counting the catalog");
+                recount();
+            }
+        } catch (ExecutionException e) {
+            log.error("❌ Failed to initialize the catalog counters, the first read will recount: ", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Current totals: the sum of all shards (recounted first if they were never initialized)
+     */
+    public Counts get() throws ExecutionException, InterruptedException {
+        ApiFuture<DocumentSnapshot> counterFuture = counter().get();
+        ApiFuture<QuerySnapshot> shardsFuture = shards().get();
+        if (!counterFuture.get().contains(COUNTED_AT)) {
+            shardsFuture.cancel(true);
+            log.info("🔢 Catalog counters not initialized, counting the catalog");
+            return recount();
+        }
+
+        long products = 0;
+        long officialProducts = 0;
+        long keywords = 0;
+        for (QueryDocumentSnapshot shard : shardsFuture.get().getDocuments()) {
+            products += valueOf(shard, PRODUCTS);
+            officialProducts += valueOf(shard, OFFICIAL_PRODUCTS);
+            keywords += valueOf(shard, KEYWORDS);
+        }
+        return new Counts(products, officialProducts, keywords);
+    }
+
+    public void productAdded(boolean isOfficial) {
+        increment(isOfficial
+                ? Map.of(PRODUCTS, FieldValue.increment(1), OFFICIAL_PRODUCTS, FieldValue.increment(1))
+                : Map.of(PRODUCTS, FieldValue.increment(1)));
+    }
+
+    public void keywordAdded() {
+        increment(Map.of(KEYWORDS, FieldValue.increment(1)));
+    }
+
+    /**
+     * Count the catalog with aggregation queries and reset the shards to the result.
+     * Shard 0 holds the totals and the others restart from zero.
+     *
+     * Counting and resetting run in one transaction that first reads every shard, so an
+     * increment racing the recount waits for it and lands on the new totals instead of
+     * being overwritten by them.
+     */
+    public Counts recount() throws ExecutionException, InterruptedException {
+        List<DocumentReference> shardRefs = new ArrayList<>(SHARDS);
+        for (int shard = 0; shard < SHARDS; shard++) shardRefs.add(shards().document(String.valueOf(shard)));
+
+        Counts counts = firestore.runTransaction(transaction -> {
+            // Lock the shards before counting
+            transaction.getAll(shardRefs.toArray(DocumentReference[]::new)).get();
+            Counts counted = countAll(transaction::get);
+
+            for (int shard = 0; shard < SHARDS; shard++) {
+                boolean first = shard == 0;
+                transaction.set(shardRefs.get(shard), Map.of(
+                        PRODUCTS, first ? counted.products() : 0L,
+                        OFFICIAL_PRODUCTS, first ? counted.officialProducts() : 0L,
+                        KEYWORDS, first ? counted.keywords() : 0L));
+            }
+            transaction.set(counter(), Map.<String, Object>of(COUNTED_AT, CatalogChangeService.currentTimestamp()), SetOptions.merge());
+            return counted;
+        }).get();
+
+        log.info("🔢 Catalog counters reset: {} products ({} official), {} keywords",
+                counts.products(), counts.officialProducts(), counts.keywords());
+        return counts;
+    }
+
+    private void increment(Map<String, Object> deltas) {
+        String shard = String.valueOf(ThreadLocalRandom.current().nextInt(SHARDS));
+        // Not awaited: the catalog write already succeeded
+        ApiFuture<WriteResult> write = shards().document(shard).set(deltas, SetOptions.merge());
+        ApiFutures.addCallback(write, new ApiFutureCallback<>() {
+            @Override
+            public void onFailure(Throwable t) {
+                log.error("❌ Counter shard {} not incremented, the next read recounts: {}", shard, t.getMessage());
+                invalidate();
+            }
+
+            @Override
+            public void onSuccess(WriteResult result) {
+                // Nothing to do
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Drop the initialized stamp, so the totals are recounted on the next read
+     */
+    public void invalidate() {
+        ApiFutures.addCallback(counter().update(COUNTED_AT, FieldValue.delete()), new ApiFutureCallback<>() {
+            @Override
+            public void onFailure(Throwable t) {
+                log.error("❌ Catalog counters could not be invalidated, totals may drift until the next import: {}",
+                        t.getMessage());
+            }
+
+            @Override
+            public void onSuccess(WriteResult result) {
+                // Nothing to do
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    private Counts countAll(Function<AggregateQuery, ApiFuture<AggregateQuerySnapshot>> run)
+            throws ExecutionException, InterruptedException {
+        // The three aggregations are issued before waiting on any of them
+        ApiFuture<AggregateQuerySnapshot> productsFuture = run.apply(firestore.collection("products").count());
+        ApiFuture<AggregateQuerySnapshot> officialFuture = run.apply(firestore.collection("products")
+                .whereEqualTo("isOfficial", true)
+                .count());
+        ApiFuture<AggregateQuerySnapshot> keywordsFuture = run.apply(firestore.collection("keywords").count());
+        try {
+            return new Counts(
+                    productsFuture.get().getCount(),
+                    officialFuture.get().getCount(),
+                    keywordsFuture.get().getCount());
+        } catch (ExecutionException | InterruptedException e) {
+            productsFuture.cancel(true);
+            officialFuture.cancel(true);
+            keywordsFuture.cancel(true);
+            throw e;
+        }
+    }
+
+    private DocumentReference counter() {
+        return firestore.collection("counters").document("catalog");
+    }
+
+    private CollectionReference shards() {
+        return counter().collection("shards");
+    }
+
+    private static long valueOf(QueryDocumentSnapshot shard, String field) {
+        Long value = shard.getLong(field);
+        return value != null ? value : 0L;
+    }
+}
@@ -0,0 +1,114 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.core.model.CatalogEvent;
+import com.cartshare.backend.core.model.Keyword;
+import com.cartshare.backend.core.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.stereotype.Service;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Fans catalog writes out to every client connected to the sync event stream.
+ * Writes made through other replicas are announced with a "changed" event, raised by
+ * CatalogVersionService when the shared version moves without this replica.
+ *
+ * Each connection gets its own bounded buffer: a client that cannot keep up is sent
+ * a resync event and disconnected instead of slowing down writers or other clients.
+ */
+@Service
+@Slf4j
+public class CatalogEventPublisher {
+
+    static final int BUFFER_SIZE = 256;
+    static final Duration HEARTBEAT_INTERVAL = Duration.ofSeconds(15);
+    private static final Duration RECONNECT_DELAY = Duration.ofSeconds(5);
+    private static final String RESYNC = "resync";
+
+    private final Sinks.Many<CatalogEvent> sink = Sinks.many().multicast().directBestEffort();
+
+    public void productCreated(Product product) {
+        emit(CatalogEvent.product(product, timestampOf(product.updatedAt())));
+    }
+
+    public void keywordCreated(String documentId, Keyword keyword) {
+        emit(CatalogEvent.keyword(documentId, keyword, timestampOf(keyword.updatedAt())));
+    }
+
+    /**
+     * Bulk changes (imports) are announced once; clients fetch them with a delta sync
+     */
+    public void catalogReloaded() {
+        emit(CatalogEvent.resync(CatalogChangeService.currentTimestamp()));
+    }
+
+    /**
+     * The catalog changed through another replica; clients catch up with a delta sync and stay connected
+     */
+    public void catalogChangedElsewhere() {
+        emit(CatalogEvent.changed(CatalogChangeService.currentTimestamp()));
+    }
+
+    public int subscriberCount() {
+        return sink.currentSubscriberCount();
+    }
+
+    /**
+     * Event stream for one client connection.
+     *
+     * Starts with a "connected" event carrying a sync token, and every event id is a
+     * sync token as well, so a reconnecting client can catch up through /changes
+     * with its Last-Event-ID. Heartbeat comments keep proxies from closing idle
+     * connections and let the server notice clients that went away.
+     */
+    public Flux<ServerSentEvent<Object>> subscribe() {
+        ServerSentEvent<Object> connected = ServerSentEvent.builder()
+                .event("connected")
+                .id(CatalogChangeService.tokenAt(CatalogChangeService.currentTimestamp()))
+                .retry(RECONNECT_DELAY)
+                .data(Map.of("subscribers", subscriberCount() + 1))
+                .build();
+
+        Flux<ServerSentEvent<Object>> events = sink.asFlux()
+                .onBackpressureBuffer(BUFFER_SIZE)
+                .map(CatalogEventPublisher::toServerSentEvent)
+                .onErrorResume(Exceptions::isOverflow, e -> {
+                    log.warn("⚠️ Slow sync stream client dropped after {} buffered events", BUFFER_SIZE);
+                    return Flux.just(toServerSentEvent(CatalogEvent.resync(CatalogChangeService.currentTimestamp())));
+                });
+
+        Flux<ServerSentEvent<Object>> heartbeats = Flux.interval(HEARTBEAT_INTERVAL)
+                .onBackpressureDrop()
+                .map(tick -> ServerSentEvent.builder().comment("heartbeat").build());
+
+        return Flux.merge(Flux.just(connected), events, heartbeats)
+                // After a resync the client must run a delta sync and reconnect
+                .takeUntil(event -> RESYNC.equals(event.event()));
+    }
+
+    private synchronized void emit(CatalogEvent event) {
+        // Writers call from many threads; the sink only accepts serialized emissions
+        Sinks.EmitResult result = sink.tryEmitNext(event);
+        if (result.isFailure() && result != Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            log.warn("⚠️ Catalog event {} not published: {}", event.type(), result);
+        }
+    }
+
+    private static ServerSentEvent<Object> toServerSentEvent(CatalogEvent event) {
+        return ServerSentEvent.builder()
+                .event(event.type().name().toLowerCase(Locale.ROOT))
+                .id(CatalogChangeService.tokenAt(event.timestamp()))
+                .data(event)
+                .build();
+    }
+
+    private static long timestampOf(Long updatedAt) {
+        return updatedAt != null ? updatedAt : CatalogChangeService.currentTimestamp();
+    }
+}
@@ -0,0 +1,84 @@
+package com.cartshare.backend.core.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the latest encoded sync payloads, as JSON and pre-compressed gzip,
+ * for each catalog version. Only the first request after a write pays for
+ * the Firestore reads and the encoding.
+ */
+@Service
+@Slf4j
+public class CatalogPayloadCache {
+
+    private final Map<SyncFormat, ObjectMapper> mappers;
+
+    private final Map<String, EncodedPayload> entries = new ConcurrentHashMap<>();
+    // ReentrantLock instead of synchronized: loads block on Firestore and would pin virtual threads
+    private final Map<String, ReentrantLock> locks = new ConcurrentHashMap<>();
+
+    public CatalogPayloadCache(ObjectMapper objectMapper) {
+        this.mappers = SyncFormat.mappers(objectMapper);
+    }
+
+    public record EncodedPayload(long version, byte[] body, byte[] gzip) {}
+
+    @FunctionalInterface
+    public interface PayloadLoader {
+        Object load() throws ExecutionException, InterruptedException;
+    }
+
+    /**
+     * Get the payload for a key at the given catalog version, loading and encoding it on a miss.
+     * Concurrent misses for the same key share a single load.
+     */
+    public EncodedPayload get(String key, long version, SyncFormat format, PayloadLoader loader)
+            throws ExecutionException, InterruptedException {
+        String cacheKey = key + "|" + format.name();
+        EncodedPayload cached = entries.get(cacheKey);
+        if (cached != null && cached.version() == version) return cached;
+
+        ReentrantLock lock = locks.computeIfAbsent(cacheKey, k -> new ReentrantLock());
+        lock.lock();
+        try {
+            cached = entries.get(cacheKey);
+            if (cached != null && cached.version() == version) return cached;
+
+            EncodedPayload fresh = encode(version, mappers.get(format), loader.load());
+            entries.merge(cacheKey, fresh, (old, neu) -> neu.version() >= old.version() ? neu : old);
+            log.debug("📦 Encoded '{}' payload v{}: {} bytes, {} bytes gzip",
+                    cacheKey, version, fresh.body().length, fresh.gzip().length);
+            return fresh;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private EncodedPayload encode(long version, ObjectMapper mapper, Object payload) {
+        try {
+            byte[] body = mapper.writeValueAsBytes(payload);
+            return new EncodedPayload(version, body, gzip(body));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to encode sync payload", e);
+        }
+    }
+
+    static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream gz = new GZIPOutputStream(out)) {
+            gz.write(data);
+        }
+        return out.toByteArray();
+    }
+}
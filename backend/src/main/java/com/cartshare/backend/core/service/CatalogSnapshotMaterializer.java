@@ -0,0 +1,151 @@
+package com.cartshare.backend.core.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Keeps the latest initial sync payload as a pre-encoded, pre-gzipped file.
+ *
+ * The file is regenerated in the background when the catalog version changes, at most
+ * once per minimum interval, so any number of devices syncing at once costs no
+ * Firestore reads and no serialization or compression: the gzip bytes are copied
+ * from the file as they are. A snapshot older than the catalog is still served;
+ * the sync token inside it makes the next delta sync pick up what it misses.
+ */
+@Service
+@Slf4j
+public class CatalogSnapshotMaterializer {
+
+    private final CatalogStreamService catalogStreamService;
+    private final CatalogVersionService catalogVersionService;
+    private final Path directory;
+    private final boolean enabled;
+    private final long minIntervalMs;
+
+    // Files of the current and previous generation are kept so in-flight transfers can finish
+    private volatile Snapshot current;
+    private volatile Snapshot previous;
+    private volatile long materializedAt;
+
+    public record Snapshot(long version, Path file, long size) {}
+
+    public CatalogSnapshotMaterializer(CatalogStreamService catalogStreamService,
+                                       CatalogVersionService catalogVersionService,
+                                       @Value("${app.sync.snapshot.dir:${java.io.tmpdir}/cartshare-snapshots}") Path directory,
+                                       @Value("${app.sync.snapshot.enabled:true}") boolean enabled,
+                                       @Value("${app.sync.snapshot.min-interval-ms:60000}") long minIntervalMs) {
+        this.catalogStreamService = catalogStreamService;
+        this.catalogVersionService = catalogVersionService;
+        this.directory = directory;
+        this.enabled = enabled;
+        this.minIntervalMs = minIntervalMs;
+    }
+
+    /**
+     * Delete snapshots and half-written files left behind by earlier runs
+     */
+    @PostConstruct
+    public void removeStale() {
+        if (!enabled || !Files.isDirectory(directory)) return;
+        int removed = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "catalog-*.{json.gz,tmp}")) {
+            for (Path file : files) {
+                if (Files.deleteIfExists(file)) removed++;
+            }
+        } catch (IOException e) {
+            log.warn("⚠️ Failed to clean up old catalog snapshots in {}: ", directory, e);
+        }
+        if (removed > 0) log.info("🧹 Removed {} old catalog snapshot file(s) from {}", removed, directory);
+    }
+
+    /**
+     * Regenerate the snapshot if the catalog changed since it was written and the
+     * previous one is at least the minimum interval old, so a steady stream of writes
+     * costs one full catalog read per interval rather than one per tick
+     */
+    @Scheduled(fixedDelayString = "${app.sync.snapshot.refresh-ms:5000}")
+    public void refresh() {
+        if (!enabled) return;
+        long version = catalogVersionService.currentVersion();
+        Snapshot snapshot = current;
+        if (snapshot != null && snapshot.version() == version) return;
+        if (snapshot != null && System.currentTimeMillis() - materializedAt < minIntervalMs) return;
+
+        try {
+            materialize(version);
+        } catch (IOException | ExecutionException e) {
+            log.error("⚠️ Failed to materialize catalog snapshot v{}: ", version, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Most recently materialized snapshot, which may trail the current catalog version
+     */
+    public Optional<Snapshot> latest() {
+        return Optional.ofNullable(current);
+    }
+
+    /**
+     * Copy the gzip bytes of a snapshot to the response as they are, without re-encoding
+     */
+    public void copyTo(Snapshot snapshot, OutputStream out) throws IOException {
+        Files.copy(snapshot.file(), out);
+    }
+
+    /**
+     * Write a snapshot decompressed, for clients that do not accept gzip
+     */
+    public void writeDecompressed(Snapshot snapshot, OutputStream out) throws IOException {
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(snapshot.file()), 64 * 1024)) {
+            in.transferTo(out);
+        }
+    }
+
+    private void materialize(long version) throws IOException, ExecutionException, InterruptedException {
+        long start = System.currentTimeMillis();
+        Files.createDirectories(directory);
+
+        String syncToken = CatalogChangeService.tokenAt(CatalogChangeService.currentTimestamp());
+        CatalogStreamService.CatalogStream stream = catalogStreamService.openInitialSync(syncToken, SyncFormat.JSON);
+
+        Path temp = Files.createTempFile(directory, "catalog-", ".tmp");
+        try {
+            try (OutputStream file = Files.newOutputStream(temp);
+                 GZIPOutputStream gz = new GZIPOutputStream(file, 64 * 1024)) {
+                stream.writeTo(gz);
+            }
+            Path target = directory.resolve("catalog-v" + version + ".json.gz");
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            Snapshot stale = previous;
+            previous = current;
+            current = new Snapshot(version, target, Files.size(target));
+            materializedAt = System.currentTimeMillis();
+            if (stale != null && !stale.file().equals(target)) {
+                Files.deleteIfExists(stale.file());
+            }
+
+            log.info("🗂️ Catalog snapshot v{} materialized: {} bytes in {} ms",
+                    version, current.size(), System.currentTimeMillis() - start);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.core.model.Keyword;
+import com.cartshare.backend.core.model.Product;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Streams the catalog straight from paged Firestore queries into the response,
+ * so memory per sync stays constant no matter how large the catalog gets.
+ */
+@Service
+@Slf4j
+public class CatalogStreamService {
+
+    static final int PAGE_SIZE = 500;
+
+    private final Firestore firestore;
+    private final Map<SyncFormat, ObjectWriter> writers = new EnumMap<>(SyncFormat.class);
+
+    public CatalogStreamService(Firestore firestore, ObjectMapper objectMapper) {
+        this.firestore = firestore;
+        // Flushing after every document would turn each product into its own chunk
+        SyncFormat.mappers(objectMapper).forEach((format, mapper) ->
+                writers.put(format, mapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)));
+    }
+
+    /**
+     * Writes the body of a started stream. Firestore failures surface as IOException.
+     */
+    @FunctionalInterface
+    public interface CatalogStream {
+        void writeTo(OutputStream out) throws IOException;
+    }
+
+    /**
+     * Prepare the initial sync stream.
+     *
+     * The first page of each collection is read eagerly so an unavailable Firestore
+     * is still reported before the response is committed; the following pages are
+     * prefetched while the previous page is being written.
+     *
+     * @param syncToken Delta sync token to embed in the payload
+     * @param format Wire format negotiated with the client
+     * @return Stream producing {"keywords":[...],"products":[...],"timestamp":..,"syncToken":..,"syncStatus":"success"}
+     */
+    public CatalogStream openInitialSync(String syncToken, SyncFormat format)
+            throws ExecutionException, InterruptedException {
+        // First pages of both collections are read concurrently; one failure cancels the other
+        ApiFuture<QuerySnapshot> keywordsFuture = pagedQuery("keywords").get();
+        ApiFuture<QuerySnapshot> productsFuture = pagedQuery("products").get();
+        QuerySnapshot firstKeywordPage;
+        QuerySnapshot firstProductPage;
+        try {
+            firstKeywordPage = keywordsFuture.get();
+            firstProductPage = productsFuture.get();
+        } catch (ExecutionException | InterruptedException e) {
+            keywordsFuture.cancel(true);
+            productsFuture.cancel(true);
+            throw e;
+        }
+
+        ObjectWriter writer = writers.get(format);
+        return out -> writeInitialSync(out, writer, firstKeywordPage, firstProductPage, syncToken);
+    }
+
+    private void writeInitialSync(OutputStream out, ObjectWriter writer, QuerySnapshot firstKeywordPage,
+                                  QuerySnapshot firstProductPage, String syncToken) throws IOException {
+        try (JsonGenerator gen = writer.getFactory().createGenerator(out)) {
+            gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            gen.writeStartObject();
+
+            gen.writeArrayFieldStart("keywords");
+            long keywords = writePages(gen, writer, "keywords", firstKeywordPage, Keyword.class);
+            gen.writeEndArray();
+
+            gen.writeArrayFieldStart("products");
+            long products = writePages(gen, writer, "products", firstProductPage, Product.class);
+            gen.writeEndArray();
+
+            gen.writeNumberField("timestamp", System.currentTimeMillis());
+            gen.writeStringField("syncToken", syncToken);
+            gen.writeStringField("syncStatus", "success");
+            gen.writeEndObject();
+
+            log.info("✅ Initial sync streamed: {} keywords, {} products", keywords, products);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Initial sync interrupted", e);
+        } catch (ExecutionException e) {
+            log.error("❌ Sync failed mid-stream: ", e);
+            throw new IOException("Failed to stream sync data", e);
+        }
+    }
+
+    /**
+     * Write every page of a collection, starting from an already fetched first page.
+     * The next page is requested before the current one is written, so Firestore
+     * latency overlaps with serialization and network writes.
+     */
+    private <T> long writePages(JsonGenerator gen, ObjectWriter writer, String collection, QuerySnapshot page,
+                                Class<T> type) throws IOException, ExecutionException, InterruptedException {
+        long written = 0;
+        while (true) {
+            List<QueryDocumentSnapshot> documents = page.getDocuments();
+            ApiFuture<QuerySnapshot> nextPage = documents.size() < PAGE_SIZE
+                    ? null
+                    : pagedQuery(collection).startAfter(documents.getLast()).get();
+            try {
+                for (QueryDocumentSnapshot doc : documents) {
+                    writer.writeValue(gen, doc.toObject(type));
+                    written++;
+                }
+                gen.flush();
+            } catch (IOException e) {
+                // Client went away: stop the prefetch as well
+                if (nextPage != null) nextPage.cancel(true);
+                throw e;
+            }
+
+            if (nextPage == null) return written;
+            page = nextPage.get();
+        }
+    }
+
+    private Query pagedQuery(String collection) {
+        return firestore.collection(collection)
+                .orderBy(FieldPath.documentId())
+                .limit(PAGE_SIZE);
+    }
+}
@@ -0,0 +1,204 @@
+package com.cartshare.backend.core.service;
+
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.ListenerRegistration;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteResult;
+import com.google.common.util.concurrent.MoreExecutors;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Catalog version counter, bumped on every catalog write.
+ *
+ * The version lives in one Firestore document (meta/catalogVersion) shared by every
+ * replica, and each replica follows it with a snapshot listener. Conditional requests are
+ * still answered from memory without any Firestore reads, and a replica that did not
+ * handle a write stops matching old ETags as soon as the listener delivers the bump.
+ * The document's creation time is part of every ETag, so recreating it never produces a
+ * tag that matches data served before.
+ *
+ * A write bumps the local version at once and the shared one in the background, one
+ * increment in flight per replica: bumps made meanwhile are sent as a single increment
+ * of their count, so the document sees at most one write per round trip per replica.
+ * When the shared version moves by more than this replica's own bumps, the catalog changed
+ * through another replica and connected clients are told to run a delta sync.
+ */
+@Service
+@Slf4j
+public class CatalogVersionService {
+
+    static final String COLLECTION = "meta";
+    static final String DOCUMENT = "catalogVersion";
+    static final String VERSION = "version";
+
+    // Null when there is no Firestore (tests): the version is then this process's own
+    private final DocumentReference document;
+    private final CatalogEventPublisher catalogEventPublisher;
+    private final AtomicLong version = new AtomicLong();
+    private volatile String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private volatile ListenerRegistration listener;
+    // Bumps not yet sent to the shared document, and whether an increment is in flight
+    private final AtomicLong unsent = new AtomicLong();
+    private final AtomicBoolean sending = new AtomicBoolean();
+    // Own bumps sent but not yet seen by the listener, and the last shared version it delivered
+    private final AtomicLong ownUnseen = new AtomicLong();
+    private volatile long lastShared = -1;
+
+    public CatalogVersionService(Firestore firestore, CatalogEventPublisher catalogEventPublisher) {
+        this.document = firestore != null ? firestore.collection(COLLECTION).document(DOCUMENT) : null;
+        this.catalogEventPublisher = catalogEventPublisher;
+    }
+
+    /**
+     * Load the shared version and follow it
+     */
+    @PostConstruct
+    public void start() {
+        if (document == null) return;
+        try {
+            DocumentSnapshot snapshot = document.get().get();
+            advance(snapshot);
+            if (snapshot.exists() && snapshot.getLong(VERSION) != null) lastShared = snapshot.getLong(VERSION);
+        } catch (ExecutionException e) {
+            log.error("⚠️ Failed to load the catalog version, waiting for the listener: ", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        listener = document.addSnapshotListener((snapshot, error) -> {
+            if (error != null) {
+                log.warn("⚠️ Catalog version listener failed: {}", error.getMessage());
+                return;
+            }
+            advance(snapshot);
+            followShared(snapshot);
+        });
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (listener != null) listener.remove();
+    }
+
+    public long currentVersion() {
+        return version.get();
+    }
+
+    /**
+     * Record that the catalog changed. Called once per logical write, after it is committed.
+     * Does not wait for Firestore: the listener reconciles the local version with the shared one.
+     * @return the new local version
+     */
+    public long markChanged() {
+        long local = version.incrementAndGet();
+        if (document != null) {
+            unsent.incrementAndGet();
+            send();
+        }
+        return local;
+    }
+
+    /**
+     * Strong ETag for a representation of the catalog at the given version.
+     * @param variant Representation suffix (e.g. content encoding), null for identity
+     */
+    public String etag(long version, String variant) {
+        String suffix = (variant == null || variant.isBlank()) ? "" : "-" + variant;
+        return "\"" + epoch + "-" + version + suffix + "\"";
+    }
+
+    /**
+     * Check an If-None-Match header against an ETag (weak comparison, as required for GET)
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) return false;
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*")) return true;
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Send the unsent bumps as one increment, unless one is already in flight (it sends them when done)
+     */
+    private void send() {
+        while (unsent.get() > 0 && sending.compareAndSet(false, true)) {
+            long bumps = unsent.getAndSet(0);
+            if (bumps == 0) {
+                sending.set(false);
+                continue;
+            }
+            // Counted before the write, so the listener can never see it as someone else's
+            ownUnseen.addAndGet(bumps);
+            ApiFutures.addCallback(document.set(Map.<String, Object>of(VERSION, FieldValue.increment(bumps)), SetOptions.merge()),
+                    new ApiFutureCallback<WriteResult>() {
+                        @Override
+                        public void onFailure(Throwable t) {
+                            log.error("❌ Failed to bump the catalog version, replicas may serve stale data: {}", t.getMessage());
+                            ownUnseen.getAndUpdate(n -> Math.max(0, n - bumps));
+                            sent();
+                        }
+
+                        @Override
+                        public void onSuccess(WriteResult result) {
+                            sent();
+                        }
+                    }, MoreExecutors.directExecutor());
+            return;
+        }
+    }
+
+    private void sent() {
+        sending.set(false);
+        send();
+    }
+
+    /**
+     * Announce shared version moves that this replica's own bumps do not account for.
+     * Listener events are delivered one at a time.
+     */
+    private void followShared(DocumentSnapshot snapshot) {
+        if (snapshot == null || !snapshot.exists()) return;
+        Long shared = snapshot.getLong(VERSION);
+        if (shared == null) return;
+        long previous = lastShared;
+        if (shared <= previous) return;
+        lastShared = shared;
+        // The first version seen is the baseline
+        if (previous < 0) return;
+
+        long moved = shared - previous;
+        long own = Math.min(moved, ownUnseen.getAndUpdate(n -> Math.max(0, n - moved)));
+        if (moved > own && catalogEventPublisher != null) {
+            log.debug("🔄 Catalog changed through another replica (version {})", shared);
+            catalogEventPublisher.catalogChangedElsewhere();
+        }
+    }
+
+    /**
+     * Take a newer shared version; reads and listener events may arrive out of order
+     */
+    private void advance(DocumentSnapshot snapshot) {
+        if (snapshot == null || !snapshot.exists()) return;
+        if (snapshot.getCreateTime() != null) {
+            epoch = Long.toString(snapshot.getCreateTime().getSeconds(), 36);
+        }
+        Long shared = snapshot.getLong(VERSION);
+        if (shared != null) version.accumulateAndGet(shared, Math::max);
+    }
+}
@@ -0,0 +1,109 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.infrastructure.excel.ExcelReader;
+import com.cartshare.backend.shared.util.ResourceUtils;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Known category IDs, held in memory so validating a contribution costs no Firestore read.
+ *
+ * Loaded at startup from Categories.xlsx and the IDs of the categories collection, and
+ * reloaded on a fixed delay. An ID that is not known is rejected without a read, so a
+ * category created since the last reload validates once the next reload has seen it.
+ */
+@Service
+@Slf4j
+public class CategoryRegistry {
+
+    static final String CATEGORIES_RESOURCE = "excel/Categories.xlsx";
+
+    private final Firestore firestore;
+    private final String resource;
+
+    private volatile Set<String> categoryIds = Set.of();
+
+    public CategoryRegistry(Firestore firestore,
+                            @Value("${app.categories.resource:" + CATEGORIES_RESOURCE + "}") String resource) {
+        this.firestore = firestore;
+        this.resource = resource;
+    }
+
+    /**
+     * Load the category IDs before the first contribution is validated
+     */
+    @PostConstruct
+    public void start() {
+        try {
+            load();
+        } catch (ExecutionException e) {
+            // Firestore is down: the workbook still covers the standard categories until the next reload
+            log.error("⚠️ Failed to load categories from Firestore: ", e);
+            categoryIds = Set.copyOf(workbookIds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            categoryIds = Set.copyOf(workbookIds());
+        }
+    }
+
+    /**
+     * Whether a category with this ID exists, answered from memory
+     */
+    public boolean exists(String categoryId) {
+        if (categoryId == null || categoryId.isBlank()) return false;
+        return categoryIds.contains(categoryId);
+    }
+
+    /**
+     * Reload the category IDs, so new categories start validating and deleted ones stop
+     */
+    @Scheduled(fixedDelayString = "${app.categories.refresh-ms:300000}", initialDelayString = "${app.categories.refresh-ms:300000}")
+    public void refresh() {
+        try {
+            load();
+        } catch (ExecutionException e) {
+            log.error("⚠️ Failed to reload categories, keeping {} known: ", categoryIds.size(), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void load() throws ExecutionException, InterruptedException {
+        Set<String> ids = new HashSet<>(workbookIds());
+        // Only the document names are needed
+        for (QueryDocumentSnapshot doc : firestore.collection("categories")
+                .select(FieldPath.documentId())
+                .get().get().getDocuments()) {
+            ids.add(doc.getId());
+        }
+        categoryIds = Set.copyOf(ids);
+        log.info("📂 Category registry loaded: {} categories", ids.size());
+    }
+
+    private Set<String> workbookIds() {
+        Set<String> ids = new HashSet<>();
+        try (InputStream is = ResourceUtils.getResourceStream(resource)) {
+            List<List<String>> rows = ExcelReader.read(is);
+            // First row is the header (categoryId, name, classification, priority)
+            for (List<String> row : rows.subList(Math.min(1, rows.size()), rows.size())) {
+                if (!row.isEmpty() && !row.getFirst().isBlank()) ids.add(row.getFirst());
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("⚠️ Categories workbook not readable: {}", e.getMessage());
+        }
+        return ids;
+    }
+}
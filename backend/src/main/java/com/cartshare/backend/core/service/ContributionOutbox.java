@@ -0,0 +1,370 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.core.model.Contribution;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Accepts product contributions into a durable local log and writes them to Firestore in the background.
+ *
+ * A contribution is acknowledged once its line is appended and forced to disk, so request
+ * latency no longer depends on Firestore. Virtual-thread workers drain the log with
+ * exponential backoff; pending lines are replayed on startup, so accepted contributions
+ * survive a crash. The log is compacted on startup and whenever the lines superseded by a
+ * later state pass compactAfter, so it does not grow with every contribution ever made.
+ */
+@Service
+@Slf4j
+public class ContributionOutbox {
+
+    static final int MAX_ATTEMPTS = 5;
+    static final String LOG_FILE = "contributions.log";
+    static final int MAX_IDEMPOTENCY_KEY_LENGTH = 255;
+
+    private final ProductContributionService productContributionService;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final long retryBackoffMs;
+    private final int retainFinished;
+    private final int compactAfter;
+    private final Semaphore writers;
+
+    // ReentrantLock instead of synchronized: appends force the file and would pin virtual threads
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock; insertion order is acceptance order
+    private final Map<String, Contribution> contributions = new LinkedHashMap<>();
+    private final Map<String, String> pendingByProductId = new HashMap<>();
+    private final Map<String, String> idByIdempotencyKey = new HashMap<>();
+
+    // Guarded by lock: lines in the log, including the ones a later line supersedes
+    private int logLines;
+    private FileChannel channel;
+    private ExecutorService executor;
+
+    public ContributionOutbox(ProductContributionService productContributionService,
+                              ObjectMapper objectMapper,
+                              @Value("${app.contributions.outbox.dir:${java.io.tmpdir}/cartshare-outbox}") Path directory,
+                              @Value("${app.contributions.outbox.workers:4}") int workers,
+                              @Value("${app.contributions.outbox.retry-backoff-ms:1000}") long retryBackoffMs,
+                              @Value("${app.contributions.outbox.retain-finished:1000}") int retainFinished,
+                              @Value("${app.contributions.outbox.compact-after:10000}") int compactAfter) {
+        this.productContributionService = productContributionService;
+        this.objectMapper = objectMapper;
+        this.directory = directory;
+        this.retryBackoffMs = retryBackoffMs;
+        this.retainFinished = retainFinished;
+        this.compactAfter = compactAfter;
+        this.writers = new Semaphore(workers);
+    }
+
+    /**
+     * Replay the log, compact it and resume every contribution that was still pending
+     */
+    @PostConstruct
+    public void start() throws IOException {
+        Files.createDirectories(directory);
+        Path file = directory.resolve(LOG_FILE);
+        replay(file);
+        compact(file);
+        channel = open(file);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+
+        List<Contribution> pending = contributions.values().stream()
+                .filter(c -> c.status() == Contribution.Status.PENDING)
+                .toList();
+        pending.forEach(c -> executor.execute(() -> process(c, true)));
+        log.info("📮 Contribution outbox started: {} pending contribution(s) resumed", pending.size());
+    }
+
+    /**
+     * Stop the workers. Contributions they were writing stay pending in the log and resume on the next start.
+     */
+    @PreDestroy
+    public void stop() throws IOException {
+        if (executor != null) executor.shutdownNow();
+        if (channel != null) channel.close();
+    }
+
+    /**
+     * Validate a contribution and append it to the log.
+     * A second contribution of a product that is still pending returns the first one, and so
+     * does a retry carrying the same idempotency key while its contribution is retained.
+     *
+     * @param idempotencyKey Client-chosen key for safe retries (optional)
+     * @return The accepted contribution, in PENDING state unless a keyed retry found it finished
+     * @throws IllegalArgumentException if the product name or category is invalid, or the key was used for another product
+     * @throws IOException if the log cannot be written
+     */
+    public Contribution submit(String productName, String categoryId, String idempotencyKey)
+            throws IOException, ExecutionException, InterruptedException {
+        String productId = productContributionService.canonicalProductId(productName);
+        // Checked up front, so a bad category is a 400 rather than an accepted contribution rejected later
+        productContributionService.validateCategoryId(categoryId);
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_IDEMPOTENCY_KEY_LENGTH)) {
+            throw new IllegalArgumentException("Idempotency key must be 1 to " + MAX_IDEMPOTENCY_KEY_LENGTH + " characters");
+        }
+        Contribution contribution;
+        lock.lock();
+        try {
+            Contribution previous = idempotencyKey == null ? null : contributions.get(idByIdempotencyKey.get(idempotencyKey));
+            if (previous != null) {
+                if (!previous.productId().equals(productId)) {
+                    throw new IllegalArgumentException("Idempotency key was already used for another product");
+                }
+                log.info("📮 Idempotent retry of contribution {}", previous.id());
+                return previous;
+            }
+            String pendingId = pendingByProductId.get(productId);
+            if (pendingId != null) {
+                log.info("📮 Contribution of '{}' already pending: {}", productId, pendingId);
+                return contributions.get(pendingId);
+            }
+            contribution = Contribution.accepted(UUID.randomUUID().toString(), productName.trim(),
+                    categoryId, productId, idempotencyKey, System.currentTimeMillis());
+            // Durable before it is acknowledged
+            append(contribution);
+            contributions.put(contribution.id(), contribution);
+            pendingByProductId.put(productId, contribution.id());
+            if (idempotencyKey != null) idByIdempotencyKey.put(idempotencyKey, contribution.id());
+        } finally {
+            lock.unlock();
+        }
+
+        executor.execute(() -> process(contribution, false));
+        log.info("📮 Contribution accepted: {} ({})", productId, contribution.id());
+        return contribution;
+    }
+
+    /**
+     * Current state of a contribution, if it is still retained
+     */
+    public Optional<Contribution> status(String id) {
+        lock.lock();
+        try {
+            return Optional.ofNullable(contributions.get(id));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Number of contributions not yet written
+     */
+    public int pendingCount() {
+        lock.lock();
+        try {
+            return pendingByProductId.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Write one contribution, retrying transient failures with exponential backoff.
+     *
+     * @param recovered Replayed from the log, so an earlier run may already have written it
+     */
+    void process(Contribution contribution, boolean recovered) {
+        long backoff = retryBackoffMs;
+        int attempt = 1;
+        try {
+            for (; ; attempt++) {
+                try {
+                    writers.acquire();
+                    try {
+                        productContributionService.contributeProduct(contribution.productName(), contribution.categoryId());
+                    } finally {
+                        writers.release();
+                    }
+                    finish(contribution, Contribution.Status.COMPLETED, attempt, null);
+                    return;
+                } catch (IllegalArgumentException e) {
+                    // A retried write may have committed before its response was lost: the product is ours
+                    if ((recovered || attempt > 1) && productContributionService.productExists(contribution.productName())) {
+                        finish(contribution, Contribution.Status.COMPLETED, attempt, null);
+                    } else {
+                        finish(contribution, Contribution.Status.REJECTED, attempt, e.getMessage());
+                    }
+                    return;
+                } catch (InterruptedException e) {
+                    throw e;
+                } catch (Exception e) {
+                    if (attempt >= MAX_ATTEMPTS) {
+                        log.error("❌ Contribution {} failed after {} attempts: ", contribution.id(), attempt, e);
+                        finish(contribution, Contribution.Status.FAILED, attempt, e.getMessage());
+                        return;
+                    }
+                    log.warn("⚠️ Contribution {} attempt {} failed, retrying in {} ms: {}",
+                            contribution.id(), attempt, backoff, e.getMessage());
+                    retrying(contribution.id(), attempt, e.getMessage());
+                    Thread.sleep(backoff);
+                    backoff *= 2;
+                }
+            }
+        } catch (InterruptedException e) {
+            // Shutting down: the contribution stays pending in the log
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            // E.g. the existence check of a retry failed: finish it, so it neither blocks resubmission nor replays forever
+            log.error("❌ Contribution {} could not be completed: ", contribution.id(), e);
+            finish(contribution, Contribution.Status.FAILED, attempt, e.getMessage());
+        }
+    }
+
+    private void retrying(String id, int attempts, String error) {
+        lock.lock();
+        try {
+            contributions.computeIfPresent(id, (key, c) -> c.withAttempts(attempts, error, System.currentTimeMillis()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void finish(Contribution contribution, Contribution.Status status, int attempts, String error) {
+        Contribution finished = contribution.finished(status, attempts, error, System.currentTimeMillis());
+        lock.lock();
+        try {
+            try {
+                append(finished);
+            } catch (IOException e) {
+                // Replayed on the next start; the retry finds the product and completes it
+                log.error("⚠️ Failed to record outcome of contribution {}: ", contribution.id(), e);
+            }
+            contributions.put(finished.id(), finished);
+            pendingByProductId.remove(finished.productId(), finished.id());
+            evictFinished();
+            if (logLines - contributions.size() >= compactAfter) compactLog();
+        } finally {
+            lock.unlock();
+        }
+        log.info("📮 Contribution {} {}: {}", finished.id(), status, finished.productId());
+    }
+
+    /**
+     * Keep only the most recent finished contributions queryable
+     */
+    private void evictFinished() {
+        long finished = contributions.values().stream()
+                .filter(c -> c.status() != Contribution.Status.PENDING)
+                .count();
+        var iterator = contributions.values().iterator();
+        while (finished > retainFinished && iterator.hasNext()) {
+            Contribution contribution = iterator.next();
+            if (contribution.status() != Contribution.Status.PENDING) {
+                iterator.remove();
+                if (contribution.idempotencyKey() != null) {
+                    idByIdempotencyKey.remove(contribution.idempotencyKey(), contribution.id());
+                }
+                finished--;
+            }
+        }
+    }
+
+    private void append(Contribution contribution) throws IOException {
+        ByteBuffer line = ByteBuffer.wrap((objectMapper.writeValueAsString(contribution) + "\n")
+                .getBytes(StandardCharsets.UTF_8));
+        while (line.hasRemaining()) {
+            channel.write(line);
+        }
+        channel.force(false);
+        logLines++;
+    }
+
+    /**
+     * Compact the live log and switch appends to the new file. Called with the lock held.
+     */
+    private void compactLog() {
+        Path file = directory.resolve(LOG_FILE);
+        try {
+            compact(file);
+        } catch (IOException e) {
+            log.error("⚠️ Failed to compact the contribution log, appending to it as is: ", e);
+            return;
+        }
+        try {
+            channel.close();
+            channel = open(file);
+        } catch (IOException e) {
+            log.error("❌ Failed to reopen the contribution log: ", e);
+        }
+        log.info("📮 Contribution log compacted to {} line(s)", logLines);
+    }
+
+    private static FileChannel open(Path file) throws IOException {
+        return FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+    }
+
+    private void replay(Path file) throws IOException {
+        if (!Files.exists(file)) return;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank()) continue;
+                try {
+                    Contribution contribution = objectMapper.readValue(line, Contribution.class);
+                    // Re-put so the latest state moves to the end, like it was appended
+                    contributions.remove(contribution.id());
+                    contributions.put(contribution.id(), contribution);
+                } catch (IOException e) {
+                    // A crash in the middle of an append leaves a torn last line
+                    log.warn("⚠️ Skipping unreadable outbox line: {}", e.getMessage());
+                }
+            }
+        }
+        for (Contribution contribution : contributions.values()) {
+            if (contribution.status() == Contribution.Status.PENDING) {
+                pendingByProductId.put(contribution.productId(), contribution.id());
+            }
+            if (contribution.idempotencyKey() != null) {
+                idByIdempotencyKey.put(contribution.idempotencyKey(), contribution.id());
+            }
+        }
+        evictFinished();
+    }
+
+    /**
+     * Rewrite the log with one line per retained contribution
+     */
+    private void compact(Path file) throws IOException {
+        Path temp = Files.createTempFile(directory, "contributions-", ".tmp");
+        try {
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Contribution contribution : new ArrayList<>(contributions.values())) {
+                    writer.write(objectMapper.writeValueAsString(contribution));
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            logLines = contributions.size();
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
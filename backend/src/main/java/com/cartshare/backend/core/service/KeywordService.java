@@ -2,50 +2,131 @@ package com.cartshare.backend.core.service;
 
 import com.cartshare.backend.core.model.Keyword;
 import com.cartshare.backend.infrastructure.excel.ExcelReader;
-import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.Firestore;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class KeywordService {
     private final Firestore firestore;
+    private final CatalogEventPublisher catalogEventPublisher;
+    private final CatalogCounters catalogCounters;
+
+    static final long COALESCE_WAIT_MS = 2_000;
+
+    // Keyword IDs known to exist, loaded at warmup and grown by every write: skipped by later
+    // contributions. Keywords are never deleted, so membership never goes stale.
+    private final Set<String> knownKeywordIds = ConcurrentHashMap.newKeySet();
+    // Keyword IDs a contribution in flight is creating, completed when its write ends
+    private final Map<String, CompletableFuture<Void>> inFlight = new ConcurrentHashMap<>();
+
     /**
-     * Create keywords for a product.
-     * Keywords are used for autocomplete suggestions.
-     * @param productName Name of the product (for logging)
-     * @param searchKeywords List of keywords to create
+     * Keywords a contribution still has to create-if-absent, by document ID.
+     * claimed are the IDs this contribution is creating on behalf of concurrent ones.
      */
-    public void createKeywordsForProduct(String productName, List<String> searchKeywords) {
-        try {
-            log.info("🔑 Creating keywords for product: {} ({})", productName, searchKeywords.size());
-            for (String keyword : searchKeywords) {
-                createKeywordIfNotExists(keyword);
+    public record PendingKeywords(Map<String, String> keywordsById, List<String> claimed, CompletableFuture<Void> done) {}
+
+    /**
+     * Work out which keywords of a new product still need writing.
+     *
+     * Keywords already known to exist are dropped. If concurrent contributions are creating
+     * some of the others, their writes are awaited first (before claiming anything, so two
+     * contributions never wait on each other) instead of writing the same documents twice.
+     *
+     * @param searchKeywords Keywords generated for the product
+     */
+    public PendingKeywords pendingKeywords(List<String> searchKeywords) throws InterruptedException {
+        Map<String, String> keywordsById = new LinkedHashMap<>();
+        for (String keyword : searchKeywords) {
+            String docId = ExcelReader.toSafeId(keyword);
+            if (!knownKeywordIds.contains(docId)) keywordsById.putIfAbsent(docId, keyword);
+        }
+
+        CompletableFuture<?>[] others = keywordsById.keySet().stream()
+                .map(inFlight::get)
+                .filter(Objects::nonNull)
+                .toArray(CompletableFuture[]::new);
+        if (others.length > 0) {
+            try {
+                CompletableFuture.allOf(others).get(COALESCE_WAIT_MS, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                // The other write failed or is slow: whatever is still unknown gets written here
+                log.debug("🔑 Concurrent keyword write not usable: {}", e.getMessage());
             }
-            log.info("✅ Keywords created for product: {}", productName);
-        } catch (Exception e) {
-            log.error("⚠️ Error creating keywords for product {}: ", productName, e);
+            keywordsById.keySet().removeIf(knownKeywordIds::contains);
+        }
+
+        CompletableFuture<Void> done = new CompletableFuture<>();
+        List<String> claimed = new ArrayList<>();
+        for (String docId : keywordsById.keySet()) {
+            if (inFlight.putIfAbsent(docId, done) == null) claimed.add(docId);
         }
+        return new PendingKeywords(keywordsById, claimed, done);
     }
+
     /**
-     * Create a keyword if it doesn't already exist.
-     * Uses the keyword itself as the document ID for O(1) existence checks.
+     * Record keywords read from Firestore (warmup, index rebuilds) as existing
+     *
+     * @param docIds Keyword document IDs
      */
-    private void createKeywordIfNotExists(String keyword) throws ExecutionException, InterruptedException {
-        String docId = ExcelReader.toSafeId(keyword);
-        DocumentReference docRef = firestore.collection("keywords").document(docId);
-        // Using a direct document check is faster and cheaper than a query
-        if (!docRef.get().get().exists()) {
-            Keyword kw = new Keyword(keyword);
-            docRef.set(kw).get();
-            log.debug("✅ Keyword created: {}", keyword);
-        }
+    public void keywordsExist(Collection<String> docIds) {
+        knownKeywordIds.addAll(docIds);
+        log.debug("🔑 {} keywords known in memory", knownKeywordIds.size());
     }
+
+    /**
+     * Number of keywords whose existence is answered without a Firestore read
+     */
+    public int knownKeywordCount() {
+        return knownKeywordIds.size();
+    }
+
+    /**
+     * Record a committed write: every pending keyword now exists, and the created ones are announced.
+     * The caller bumps the catalog version once for its whole write.
+     *
+     * @param created Keywords the write actually created, by document ID
+     */
+    public void keywordsWritten(PendingKeywords pending, Map<String, Keyword> created) {
+        knownKeywordIds.addAll(pending.keywordsById().keySet());
+        release(pending);
+        pending.done().complete(null);
+
+        created.forEach((docId, keyword) -> {
+            catalogEventPublisher.keywordCreated(docId, keyword);
+            catalogCounters.keywordAdded();
+        });
+        if (!created.isEmpty()) log.info("🔑 Keywords created: {}", created.keySet());
+    }
+
+    /**
+     * Release the claims of a write that did not commit, so waiting contributions write the keywords themselves
+     */
+    public void keywordsFailed(PendingKeywords pending, Throwable cause) {
+        release(pending);
+        pending.done().completeExceptionally(cause);
+    }
+
+    private void release(PendingKeywords pending) {
+        pending.claimed().forEach(docId -> inFlight.remove(docId, pending.done()));
+    }
+
     /**
      * Get all keywords
      */
@@ -53,9 +134,9 @@ public class KeywordService {
         return firestore.collection("keywords").get().get().toObjects(Keyword.class);
     }
     /**
-     * Get total keyword count
+     * Get total keyword count (maintained counter, no document reads)
      */
     public long getKeywordCount() throws ExecutionException, InterruptedException {
-        return firestore.collection("keywords").get().get().size();
+        return catalogCounters.get().keywords();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,199 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.core.model.Product;
+import com.cartshare.backend.shared.util.StringUtils;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory MinHash/LSH index of product names, used to catch near-duplicate contributions
+ * ("arroz agulha 1 kg" when "arroz agulha 1kg" exists) that canonical IDs do not.
+ *
+ * Names are normalized (case, accents, separators removed) and split into character
+ * shingles. Each name gets a MinHash signature, cut into bands; names sharing a band
+ * bucket are candidates, and candidates are confirmed with their exact Jaccard similarity.
+ * Names with different numbers are never duplicates: "leite 1l" and "leite 1,5l" are two
+ * sizes of a product, however similar their shingles. Rebuilt beside the autocomplete index
+ * from the same Firestore reads.
+ *
+ * Only logs matches by default (reject=false): on the seed catalog the 0.8 threshold still
+ * flags distinct products such as "pilhas aa alcalinas" and "pilhas aaa alcalinas".
+ */
+@Service
+@Slf4j
+public class NearDuplicateIndex {
+
+    static final int SHINGLE_SIZE = 3;
+    static final int BANDS = 16;
+    static final int ROWS = 4;
+    private static final int HASHES = BANDS * ROWS;
+
+    // Fixed seeds: signatures only have to agree within one process
+    private static final long[] HASH_SEEDS = new Random(0x5eedL).longs(HASHES).toArray();
+    private static final Pattern NUMBER = Pattern.compile("[0-9]+");
+
+    private final double threshold;
+    private final boolean reject;
+
+    // Swapped whole by rebuild; add() writes into the current one
+    private volatile Index index = new Index();
+
+    public NearDuplicateIndex(@Value("${app.products.near-duplicates.threshold:0.8}") double threshold,
+                              @Value("${app.products.near-duplicates.reject:false}") boolean reject) {
+        this.threshold = threshold;
+        this.reject = reject;
+    }
+
+    /**
+     * An indexed product similar to a contributed name
+     */
+    public record Match(String productId, String productName, double similarity) {}
+
+    private record Entry(String productName, Set<String> shingles, List<String> numbers) {}
+
+    private static final class Index {
+        private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+        // Band bucket -> product IDs
+        private final Map<Long, Set<String>> buckets = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Whether near duplicates are rejected (true) or only logged
+     */
+    public boolean rejects() {
+        return reject;
+    }
+
+    /**
+     * Replace the index with these products.
+     * Products added while the caller was reading them are restored by the next rebuild.
+     */
+    public void rebuild(Collection<Product> products) {
+        Index rebuilt = new Index();
+        products.forEach(product -> addTo(rebuilt, product));
+        index = rebuilt;
+        log.info("🧬 Near-duplicate index rebuilt: {} products", rebuilt.entries.size());
+    }
+
+    public void add(Product product) {
+        addTo(index, product);
+    }
+
+    public int size() {
+        return index.entries.size();
+    }
+
+    /**
+     * The most similar indexed product at or above the threshold, other than the product itself
+     *
+     * @param productId Canonical ID of the contributed name, never reported as its own duplicate
+     */
+    public Optional<Match> closest(String productName, String productId) {
+        Set<String> shingles = shingles(productName);
+        if (shingles.isEmpty()) return Optional.empty();
+        Index current = index;
+
+        Set<String> candidates = new HashSet<>();
+        long[] bands = bands(signature(shingles));
+        for (long band : bands) {
+            Set<String> bucket = current.buckets.get(band);
+            if (bucket != null) candidates.addAll(bucket);
+        }
+        candidates.remove(productId);
+
+        List<String> numbers = numbers(productName);
+        Match best = null;
+        for (String candidate : candidates) {
+            Entry entry = current.entries.get(candidate);
+            if (entry == null || !entry.numbers().equals(numbers)) continue;
+            double similarity = jaccard(shingles, entry.shingles());
+            if (similarity >= threshold && (best == null || similarity > best.similarity())) {
+                best = new Match(candidate, entry.productName(), similarity);
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    private static void addTo(Index index, Product product) {
+        if (product == null || product.id() == null) return;
+        Set<String> shingles = shingles(product.productName());
+        if (shingles.isEmpty()) return;
+        index.entries.put(product.id(), new Entry(product.productName(), shingles, numbers(product.productName())));
+        for (long band : bands(signature(shingles))) {
+            index.buckets.computeIfAbsent(band, key -> ConcurrentHashMap.newKeySet()).add(product.id());
+        }
+    }
+
+    /**
+     * Character shingles of the normalized name; separators are dropped so "1 kg" and "1kg" agree
+     */
+    static Set<String> shingles(String productName) {
+        if (productName == null) return Set.of();
+        String compact = StringUtils.toSafeId(productName).replace("-", "");
+        if (compact.length() <= SHINGLE_SIZE) return compact.isEmpty() ? Set.of() : Set.of(compact);
+        Set<String> shingles = new HashSet<>();
+        for (int i = 0; i + SHINGLE_SIZE <= compact.length(); i++) {
+            shingles.add(compact.substring(i, i + SHINGLE_SIZE));
+        }
+        return shingles;
+    }
+
+    /**
+     * Numbers in the name, in order ("1,5 l" gives [1, 5]), so sizes and counts can be compared
+     */
+    static List<String> numbers(String productName) {
+        Matcher matcher = NUMBER.matcher(StringUtils.toSafeId(productName));
+        return matcher.results().map(result -> result.group()).toList();
+    }
+
+    private static int[] signature(Set<String> shingles) {
+        int[] signature = new int[HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (String shingle : shingles) {
+            long base = shingle.hashCode();
+            for (int i = 0; i < HASHES; i++) {
+                int hash = (int) mix(base ^ HASH_SEEDS[i]);
+                if (hash < signature[i]) signature[i] = hash;
+            }
+        }
+        return signature;
+    }
+
+    private static long[] bands(int[] signature) {
+        long[] bands = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            int hash = Arrays.hashCode(Arrays.copyOfRange(signature, band * ROWS, (band + 1) * ROWS));
+            // Band number in the high bits, so equal rows in different bands do not collide
+            bands[band] = ((long) band << 32) | (hash & 0xffffffffL);
+        }
+        return bands;
+    }
+
+    private static double jaccard(Set<String> a, Set<String> b) {
+        int common = 0;
+        for (String shingle : a) {
+            if (b.contains(shingle)) common++;
+        }
+        return (double) common / (a.size() + b.size() - common);
+    }
+
+    // SplitMix64 finalizer
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,170 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.core.model.Product;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Bounded read-through cache of products by canonical ID.
+ *
+ * Entries expire after a TTL and the least recently used ones are evicted past the
+ * maximum size. Products known not to exist are cached too, for a shorter time, so a
+ * burst of lookups for a missing product costs one Firestore read. Writers put what
+ * they created; bulk writers (imports, migrations) invalidate everything.
+ */
+@Service
+@Slf4j
+public class ProductCache {
+
+    private final int maxEntries;
+    private final long ttlMs;
+    private final long negativeTtlMs;
+    private final LongSupplier clock;
+
+    // ReentrantLock instead of synchronized, like the other caches; loads run outside it
+    private final ReentrantLock lock = new ReentrantLock();
+    // Guarded by lock; access order, so the eldest entry is the least recently used
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    // Bumped by every invalidation, so a load that started before it is not cached
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * A cached product, or a negative entry when product is null
+     */
+    private record Entry(Product product, long expiresAt) {}
+
+    @FunctionalInterface
+    public interface ProductLoader {
+        /**
+         * @return The product, or null if it does not exist
+         */
+        Product load(String productId) throws ExecutionException, InterruptedException;
+    }
+
+    public ProductCache(@Value("${app.products.cache.max-entries:10000}") int maxEntries,
+                        @Value("${app.products.cache.ttl-ms:600000}") long ttlMs,
+                        @Value("${app.products.cache.negative-ttl-ms:30000}") long negativeTtlMs) {
+        this(maxEntries, ttlMs, negativeTtlMs, System::currentTimeMillis);
+    }
+
+    ProductCache(int maxEntries, long ttlMs, long negativeTtlMs, LongSupplier clock) {
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.negativeTtlMs = negativeTtlMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Get a product, loading it on a miss.
+     *
+     * @return The product, or null if it does not exist (possibly answered by a negative entry)
+     */
+    public Product get(String productId, ProductLoader loader) throws ExecutionException, InterruptedException {
+        long now = clock.getAsLong();
+        long loadGeneration;
+        lock.lock();
+        try {
+            Entry entry = entries.get(productId);
+            if (entry != null && entry.expiresAt() > now) {
+                hits.incrementAndGet();
+                return entry.product();
+            }
+            if (entry != null) entries.remove(productId);
+            loadGeneration = generation.get();
+        } finally {
+            lock.unlock();
+        }
+
+        misses.incrementAndGet();
+        Product product = loader.load(productId);
+        lock.lock();
+        try {
+            // A write or invalidation that raced the load wins over what we read
+            if (generation.get() == loadGeneration) entries.putIfAbsent(productId, entry(product, now));
+            evictEldest();
+        } finally {
+            lock.unlock();
+        }
+        return product;
+    }
+
+    /**
+     * Record a product that was just written
+     */
+    public void put(Product product) {
+        lock.lock();
+        try {
+            entries.put(product.id(), entry(product, clock.getAsLong()));
+            evictEldest();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forget one product, e.g. after a write whose result is not known
+     */
+    public void invalidate(String productId) {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            entries.remove(productId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Forget everything, after bulk writes
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            generation.incrementAndGet();
+            entries.clear();
+        } finally {
+            lock.unlock();
+        }
+        log.info("🗑️ Product cache invalidated");
+    }
+
+    /**
+     * Cache counters, for monitoring
+     */
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        lock.lock();
+        try {
+            stats.put("size", entries.size());
+        } finally {
+            lock.unlock();
+        }
+        stats.put("maxEntries", maxEntries);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        return stats;
+    }
+
+    private Entry entry(Product product, long now) {
+        return new Entry(product, now + (product != null ? ttlMs : negativeTtlMs));
+    }
+
+    private void evictEldest() {
+        var iterator = entries.values().iterator();
+        while (entries.size() > maxEntries && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+}
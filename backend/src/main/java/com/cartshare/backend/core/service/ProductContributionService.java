@@ -1,17 +1,36 @@
 package com.cartshare.backend.core.service;
 
+import com.cartshare.backend.core.model.ContributionResult;
 import com.cartshare.backend.core.model.Keyword;
 import com.cartshare.backend.core.model.Product;
+import com.cartshare.backend.core.model.ProductPage;
+import com.cartshare.backend.core.model.ProductProjectionPage;
 import com.cartshare.backend.infrastructure.excel.FirestoreExcelImporter;
+import com.cartshare.backend.shared.util.StringUtils;
+import com.google.api.gax.rpc.ApiException;
+import com.google.api.gax.rpc.StatusCode;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldPath;
 import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.WriteBatch;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.UUID;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ExecutionException;
 
 @Service
@@ -22,26 +41,44 @@ public class ProductContributionService {
     private final Firestore firestore;
     private final FirestoreExcelImporter importer;
     private final AutocompleteService autocompleteService;
+    private final AutocompleteRebuildScheduler autocompleteRebuildScheduler;
     private final KeywordService keywordService;
+    private final CatalogVersionService catalogVersionService;
+    private final CatalogEventPublisher catalogEventPublisher;
+    private final CatalogCounters catalogCounters;
+    private final CategoryRegistry categoryRegistry;
+    private final ProductCache productCache;
+    private final NearDuplicateIndex nearDuplicateIndex;
 
     private static final String DEFAULT_CATEGORY = "OUTROS";
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int MAX_PAGE_SIZE = 500;
+    public static final int MAX_BULK_ITEMS = 500;
+    static final int BULK_BATCH_SIZE = 400;
+    // "id" always comes from the document name, the others are stored fields
+    public static final Set<String> PRODUCT_FIELDS = Set.of("id", "productName", "isOfficial", "searchKeywords", "categoryId", "updatedAt");
+
+    // Contributions being written, by canonical product ID
+    private final Map<String, CompletableFuture<Product>> inFlightContributions = new ConcurrentHashMap<>();
 
     /**
      * Contribute a new product to the system.
      *
      * Process:
-     * 1. Validate product name
-     * 2. Check if product exists
-     * 3. Resolve and validate category
-     * 4. Generate search keywords
-     * 5. Create and save product
-     * 6. Create keywords for autocomplete
-     * 7. Update autocomplete index
+     * 1. Validate product name, derive its canonical ID and check for near duplicates
+     * 2. Resolve and validate category
+     * 3. Generate search keywords
+     * 4. Create the product under its canonical ID (fails if it already exists)
+     *    and its missing keywords, in one transaction
+     * 5. Request a (debounced) autocomplete rebuild
+     *
+     * Concurrent contributions of the same canonical name are single-flighted: the first
+     * one writes, the others wait for it and share its result instead of racing it.
      *
      * @param productName Name of the product
      * @param categoryId Category ID (optional, defaults to DEFAULT_CATEGORY)
-     * @return Product with generated ID
-     * @throws IllegalArgumentException if validation fails
+     * @return Product keyed by its canonical ID
+     * @throws IllegalArgumentException if validation fails, or the name is a near duplicate and those are rejected
      * @throws ExecutionException if Firestore operation fails
      * @throws InterruptedException if thread is interrupted
      */
@@ -50,43 +87,239 @@ public class ProductContributionService {
 
         // 1. Validate
         productName = validateProductName(productName);
-        log.info("📝 New product contribution: {}", productName);
+        String productId = toProductId(productName);
+        String nearDuplicateError = nearDuplicateError(productName, productId);
+        if (nearDuplicateError != null) throw new IllegalArgumentException(nearDuplicateError);
+
+        CompletableFuture<Product> flight = new CompletableFuture<>();
+        CompletableFuture<Product> leader = inFlightContributions.putIfAbsent(productId, flight);
+        if (leader != null) {
+            log.info("📝 Joining in-flight contribution: {}", productId);
+            return awaitShared(leader);
+        }
 
-        // 2. Check if exists
-        if (productExists(productName)) {
-            throw new IllegalArgumentException("Product already exists in the system");
+        try {
+            Product savedProduct = createProduct(productName, productId, categoryId);
+            flight.complete(savedProduct);
+            return savedProduct;
+        } catch (Exception e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightContributions.remove(productId, flight);
+        }
+    }
+
+    /**
+     * Error for a name too similar to an existing product, or null.
+     * Near duplicates are only logged unless the index is configured to reject them.
+     */
+    private String nearDuplicateError(String productName, String productId) {
+        NearDuplicateIndex.Match match = nearDuplicateIndex.closest(productName, productId).orElse(null);
+        if (match == null) return null;
+        if (!nearDuplicateIndex.rejects()) {
+            log.warn("⚠️ '{}' looks like existing product '{}' ({}% similar)",
+                    productName, match.productName(), Math.round(match.similarity() * 100));
+            return null;
         }
+        return "Product is too similar to existing product '" + match.productName() + "'";
+    }
 
-        // 3. Resolve category
+    private Product createProduct(String productName, String productId, String categoryId)
+            throws ExecutionException, InterruptedException {
+        log.info("📝 New product contribution: {}", productName);
+
+        // 2. Resolve category
         categoryId = resolveCategoryId(categoryId);
 
-        // 4. Generate keywords
+        // 3. Generate keywords
         List<String> searchKeywords = importer.generateSearchKeywords(productName);
         log.info("🔑 Generated keywords: {}", searchKeywords);
 
-        // 5. Create and save
+        // 4. Create product and keywords together
         Product product = Product.createUserContributed(productName, searchKeywords);
-        Product savedProduct = saveProduct(product);
+        Product savedProduct = saveProductWithKeywords(productId, product);
         log.info("✅ Product saved: {} (ID: {}, isOfficial: false)", productName, savedProduct.id());
+        productCache.put(savedProduct);
+        nearDuplicateIndex.add(savedProduct);
+        catalogEventPublisher.productCreated(savedProduct);
+        catalogCounters.productAdded(false);
+        catalogVersionService.markChanged();
 
-        // 6. Create keywords
-        keywordService.createKeywordsForProduct(productName, searchKeywords);
-
-        // 7. Update autocomplete
-        updateAutocompleteIndex();
+        // 5. Update autocomplete (debounced: a burst of contributions shares one rebuild)
+        autocompleteRebuildScheduler.requestRebuild();
 
         return savedProduct;
     }
 
     /**
-     * Check if a product with the given name exists
+     * Wait for the in-flight contribution of the same product and rethrow its failure as-is
+     */
+    private static Product awaitShared(CompletableFuture<Product> leader)
+            throws ExecutionException, InterruptedException {
+        try {
+            return leader.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IllegalArgumentException invalid) throw invalid;
+            if (e.getCause() instanceof ExecutionException failed) throw failed;
+            throw e;
+        }
+    }
+
+    /**
+     * One product of a bulk contribution
+     */
+    public record BulkItem(String productName, String categoryId) {}
+
+    /**
+     * Contribute many products in one call.
+     *
+     * Every item is validated first; the existence of all candidate products and their
+     * keywords is then checked with a single getAll, new documents are written in batches,
+     * and the autocomplete index gets one incremental update with only what was added.
+     *
+     * @param items Products to contribute (at most MAX_BULK_ITEMS)
+     * @return One result per item, in request order
+     * @throws IllegalArgumentException if there are too many items
+     * @throws ExecutionException if the existence check or the keyword writes fail
+     * @throws InterruptedException if thread is interrupted
+     */
+    public List<ContributionResult> contributeProducts(List<BulkItem> items)
+            throws ExecutionException, InterruptedException {
+        if (items.size() > MAX_BULK_ITEMS) {
+            throw new IllegalArgumentException("At most " + MAX_BULK_ITEMS + " products per request");
+        }
+        log.info("📝 Bulk contribution of {} products", items.size());
+
+        // 1. Validate each item; categories are checked once per distinct ID
+        ContributionResult[] results = new ContributionResult[items.size()];
+        Map<String, String> categoryErrors = new HashMap<>();
+        Map<String, Integer> indexByProductId = new LinkedHashMap<>();
+        Map<String, Product> candidates = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            BulkItem item = items.get(i);
+            String productName = item.productName();
+            try {
+                productName = validateProductName(productName);
+                String productId = toProductId(productName);
+                Integer first = indexByProductId.get(productId);
+                if (first != null) {
+                    results[i] = ContributionResult.rejected(i, productName, productId,
+                            ContributionResult.Status.DUPLICATE, "Same product as item " + first);
+                    continue;
+                }
+                String nearDuplicateError = nearDuplicateError(productName, productId);
+                if (nearDuplicateError != null) {
+                    results[i] = ContributionResult.rejected(i, productName, productId,
+                            ContributionResult.Status.DUPLICATE, nearDuplicateError);
+                    continue;
+                }
+                if (!categoryErrors.containsKey(item.categoryId())) {
+                    categoryErrors.put(item.categoryId(), categoryError(item.categoryId()));
+                }
+                String categoryError = categoryErrors.get(item.categoryId());
+                if (categoryError != null) throw new IllegalArgumentException(categoryError);
+
+                indexByProductId.put(productId, i);
+                candidates.put(productId, Product.createUserContributed(productName, importer.generateSearchKeywords(productName)));
+            } catch (IllegalArgumentException e) {
+                results[i] = ContributionResult.rejected(i, productName, null, ContributionResult.Status.INVALID, e.getMessage());
+            }
+        }
+        if (candidates.isEmpty()) return List.of(results);
+
+        // 2. One getAll for every candidate product and every keyword they need
+        KeywordService.PendingKeywords pending = keywordService.pendingKeywords(candidates.values().stream()
+                .flatMap(product -> product.searchKeywords().stream())
+                .distinct()
+                .toList());
+        List<String> productIds = List.copyOf(candidates.keySet());
+        List<String> keywordIds = List.copyOf(pending.keywordsById().keySet());
+        DocumentReference[] refs = new DocumentReference[productIds.size() + keywordIds.size()];
+        for (int i = 0; i < productIds.size(); i++) {
+            refs[i] = firestore.collection("products").document(productIds.get(i));
+        }
+        for (int i = 0; i < keywordIds.size(); i++) {
+            refs[productIds.size() + i] = firestore.collection("keywords").document(keywordIds.get(i));
+        }
+
+        long updatedAt = CatalogChangeService.currentTimestamp();
+        Map<String, Product> newProducts = new LinkedHashMap<>();
+        Map<String, Keyword> newKeywords = new LinkedHashMap<>();
+        Map<String, Keyword> createdKeywords;
+        try {
+            // Snapshots come back in the order of the references
+            List<DocumentSnapshot> snapshots = firestore.getAll(refs).get();
+            for (int i = 0; i < productIds.size(); i++) {
+                String productId = productIds.get(i);
+                Product product = candidates.get(productId);
+                int index = indexByProductId.get(productId);
+                if (snapshots.get(i).exists()) {
+                    results[index] = ContributionResult.rejected(index, product.productName(), productId,
+                            ContributionResult.Status.DUPLICATE, "Product already exists in the system");
+                } else {
+                    newProducts.put(productId, Product.of(productId, product.productName(), false, product.searchKeywords())
+                            .withUpdatedAt(updatedAt));
+                }
+            }
+            for (int i = 0; i < keywordIds.size(); i++) {
+                if (!snapshots.get(productIds.size() + i).exists()) {
+                    newKeywords.put(keywordIds.get(i), new Keyword(pending.keywordsById().get(keywordIds.get(i)), updatedAt));
+                }
+            }
+
+            // 3. Keywords first, so no product is visible before its keywords
+            createdKeywords = writeKeywords(newKeywords);
+        } catch (ExecutionException | InterruptedException e) {
+            keywordService.keywordsFailed(pending, e);
+            throw e;
+        }
+        keywordService.keywordsWritten(pending, createdKeywords);
+
+        List<Product> created = writeProducts(newProducts, indexByProductId, results);
+        for (Product product : created) {
+            productCache.put(product);
+            nearDuplicateIndex.add(product);
+            catalogEventPublisher.productCreated(product);
+            catalogCounters.productAdded(false);
+        }
+        // One version bump for the keywords and products of the whole request
+        if (!created.isEmpty() || !createdKeywords.isEmpty()) catalogVersionService.markChanged();
+
+        // 4. One incremental index update for the whole request
+        autocompleteService.indexAdd(createdKeywords.values(), created);
+        log.info("✅ Bulk contribution: {} of {} products created, {} keywords", created.size(), items.size(), createdKeywords.size());
+
+        return List.of(results);
+    }
+
+    /**
+     * Validate a product name and return the canonical ID it would be stored under
+     *
+     * @throws IllegalArgumentException if the name is blank or has no letters or digits
+     */
+    public String canonicalProductId(String productName) {
+        return toProductId(validateProductName(productName));
+    }
+
+    /**
+     * Validate a requested category; null or blank falls back to the default
+     *
+     * @throws IllegalArgumentException if the category does not exist
+     */
+    public void validateCategoryId(String categoryId) throws ExecutionException, InterruptedException {
+        resolveCategoryId(categoryId);
+    }
+
+    /**
+     * Check if a product with the given name exists.
+     * Names that differ only in case, accents or punctuation share one canonical ID,
+     * so this is a single document get by key.
      */
     public boolean productExists(String productName) throws ExecutionException, InterruptedException {
-        return !firestore.collection("products")
-                .whereEqualTo("productName", productName)
-                .get()
-                .get()
-                .isEmpty();
+        String productId = StringUtils.toSafeId(productName);
+        if (productId == null || productId.isEmpty()) return false;
+        return firestore.collection("products").document(productId).get().get().exists();
     }
 
     /**
@@ -131,26 +364,153 @@ public class ProductContributionService {
     }
 
     /**
-     * Get product statistics
+     * Get one page of products ordered by document ID.
+     *
+     * Uses orderBy + startAfter on the document ID, so each page costs pageSize reads
+     * no matter how large the catalog is.
+     *
+     * @param isOfficial Filter on official flag (null for all products)
+     * @param pageSize Requested page size, clamped to [1, MAX_PAGE_SIZE]
+     * @param cursor Opaque cursor from the previous page (null for the first page)
+     * @throws IllegalArgumentException if the cursor is malformed
+     */
+    public ProductPage getProductsPage(Boolean isOfficial, int pageSize, String cursor)
+            throws ExecutionException, InterruptedException {
+        int limit = Math.clamp(pageSize, 1, MAX_PAGE_SIZE);
+
+        List<QueryDocumentSnapshot> documents = pageQuery(isOfficial, limit, cursor).get().get().getDocuments();
+        List<Product> products = documents.stream()
+                .map(doc -> doc.toObject(Product.class))
+                .toList();
+        String nextCursor = documents.size() < limit ? null : encodeCursor(documents.getLast().getId());
+
+        log.info("📄 Products page fetched: {} (official: {}, more: {})", products.size(), isOfficial, nextCursor != null);
+        return new ProductPage(products, nextCursor);
+    }
+
+    /**
+     * Get products with only the requested fields.
+     *
+     * The projection is pushed down to Firestore with select(...), so unrequested
+     * fields (searchKeywords above all) are neither read nor serialized.
+     *
+     * @param isOfficial Filter on official flag (null for all products)
+     * @param fields Fields parsed by {@link #parseFields(String)}
+     */
+    public List<Map<String, Object>> getProductFields(Boolean isOfficial, List<String> fields)
+            throws ExecutionException, InterruptedException {
+        Query query = firestore.collection("products");
+        if (isOfficial != null) {
+            query = query.whereEqualTo("isOfficial", isOfficial);
+        }
+
+        List<Map<String, Object>> products = project(select(query, fields).get().get().getDocuments(), fields);
+        log.info("📦 Products fetched with fields {}: {}", fields, products.size());
+        return products;
+    }
+
+    /**
+     * Same as {@link #getProductsPage(Boolean, int, String)}, restricted to the requested fields
+     */
+    public ProductProjectionPage getProductFieldsPage(Boolean isOfficial, int pageSize, String cursor, List<String> fields)
+            throws ExecutionException, InterruptedException {
+        int limit = Math.clamp(pageSize, 1, MAX_PAGE_SIZE);
+
+        List<QueryDocumentSnapshot> documents = select(pageQuery(isOfficial, limit, cursor), fields)
+                .get().get().getDocuments();
+        String nextCursor = documents.size() < limit ? null : encodeCursor(documents.getLast().getId());
+
+        log.info("📄 Products page fetched with fields {}: {} (more: {})", fields, documents.size(), nextCursor != null);
+        return new ProductProjectionPage(project(documents, fields), nextCursor);
+    }
+
+    /**
+     * Parse a comma-separated fields parameter.
+     *
+     * @return Sorted, de-duplicated field names, or null when every field is wanted
+     * @throws IllegalArgumentException if a field is not a product field
+     */
+    public static List<String> parseFields(String fields) {
+        if (fields == null || fields.isBlank()) return null;
+
+        Set<String> parsed = new TreeSet<>();
+        for (String field : fields.split(",")) {
+            String name = field.trim();
+            if (name.isEmpty()) continue;
+            if (!PRODUCT_FIELDS.contains(name)) {
+                throw new IllegalArgumentException("Unknown product field '" + name + "'");
+            }
+            parsed.add(name);
+        }
+        return parsed.isEmpty() ? null : List.copyOf(parsed);
+    }
+
+    /**
+     * Get product statistics from the maintained counters instead of reading the catalog
      */
     public Map<String, Object> getProductStats() throws ExecutionException, InterruptedException {
-        long totalProducts = firestore.collection("products").get().get().size();
-        long officialProducts = firestore.collection("products")
-                .whereEqualTo("isOfficial", true)
-                .get()
-                .get()
-                .size();
-        long userContributedProducts = totalProducts - officialProducts;
+        CatalogCounters.Counts counts = catalogCounters.get();
 
         return Map.of(
-                "total", totalProducts,
-                "official", officialProducts,
-                "userContributed", userContributedProducts
+                "total", counts.products(),
+                "official", counts.officialProducts(),
+                "userContributed", counts.userContributedProducts()
         );
     }
 
     // ===== PRIVATE HELPER METHODS =====
 
+    private Query pageQuery(Boolean isOfficial, int limit, String cursor) {
+        Query query = firestore.collection("products");
+        if (isOfficial != null) {
+            query = query.whereEqualTo("isOfficial", isOfficial);
+        }
+        query = query.orderBy(FieldPath.documentId()).limit(limit);
+        if (cursor != null && !cursor.isBlank()) {
+            query = query.startAfter(decodeCursor(cursor));
+        }
+        return query;
+    }
+
+    private static Query select(Query query, List<String> fields) {
+        // An empty selection makes Firestore return document names only
+        return query.select(fields.stream()
+                .filter(field -> !field.equals("id"))
+                .toArray(String[]::new));
+    }
+
+    private static List<Map<String, Object>> project(List<QueryDocumentSnapshot> documents, List<String> fields) {
+        return documents.stream()
+                .map(doc -> {
+                    Map<String, Object> product = new LinkedHashMap<>();
+                    product.put("id", doc.getId());
+                    for (String field : fields) {
+                        if (!field.equals("id") && doc.contains(field)) {
+                            product.put(field, doc.get(field));
+                        }
+                    }
+                    return product;
+                })
+                .toList();
+    }
+
+    private static String encodeCursor(String documentId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(documentId.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String decodeCursor(String cursor) {
+        try {
+            String documentId = new String(Base64.getUrlDecoder().decode(cursor.trim()), StandardCharsets.UTF_8);
+            if (documentId.isBlank() || documentId.contains("/")) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return documentId;
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+
     /**
      * Validate product name
      */
@@ -172,8 +532,8 @@ public class ProductContributionService {
 
         String categoryId = requestedCategoryId.trim();
 
-        // Verify category exists
-        if (!firestore.collection("categories").document(categoryId).get().get().exists()) {
+        // Verify category exists (answered from memory for known categories)
+        if (!categoryRegistry.exists(categoryId)) {
             throw new IllegalArgumentException("Category '" + categoryId + "' does not exist");
         }
 
@@ -181,42 +541,190 @@ public class ProductContributionService {
     }
 
     /**
-     * Save product with generated UUID
+     * Canonical product ID, shared with the importer and ProductService
      */
-    private Product saveProduct(Product product) throws ExecutionException, InterruptedException {
-        String productId = UUID.randomUUID().toString();
+    private static String toProductId(String productName) {
+        String productId = StringUtils.toSafeId(productName);
+        if (productId.isEmpty()) {
+            throw new IllegalArgumentException("Product name must contain letters or digits");
+        }
+        return productId;
+    }
 
+    /**
+     * Create the product under its canonical ID together with its missing keywords.
+     *
+     * One transaction reads the product and every pending keyword with a single getAll,
+     * then creates what is absent, so a contribution costs a constant number of round
+     * trips instead of two per keyword. Stamped with the change time for delta sync.
+     *
+     * @throws IllegalArgumentException if a product with the same canonical ID exists
+     */
+    private Product saveProductWithKeywords(String productId, Product product)
+            throws ExecutionException, InterruptedException {
+        long updatedAt = CatalogChangeService.currentTimestamp();
         Product productWithId = Product.of(
                 productId,
                 product.productName(),
                 product.isOfficial(),
                 product.searchKeywords()
-        );
+        ).withUpdatedAt(updatedAt);
+
+        KeywordService.PendingKeywords pending = keywordService.pendingKeywords(product.searchKeywords());
+        List<String> keywordIds = List.copyOf(pending.keywordsById().keySet());
+        DocumentReference productRef = firestore.collection("products").document(productId);
+        DocumentReference[] refs = new DocumentReference[keywordIds.size() + 1];
+        refs[0] = productRef;
+        for (int i = 0; i < keywordIds.size(); i++) {
+            refs[i + 1] = firestore.collection("keywords").document(keywordIds.get(i));
+        }
 
-        firestore.collection("products")
-                .document(productId)
-                .set(productWithId)
-                .get();
+        Map<String, Keyword> created;
+        try {
+            created = firestore.runTransaction(transaction -> {
+                // Snapshots come back in the order of the references
+                List<DocumentSnapshot> snapshots = transaction.getAll(refs).get();
+                if (snapshots.getFirst().exists()) return null;
+
+                transaction.create(productRef, productWithId);
+                Map<String, Keyword> newKeywords = new LinkedHashMap<>();
+                for (int i = 0; i < keywordIds.size(); i++) {
+                    if (snapshots.get(i + 1).exists()) continue;
+                    Keyword keyword = new Keyword(pending.keywordsById().get(keywordIds.get(i)), updatedAt);
+                    transaction.create(refs[i + 1], keyword);
+                    newKeywords.put(keywordIds.get(i), keyword);
+                }
+                return newKeywords;
+            }).get();
+        } catch (ExecutionException e) {
+            keywordService.keywordsFailed(pending, e);
+            if (isAlreadyExists(e)) {
+                throw new IllegalArgumentException("Product already exists in the system");
+            }
+            throw e;
+        } catch (InterruptedException e) {
+            keywordService.keywordsFailed(pending, e);
+            throw e;
+        }
 
+        if (created == null) {
+            keywordService.keywordsFailed(pending, new IllegalArgumentException("Product already exists"));
+            throw new IllegalArgumentException("Product already exists in the system");
+        }
+        keywordService.keywordsWritten(pending, created);
         return productWithId;
     }
 
     /**
-     * Update autocomplete index
+     * Validation error of a category, or null if it can be used
+     */
+    private String categoryError(String categoryId) throws ExecutionException, InterruptedException {
+        try {
+            resolveCategoryId(categoryId);
+            return null;
+        } catch (IllegalArgumentException e) {
+            return e.getMessage();
+        }
+    }
+
+    /**
+     * Create keywords in batches. A batch that loses a race to another replica creating
+     * the same keyword is retried one keyword at a time, and the keywords that already
+     * exist are left as the other writer stored them.
+     *
+     * @return The keywords that were created, by document ID
      */
-    private void updateAutocompleteIndex() {
+    private Map<String, Keyword> writeKeywords(Map<String, Keyword> keywords) throws ExecutionException, InterruptedException {
+        Map<String, Keyword> created = new LinkedHashMap<>();
+        List<Map.Entry<String, Keyword>> all = List.copyOf(keywords.entrySet());
+        for (int from = 0; from < all.size(); from += BULK_BATCH_SIZE) {
+            List<Map.Entry<String, Keyword>> chunk = all.subList(from, Math.min(from + BULK_BATCH_SIZE, all.size()));
+            WriteBatch batch = firestore.batch();
+            chunk.forEach(entry -> batch.create(firestore.collection("keywords").document(entry.getKey()), entry.getValue()));
+            try {
+                batch.commit().get();
+                chunk.forEach(entry -> created.put(entry.getKey(), entry.getValue()));
+            } catch (ExecutionException e) {
+                if (!isAlreadyExists(e)) throw e;
+                for (Map.Entry<String, Keyword> entry : chunk) {
+                    if (writeKeyword(entry.getKey(), entry.getValue())) created.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        return created;
+    }
+
+    private boolean writeKeyword(String docId, Keyword keyword) throws ExecutionException, InterruptedException {
         try {
-            QuerySnapshot keywordsSnapshot = firestore.collection("keywords").get().get();
-            List<Keyword> keywords = keywordsSnapshot.toObjects(Keyword.class);
+            firestore.collection("keywords").document(docId).create(keyword).get();
+            return true;
+        } catch (ExecutionException e) {
+            if (isAlreadyExists(e)) return false;
+            throw e;
+        }
+    }
 
-            QuerySnapshot productsSnapshot = firestore.collection("products").get().get();
-            List<Product> products = productsSnapshot.toObjects(Product.class);
+    /**
+     * Create products in batches and record each outcome.
+     * A batch that loses a race to a concurrent create is retried one product at a time,
+     * so a single duplicate does not fail its neighbours.
+     *
+     * @return The products that were created
+     */
+    private List<Product> writeProducts(Map<String, Product> products, Map<String, Integer> indexByProductId,
+                                        ContributionResult[] results) throws InterruptedException {
+        List<Product> created = new ArrayList<>();
+        List<Product> all = List.copyOf(products.values());
+        for (int from = 0; from < all.size(); from += BULK_BATCH_SIZE) {
+            List<Product> chunk = all.subList(from, Math.min(from + BULK_BATCH_SIZE, all.size()));
+            WriteBatch batch = firestore.batch();
+            chunk.forEach(product -> batch.create(firestore.collection("products").document(product.id()), product));
+            try {
+                batch.commit().get();
+                chunk.forEach(product -> {
+                    int index = indexByProductId.get(product.id());
+                    results[index] = ContributionResult.created(index, product.productName(), product.id());
+                });
+                created.addAll(chunk);
+            } catch (ExecutionException e) {
+                if (isAlreadyExists(e)) {
+                    for (Product product : chunk) {
+                        if (writeProduct(product, indexByProductId.get(product.id()), results)) created.add(product);
+                    }
+                } else {
+                    log.error("❌ Bulk product batch failed: ", e);
+                    chunk.forEach(product -> {
+                        int index = indexByProductId.get(product.id());
+                        results[index] = ContributionResult.rejected(index, product.productName(), product.id(),
+                                ContributionResult.Status.FAILED, "Failed to add product");
+                    });
+                }
+            }
+        }
+        return created;
+    }
 
-            autocompleteService.indexUpdate(keywords, products);
-            log.info("🔄 Autocomplete index updated");
+    private boolean writeProduct(Product product, int index, ContributionResult[] results) throws InterruptedException {
+        try {
+            firestore.collection("products").document(product.id()).create(product).get();
+            results[index] = ContributionResult.created(index, product.productName(), product.id());
+            return true;
+        } catch (ExecutionException e) {
+            boolean duplicate = isAlreadyExists(e);
+            if (!duplicate) log.error("❌ Failed to add product {}: ", product.id(), e);
+            results[index] = ContributionResult.rejected(index, product.productName(), product.id(),
+                    duplicate ? ContributionResult.Status.DUPLICATE : ContributionResult.Status.FAILED,
+                    duplicate ? "Product already exists in the system" : "Failed to add product");
+            return false;
+        }
+    }
 
-        } catch (InterruptedException | ExecutionException e) {
-            log.error("⚠️ Failed to update autocomplete index: ", e);
+    private static boolean isAlreadyExists(ExecutionException e) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ApiException api && api.getStatusCode().getCode() == StatusCode.Code.ALREADY_EXISTS) {
+                return true;
+            }
         }
+        return false;
     }
 }
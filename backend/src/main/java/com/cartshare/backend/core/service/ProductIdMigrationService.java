@@ -0,0 +1,111 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.core.model.Product;
+import com.cartshare.backend.shared.util.StringUtils;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.WriteBatch;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Moves products saved under random UUIDs to their canonical ID.
+ *
+ * Each legacy document is copied to the canonical ID (unless a product already lives there)
+ * and deleted with a tombstone, so delta sync clients drop the old ID.
+ */
+@Service
+@Slf4j
+@RequiredArgsConstructor
+public class ProductIdMigrationService {
+
+    private final Firestore firestore;
+    private final CatalogChangeService catalogChangeService;
+    private final CatalogVersionService catalogVersionService;
+    private final CatalogEventPublisher catalogEventPublisher;
+    private final CatalogCounters catalogCounters;
+    private final ProductCache productCache;
+
+    // A migrated product stages up to 3 writes (copy, delete, tombstone): stays under the 500-write batch limit
+    static final int PAGE_SIZE = 150;
+
+    /**
+     * Migrate every product whose document ID is not the canonical ID of its name
+     *
+     * @param dryRun Only count what would change
+     * @return scanned, migrated and duplicatesRemoved counts
+     */
+    public Map<String, Object> migrate(boolean dryRun) throws ExecutionException, InterruptedException {
+        log.info("🚚 Product ID migration started (dryRun: {})", dryRun);
+        Query pages = firestore.collection("products")
+                .orderBy(FieldPath.documentId())
+                .limit(PAGE_SIZE);
+
+        Set<String> claimed = new HashSet<>();
+        long scanned = 0;
+        long migrated = 0;
+        long duplicates = 0;
+
+        QuerySnapshot page = pages.get().get();
+        while (true) {
+            List<QueryDocumentSnapshot> documents = page.getDocuments();
+            // Stamped per page, close to its commit, for delta sync
+            long updatedAt = CatalogChangeService.currentTimestamp();
+            WriteBatch batch = firestore.batch();
+            int staged = 0;
+
+            for (QueryDocumentSnapshot doc : documents) {
+                scanned++;
+                Product product = doc.toObject(Product.class);
+                String canonicalId = StringUtils.toSafeId(product.productName());
+                if (canonicalId.isEmpty() || canonicalId.equals(doc.getId())) continue;
+
+                DocumentReference target = firestore.collection("products").document(canonicalId);
+                if (!claimed.add(canonicalId) || target.get().get().exists()) {
+                    duplicates++;
+                } else {
+                    migrated++;
+                    if (!dryRun) {
+                        batch.set(target, Product.of(canonicalId, product.productName(), product.isOfficial(),
+                                product.searchKeywords()).withCategoryId(product.categoryId()).withUpdatedAt(updatedAt));
+                    }
+                }
+                if (!dryRun) {
+                    catalogChangeService.stageDeletion(batch, "products", doc.getId());
+                    staged++;
+                }
+            }
+
+            if (staged > 0) batch.commit().get();
+            if (documents.size() < PAGE_SIZE) break;
+            page = pages.startAfter(documents.getLast()).get().get();
+        }
+
+        if (!dryRun && migrated + duplicates > 0) {
+            productCache.invalidateAll();
+            catalogVersionService.markChanged();
+            catalogEventPublisher.catalogReloaded();
+            catalogCounters.recount();
+        }
+
+        log.info("✅ Product ID migration finished: {} scanned, {} migrated, {} duplicates removed",
+                scanned, migrated, duplicates);
+        return Map.of(
+                "scanned", scanned,
+                "migrated", migrated,
+                "duplicatesRemoved", duplicates,
+                "dryRun", dryRun
+        );
+    }
+}
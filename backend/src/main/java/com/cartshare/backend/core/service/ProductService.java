@@ -12,22 +12,41 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Service
 @Slf4j
 @RequiredArgsConstructor
 public class ProductService {
     private final Firestore firestore;
+    private final CatalogVersionService catalogVersionService;
+    private final CatalogEventPublisher catalogEventPublisher;
+    private final CatalogCounters catalogCounters;
+    private final ProductCache productCache;
     // You might need to inject the keywords list or a KeywordRepository here
 
+    /**
+     * Get a product by name, creating it as user-contributed if it does not exist.
+     * Existing products are answered by the product cache; only misses start a transaction.
+     */
     public Product addOrGetProduct(String originalName, List<Keyword> currentKeywords) throws Exception {
         String docId = StringUtils.toSafeId(originalName);
         DocumentReference docRef = firestore.collection("products").document(docId);
 
-        return firestore.runTransaction(transaction -> {
+        Product cached = productCache.get(docId, id -> {
+            DocumentSnapshot snapshot = docRef.get().get();
+            return snapshot.exists() ? snapshot.toObject(Product.class) : null;
+        });
+        if (cached != null) return cached;
+
+        // The transaction body may be retried, so only the last attempt decides
+        AtomicBoolean created = new AtomicBoolean(false);
+
+        Product product = firestore.runTransaction(transaction -> {
             DocumentSnapshot snapshot = transaction.get(docRef).get();
 
             if (snapshot.exists()) {
+                created.set(false);
                 return snapshot.toObject(Product.class);
             }
 
@@ -35,11 +54,21 @@ public class ProductService {
                     docId,
                     originalName,
                     false, // Not official (added by user)
-                    SearchUtils.generateSearchKeywords(originalName)
+                    SearchUtils.generateSearchKeywords(originalName),
+                    CatalogChangeService.currentTimestamp()
             );
 
             transaction.set(docRef, newProduct);
+            created.set(true);
             return newProduct;
         }).get();
+
+        productCache.put(product);
+        if (created.get()) {
+            catalogVersionService.markChanged();
+            catalogEventPublisher.productCreated(product);
+            catalogCounters.productAdded(false);
+        }
+        return product;
     }
 }
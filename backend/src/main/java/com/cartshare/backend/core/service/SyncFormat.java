@@ -0,0 +1,94 @@
+package com.cartshare.backend.core.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Wire formats a sync client can negotiate through the Accept header.
+ *
+ * CBOR and Smile carry the same document as JSON in binary form. Smile also
+ * back-references repeated field names and short string values, so names such
+ * as "productName" or common keywords are only written once per payload.
+ */
+public enum SyncFormat {
+    JSON(MediaType.APPLICATION_JSON, null),
+    CBOR(new MediaType("application", "cbor"), "cbor"),
+    SMILE(new MediaType("application", "x-jackson-smile"), "smile");
+
+    private final MediaType mediaType;
+    private final String etagVariant;
+
+    SyncFormat(MediaType mediaType, String etagVariant) {
+        this.mediaType = mediaType;
+        this.etagVariant = etagVariant;
+    }
+
+    public MediaType mediaType() {
+        return mediaType;
+    }
+
+    /**
+     * ETag suffix for this format combined with the content encoding (null for plain JSON)
+     */
+    public String etagVariant(boolean gzip) {
+        if (etagVariant == null) return gzip ? "gzip" : null;
+        return gzip ? etagVariant + "-gzip" : etagVariant;
+    }
+
+    /**
+     * Pick the preferred acceptable format from an Accept header, defaulting to JSON.
+     *
+     * Media ranges are tried by descending q-value, specific types before wildcards when
+     * the q-values tie, and in header order otherwise.
+     */
+    public static SyncFormat fromAccept(String accept) {
+        if (accept == null || accept.isBlank()) return JSON;
+        List<MediaType> requested;
+        try {
+            requested = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        } catch (InvalidMediaTypeException e) {
+            return JSON;
+        }
+        // List.sort is stable, so equal preferences keep the client's order
+        requested.sort(Comparator.<MediaType>comparingDouble(MediaType::getQualityValue).reversed()
+                .thenComparing(MediaType::isWildcardType)
+                .thenComparing(MediaType::isWildcardSubtype));
+        for (MediaType type : requested) {
+            if (type.getQualityValue() == 0) continue;
+            if (type.isWildcardType()) return JSON;
+            for (SyncFormat format : values()) {
+                if (type.includes(format.mediaType)) return format;
+            }
+        }
+        return JSON;
+    }
+
+    /**
+     * Build one mapper per format, sharing the configuration of the application mapper
+     */
+    public static Map<SyncFormat, ObjectMapper> mappers(ObjectMapper jsonMapper) {
+        Map<SyncFormat, ObjectMapper> mappers = new EnumMap<>(SyncFormat.class);
+        mappers.put(JSON, jsonMapper);
+        mappers.put(CBOR, jsonMapper.copyWith(new CBORFactory()));
+        mappers.put(SMILE, jsonMapper.copyWith(smileFactory()));
+        return mappers;
+    }
+
+    private static JsonFactory smileFactory() {
+        return SmileFactory.builder()
+                .enable(SmileGenerator.Feature.CHECK_SHARED_NAMES)
+                .enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES)
+                .build();
+    }
+}
@@ -0,0 +1,179 @@
+package com.cartshare.backend.infrastructure.excel;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads UTF-8 CSV files (RFC 4180 quoting) for imports, as a lighter alternative to POI.
+ *
+ * The file is memory-mapped and records are parsed straight from the mapped bytes: no
+ * line is ever turned into a String, only the fields themselves when a row is handed out.
+ * Rows come out like {@link ExcelReader#stream(InputStream)}: trimmed fields, blank rows skipped.
+ */
+@Slf4j
+public class CsvReader {
+
+    /**
+     * Stream the non-empty rows of a CSV file, header included, parsed lazily from a memory map
+     *
+     * @throws IOException if the file cannot be mapped
+     * @throws IllegalStateException from the stream if a quoted field is not terminated
+     */
+    public static Stream<List<String>> stream(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        // The mapping stays valid after its channel is closed
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) throw new IOException("CSV file too large to map: " + file);
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(new Records(buffer),
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Stream the rows of a CSV that is not a file (e.g. a resource inside the jar).
+     * It is spooled to a temporary file first, deleted when the stream is closed.
+     */
+    public static Stream<List<String>> stream(InputStream is) throws IOException {
+        if (is == null) throw new IOException("No CSV to read");
+        Path file = Files.createTempFile("cartshare-import-", ".csv");
+        try {
+            Files.copy(is, file, StandardCopyOption.REPLACE_EXISTING);
+            return stream(file).onClose(() -> deleteQuietly(file));
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("⚠️ Failed to delete temporary CSV {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Pulls records out of the mapped file, one row per next().
+     * Delimiters, quotes and line breaks are ASCII, so scanning bytes is safe for UTF-8.
+     */
+    private static final class Records implements Iterator<List<String>> {
+
+        private final MappedByteBuffer buffer;
+        private final int limit;
+        private int position;
+        // Bytes of the field being materialized
+        private byte[] scratch = new byte[256];
+        private List<String> next;
+
+        Records(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+            this.limit = buffer.limit();
+            // Skip a UTF-8 byte order mark
+            if (limit >= 3 && buffer.get(0) == (byte) 0xEF && buffer.get(1) == (byte) 0xBB && buffer.get(2) == (byte) 0xBF) {
+                position = 3;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) next = readRecord();
+            return next != null;
+        }
+
+        @Override
+        public List<String> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            List<String> row = next;
+            next = null;
+            return row;
+        }
+
+        /**
+         * Next record with at least one non-blank field, or null at the end of the file
+         */
+        private List<String> readRecord() {
+            while (position < limit) {
+                List<String> fields = new ArrayList<>();
+                boolean endOfRecord = false;
+                while (!endOfRecord) {
+                    boolean quoted = position < limit && buffer.get(position) == '"';
+                    fields.add((quoted ? quotedField() : plainField()).trim());
+                    if (position >= limit) break;
+                    byte delimiter = buffer.get(position++);
+                    if (delimiter == '\r') {
+                        if (position < limit && buffer.get(position) == '\n') position++;
+                        endOfRecord = true;
+                    } else if (delimiter == '\n') {
+                        endOfRecord = true;
+                    }
+                }
+                if (fields.stream().anyMatch(field -> !field.isEmpty())) return fields;
+            }
+            return null;
+        }
+
+        private String plainField() {
+            int start = position;
+            while (position < limit && !isDelimiter(buffer.get(position))) position++;
+            int length = position - start;
+            if (length == 0) return "";
+            ensureScratch(length);
+            buffer.get(start, scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private String quotedField() {
+            int start = position++;
+            int length = 0;
+            while (true) {
+                if (position >= limit) throw new IllegalStateException("Unterminated quoted field at byte " + start);
+                byte b = buffer.get(position++);
+                if (b == '"') {
+                    // "" is an escaped quote, a single one closes the field
+                    if (position < limit && buffer.get(position) == '"') {
+                        position++;
+                    } else {
+                        break;
+                    }
+                }
+                ensureScratch(length + 1);
+                scratch[length++] = b;
+            }
+            // Be lenient with text between the closing quote and the delimiter, like spreadsheets
+            while (position < limit && !isDelimiter(buffer.get(position))) {
+                ensureScratch(length + 1);
+                scratch[length++] = buffer.get(position++);
+            }
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private static boolean isDelimiter(byte b) {
+            return b == ',' || b == '\n' || b == '\r';
+        }
+
+        private void ensureScratch(int length) {
+            if (length > scratch.length) scratch = Arrays.copyOf(scratch, Math.max(length, scratch.length * 2));
+        }
+    }
+}
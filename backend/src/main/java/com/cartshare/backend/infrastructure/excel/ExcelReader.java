@@ -1,52 +1,286 @@
 package com.cartshare.backend.infrastructure.excel;
 
-
+import com.cartshare.backend.shared.util.StringUtils;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.FileMagic;
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.text.Normalizer;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 @Slf4j
 public class ExcelReader {
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = XMLInputFactory.newFactory();
+
+    static {
+        // Sheets come from uploaded workbooks: no DTDs, no external entities
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        XML_INPUT_FACTORY.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Read every non-empty row of the first sheet into memory.
+     * Only for small workbooks; imports use {@link #stream(InputStream)}.
+     *
+     * @return The rows, or an empty list if the workbook cannot be parsed
+     */
     public static List<List<String>> read(InputStream is) {
-        List<List<String>> data = new ArrayList<>();
-        try (Workbook workbook = WorkbookFactory.create(is)) {
-            Sheet sheet = workbook.getSheetAt(0);
-            for (Row row : sheet) {
-                List<String> rowData = new ArrayList<>();
+        try (Stream<List<String>> rows = stream(is)) {
+            return new ArrayList<>(rows.toList());
+        } catch (Exception e) {
+            log.error("❌ Failed to parse Excel file: ", e);
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Stream the non-empty rows of the first sheet, parsed lazily for .xlsx workbooks.
+     *
+     * The workbook is spooled to a temporary file and its sheet XML is pulled row by row,
+     * so memory does not grow with the number of rows (only the shared strings table is
+     * held). The stream must be closed to release the file. Legacy .xls workbooks (at most
+     * 65536 rows) are still read whole with the usermodel API.
+     *
+     * Cells read as before (strings trimmed, numbers as whole numbers, booleans as
+     * true/false, missing cells blank), except that formula cells now give their cached
+     * result instead of blank, and blank when the workbook holds no cached result. Error
+     * cells, and ISO date cells of strict .xlsx workbooks, read as blank.
+     *
+     * @throws IOException if the workbook cannot be opened
+     * @throws IllegalStateException from the stream if the sheet XML is malformed
+     */
+    public static Stream<List<String>> stream(InputStream is) throws IOException {
+        if (is == null) throw new IOException("No workbook to read");
+        Path file = Files.createTempFile("cartshare-import-", ".xlsx");
+        try {
+            Files.copy(is, file, StandardCopyOption.REPLACE_EXISTING);
+            if (FileMagic.valueOf(file.toFile()) == FileMagic.OLE2) {
+                Stream<List<String>> rows = readLegacy(file);
+                deleteQuietly(file);
+                return rows;
+            }
+            OPCPackage pkg;
+            try {
+                pkg = OPCPackage.open(file.toFile(), PackageAccess.READ);
+            } catch (InvalidFormatException e) {
+                throw new IOException("Not a readable .xlsx workbook", e);
+            }
+            SheetRows rows;
+            try {
+                XSSFReader reader = new XSSFReader(pkg);
+                ReadOnlySharedStringsTable strings = new ReadOnlySharedStringsTable(pkg);
+                Iterator<InputStream> sheets = reader.getSheetsData();
+                if (!sheets.hasNext()) throw new IOException("Workbook has no sheets");
+                rows = new SheetRows(sheets.next(), strings);
+            } catch (IOException e) {
+                pkg.revert();
+                throw e;
+            } catch (Exception e) {
+                pkg.revert();
+                throw new IOException("Not a readable .xlsx workbook", e);
+            }
+            return StreamSupport.stream(Spliterators.spliteratorUnknownSize(rows, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                    .onClose(() -> {
+                        rows.close();
+                        pkg.revert();
+                        deleteQuietly(file);
+                    });
+        } catch (IOException | RuntimeException e) {
+            deleteQuietly(file);
+            throw e;
+        }
+    }
+
+    /**
+     * Rows of the first sheet of a legacy .xls workbook, read with the usermodel API
+     */
+    private static Stream<List<String>> readLegacy(Path file) throws IOException {
+        List<List<String>> rows = new ArrayList<>();
+        try (Workbook workbook = WorkbookFactory.create(file.toFile(), null, true)) {
+            for (Row row : workbook.getSheetAt(0)) {
+                List<String> values = new ArrayList<>();
                 for (int i = 0; i < row.getLastCellNum(); i++) {
                     Cell cell = row.getCell(i, Row.MissingCellPolicy.CREATE_NULL_AS_BLANK);
-                    rowData.add(getCellValue(cell).trim());
-                }
-                if (rowData.stream().anyMatch(s -> !s.isBlank())) {
-                    data.add(rowData);
+                    CellType type = cell.getCellType() == CellType.FORMULA ? cell.getCachedFormulaResultType() : cell.getCellType();
+                    values.add(cellValue(cell, type).trim());
                 }
+                if (values.stream().anyMatch(s -> !s.isBlank())) rows.add(values);
             }
-        } catch (Exception e) {
-            log.error("❌ Failed to parse Excel file: ", e);
         }
-        return data;
+        return rows.stream();
     }
-    private static String getCellValue(Cell cell) {
-        return switch (cell.getCellType()) {
+
+    private static String cellValue(Cell cell, CellType type) {
+        return switch (type) {
             case STRING -> cell.getStringCellValue();
             case NUMERIC -> String.valueOf((long) cell.getNumericCellValue());
             case BOOLEAN -> String.valueOf(cell.getBooleanCellValue());
             default -> "";
         };
     }
+
     public static String toSafeId(String input) {
         if (input == null) return "unknown";
-        return Normalizer.normalize(input.toLowerCase(), Normalizer.Form.NFD)
-                .replaceAll("\\p{M}", "")
-                .replaceAll("[^a-z0-9]", "-")
-                .replaceAll("-+", "-")
-                .replaceAll("^-|-$", "");
+        return StringUtils.toSafeId(input);
     }
-}
 
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("⚠️ Failed to delete temporary workbook {}: {}", file, e.getMessage());
+        }
+    }
+
+    /**
+     * Pulls rows out of a sheet's XML, one row per next().
+     * Cells are placed by their reference, so missing cells read as blank like in the usermodel API.
+     */
+    private static final class SheetRows implements Iterator<List<String>> {
+
+        private final InputStream sheet;
+        private final ReadOnlySharedStringsTable strings;
+        private final XMLStreamReader xml;
+        private List<String> next;
+
+        SheetRows(InputStream sheet, ReadOnlySharedStringsTable strings) throws XMLStreamException {
+            this.sheet = sheet;
+            this.strings = strings;
+            this.xml = XML_INPUT_FACTORY.createXMLStreamReader(sheet);
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next == null) next = readRow();
+            return next != null;
+        }
+
+        @Override
+        public List<String> next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            List<String> row = next;
+            next = null;
+            return row;
+        }
+
+        /**
+         * Next row with at least one non-blank cell, or null at the end of the sheet
+         */
+        private List<String> readRow() {
+            try {
+                List<String> row = null;
+                String type = null;
+                int column = -1;
+                StringBuilder value = new StringBuilder();
+                boolean inValue = false;
+                while (xml.hasNext()) {
+                    int event = xml.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        switch (xml.getLocalName()) {
+                            case "row" -> {
+                                row = new ArrayList<>();
+                                column = -1;
+                            }
+                            case "c" -> {
+                                type = xml.getAttributeValue(null, "t");
+                                String ref = xml.getAttributeValue(null, "r");
+                                column = ref != null ? columnIndex(ref) : column + 1;
+                                value.setLength(0);
+                            }
+                            // <v> holds values, <t> the text of inline strings
+                            case "v", "t" -> inValue = true;
+                            default -> { }
+                        }
+                    } else if (event == XMLStreamConstants.CHARACTERS || event == XMLStreamConstants.CDATA) {
+                        if (inValue) value.append(xml.getText());
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        switch (xml.getLocalName()) {
+                            case "v", "t" -> inValue = false;
+                            case "c" -> {
+                                if (row != null && column >= 0) {
+                                    while (row.size() < column) row.add("");
+                                    row.add(cellValue(type, value.toString()).trim());
+                                }
+                            }
+                            case "row" -> {
+                                if (row != null && row.stream().anyMatch(s -> !s.isBlank())) return row;
+                                row = null;
+                            }
+                            default -> { }
+                        }
+                    }
+                }
+                close();
+                return null;
+            } catch (XMLStreamException e) {
+                throw new IllegalStateException("Failed to parse Excel sheet", e);
+            }
+        }
+
+        /**
+         * Same conversions as the usermodel reader: numbers as whole numbers, booleans as true/false.
+         * A formula cell is typed by its cached result ("str" for text), read from its {@code <v>}.
+         */
+        private String cellValue(String type, String raw) {
+            if (raw.isEmpty()) return "";
+            if (type == null || type.equals("n")) {
+                try {
+                    return String.valueOf((long) Double.parseDouble(raw));
+                } catch (NumberFormatException e) {
+                    return "";
+                }
+            }
+            return switch (type) {
+                case "s" -> strings.getItemAt(Integer.parseInt(raw)).getString();
+                case "inlineStr", "str" -> raw;
+                case "b" -> String.valueOf(raw.equals("1"));
+                default -> "";
+            };
+        }
+
+        /**
+         * Zero-based column of a cell reference ("C7" -> 2)
+         */
+        private static int columnIndex(String ref) {
+            int column = 0;
+            for (int i = 0; i < ref.length() && Character.isLetter(ref.charAt(i)); i++) {
+                column = column * 26 + (Character.toUpperCase(ref.charAt(i)) - 'A' + 1);
+            }
+            return column - 1;
+        }
+
+        void close() {
+            try {
+                xml.close();
+                sheet.close();
+            } catch (XMLStreamException | IOException e) {
+                log.debug("Failed to close sheet: {}", e.getMessage());
+            }
+        }
+    }
+}
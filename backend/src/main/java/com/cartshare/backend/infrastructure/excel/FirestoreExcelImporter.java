@@ -2,16 +2,29 @@ package com.cartshare.backend.infrastructure.excel;
 
 import com.cartshare.backend.core.model.Keyword;
 import com.cartshare.backend.core.model.Product;
+import com.cartshare.backend.core.service.CatalogChangeService;
+import com.cartshare.backend.core.service.CatalogCounters;
+import com.cartshare.backend.core.service.CatalogEventPublisher;
+import com.cartshare.backend.core.service.CatalogVersionService;
+import com.cartshare.backend.core.service.ProductCache;
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.BulkWriter;
+import com.google.cloud.firestore.DocumentReference;
 import com.google.cloud.firestore.Firestore;
-import com.google.cloud.firestore.WriteBatch;
+import com.google.cloud.firestore.WriteResult;
 import lombok.Setter;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -20,87 +33,154 @@ public class FirestoreExcelImporter {
 
     private static final Logger log = LoggerFactory.getLogger(FirestoreExcelImporter.class);
     private final Firestore firestore;
+    private final CatalogVersionService catalogVersionService;
+    private final CatalogEventPublisher catalogEventPublisher;
+    private final CatalogCounters catalogCounters;
+    private final ProductCache productCache;
 
     @Setter
     private boolean dryRun = false;
 
     private static final int BATCH_SIZE = 400;
-
-    public FirestoreExcelImporter(Firestore firestore) {
+    // Import pipeline: parsed/analyzed items buffered between stages, keyword generation
+    // workers, and batches handed to the BulkWriter but not yet acknowledged. The BulkWriter
+    // paces the writes itself; this bound only keeps unacknowledged documents out of memory
+    private static final int QUEUE_CAPACITY = 2 * BATCH_SIZE;
+    private static final int ANALYZERS = Math.max(2, Runtime.getRuntime().availableProcessors());
+    private static final int MAX_BATCHES_IN_FLIGHT = 10;
+
+    public FirestoreExcelImporter(Firestore firestore, CatalogVersionService catalogVersionService,
+                                  CatalogEventPublisher catalogEventPublisher, CatalogCounters catalogCounters,
+                                  ProductCache productCache) {
         this.firestore = firestore;
+        this.catalogVersionService = catalogVersionService;
+        this.catalogEventPublisher = catalogEventPublisher;
+        this.catalogCounters = catalogCounters;
+        this.productCache = productCache;
     }
 
     public void importKeywordsFromList(List<Keyword> keywords) throws Exception {
-        int total = keywords.size();
-        log.info("🚀 Starting Keywords import: {} items", total);
-
-        WriteBatch batch = dryRun ? null : firestore.batch();
-        int count = 0;
-
-        for (int i = 0; i < total; i++) {
-            Keyword kw = keywords.get(i);
-
-            // Use the keyword itself (normalized) as the Document ID
-            String docId = ExcelReader.toSafeId(kw.keyword());
-
-            if (!dryRun) {
-                // By passing the Record 'kw', Firestore uses @DocumentId and @PropertyName
-                assert batch != null;
-                batch.set(firestore.collection("keywords").document(docId), kw);
-                count++;
-
-                if (count % BATCH_SIZE == 0) {
-                    batch.commit().get();
-                    batch = firestore.batch();
-                }
-            }
-            logProgress(i + 1, total);
+        importKeywords(keywords.stream());
+    }
+
+    /**
+     * Import keywords as the source produces them, through the staged import pipeline,
+     * so a streamed source is never held in memory.
+     * @return Number of keywords imported
+     */
+    public int importKeywords(Stream<Keyword> keywords) throws Exception {
+        log.info("🚀 Starting Keywords import");
+
+        ImportPipeline.Stats stats;
+        try (BulkWriter writer = dryRun ? null : firestore.bulkWriter()) {
+            stats = pipeline("Keywords", writer, (Keyword kw) -> kw, Keyword::withUpdatedAt,
+                    // Use the keyword itself (normalized) as the Document ID
+                    kw -> firestore.collection("keywords").document(ExcelReader.toSafeId(kw.keyword())))
+                    .run(keywords);
         }
 
-        finalizeBatch(batch, count);
-        log.info("✅ Keywords import finished. Records saved: {}", count);
+        int count = (int) stats.items();
+        if (!dryRun && count > 0) catalogChanged();
+        log.info("✅ Keywords import finished. Records saved: {}", dryRun ? 0 : count);
+        return count;
     }
 
+    /**
+     * Import the products of a workbook (first column), streaming its rows into the pipeline
+     */
     public void importProducts(InputStream is) throws Exception {
-        List<List<String>> rows = ExcelReader.read(is);
-        WriteBatch batch = firestore.batch();
-        int count = 0;
-
-        for (List<String> r : rows) {
-            if (!r.isEmpty()) {
-                String name = r.getFirst();
-                String docId = ExcelReader.toSafeId(name);
-
-                Product product = new Product(
-                        docId,
-                        name,
-                        true, // It's from Excel, so it's official
-                        generateSearchKeywords(name)
-                );
-
-                batch.set(firestore.collection("products").document(docId), product);
-                count++;
-
-                if (count % 400 == 0) { batch.commit().get(); batch = firestore.batch(); }
-            }
+        try (Stream<List<String>> rows = ExcelReader.stream(is)) {
+            importProductNames(rows
+                    .filter(r -> !r.isEmpty())
+                    .map(List::getFirst));
         }
-        batch.commit().get();
     }
 
     public void importProductsFromList(List<Product> products) throws Exception {
-        if (dryRun) return;
-        WriteBatch batch = firestore.batch();
-        int count = 0;
-        for (Product prod : products) {
-            String docId = ExcelReader.toSafeId(prod.productName());
-            batch.set(firestore.collection("products").document(docId), prod);
-            count++;
-            if (count % BATCH_SIZE == 0) {
-                batch.commit().get();
-                batch = firestore.batch();
-            }
+        importProducts(products.stream());
+    }
+
+    /**
+     * Import official products by name; their search keywords are generated in parallel
+     * while earlier batches are being written.
+     * @return Number of products imported
+     */
+    public int importProductNames(Stream<String> names) throws Exception {
+        return importProducts(names, (String name) -> Product.createOfficial(name, generateSearchKeywords(name)));
+    }
+
+    /**
+     * Import official products from seed rows that carry a name and a category (CSV);
+     * like {@link #importProductNames(Stream)}, search keywords are generated in the pipeline.
+     * @return Number of products imported
+     */
+    public int importOfficialProducts(Stream<Product> products) throws Exception {
+        return importProducts(products, (Product prod) ->
+                Product.createOfficial(prod.productName(), generateSearchKeywords(prod.productName()))
+                        .withCategoryId(prod.categoryId()));
+    }
+
+    /**
+     * Import products as the source produces them, through the staged import pipeline
+     * @return Number of products imported
+     */
+    public int importProducts(Stream<Product> products) throws Exception {
+        return importProducts(products, (Product prod) -> prod);
+    }
+
+    private <S> int importProducts(Stream<S> source, Function<S, Product> analyze) throws Exception {
+        if (dryRun) return 0;
+        ImportPipeline.Stats stats;
+        try (BulkWriter writer = firestore.bulkWriter()) {
+            stats = pipeline("Products", writer, analyze, Product::withUpdatedAt,
+                    prod -> firestore.collection("products").document(ExcelReader.toSafeId(prod.productName())))
+                    .run(source);
+        }
+
+        int count = (int) stats.items();
+        if (count > 0) catalogChanged();
+        log.info("✅ Products import finished. Records saved: {}", count);
+        return count;
+    }
+
+    /**
+     * Pipeline handing each analyzed item to the BulkWriter (null on a dry run), BATCH_SIZE at a time.
+     *
+     * The BulkWriter keeps several commits in flight, ramps up under Firestore's 500/50/5 rule
+     * and retries transient failures per document, so the import runs at Firestore's write
+     * limits instead of one round trip per batch. A batch completes when all its documents are
+     * written; a document that still fails after the retries fails the import.
+     *
+     * Each batch is stamped with the change time as it is handed over, not once per import,
+     * so delta sync sees stamps close to the commit time (see CatalogChangeService.COMMIT_WINDOW_MS).
+     */
+    private <S, T> ImportPipeline<S, T> pipeline(String name, BulkWriter writer, Function<S, T> analyze,
+                                                 BiFunction<T, Long, T> stamp,
+                                                 Function<T, DocumentReference> document) {
+        return new ImportPipeline<>(name, QUEUE_CAPACITY, ANALYZERS, BATCH_SIZE, MAX_BATCHES_IN_FLIGHT, analyze,
+                items -> {
+                    if (writer == null) return ApiFutures.immediateFuture(null);
+                    long updatedAt = CatalogChangeService.currentTimestamp();
+                    List<ApiFuture<WriteResult>> writes = new ArrayList<>(items.size());
+                    items.forEach(item -> writes.add(writer.set(document.apply(item), stamp.apply(item, updatedAt))));
+                    // Send the partly filled last batch too, instead of waiting for more writes
+                    writer.flush();
+                    return ApiFutures.allAsList(writes);
+                });
+    }
+
+    private void catalogChanged() throws InterruptedException {
+        productCache.invalidateAll();
+        catalogVersionService.markChanged();
+        catalogEventPublisher.catalogReloaded();
+        // Imports overwrite documents, so only a recount knows how many are new
+        try {
+            catalogCounters.recount();
+        } catch (ExecutionException | RuntimeException e) {
+            // The import is committed; the counters are left for the next stats read to recount
+            log.error("⚠️ Catalog counters not recounted after import, the next read recounts: ", e);
+            catalogCounters.invalidate();
         }
-        if (count > 0 && count % BATCH_SIZE != 0) batch.commit().get();
     }
 
     /**
@@ -127,21 +207,4 @@ public class FirestoreExcelImporter {
         String normalized = java.text.Normalizer.normalize(input, java.text.Normalizer.Form.NFD);
         return normalized.replaceAll("\\p{M}", "");
     }
-
-    private void logProgress(int current, int total) {
-        int interval = Math.max(1, total / 10);
-        if (current == 1 || current == total || current % interval == 0) {
-            double percent = ((double) current / total) * 100;
-            log.info("--> {} Progress: {}/{} ({}%)", "Keywords", current, total, String.format("%.1f", percent));
-        }
-    }
-
-    /**
-     * Helper to finalize the last batch if it hasn't been committed.
-     */
-    private void finalizeBatch(WriteBatch batch, int count) throws Exception {
-        if (!dryRun && batch != null && count > 0 && count % BATCH_SIZE != 0) {
-            batch.commit().get();
-        }
-    }
-}
\ No newline at end of file
+}
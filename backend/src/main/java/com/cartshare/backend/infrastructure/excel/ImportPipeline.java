@@ -0,0 +1,220 @@
+package com.cartshare.backend.infrastructure.excel;
+
+import com.google.api.core.ApiFuture;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Staged import: parse → analyze → write, connected by bounded queues.
+ *
+ * One thread pulls items from the source, several analyze them in parallel and one
+ * groups the results into batches and commits them, keeping a few commits in flight.
+ * A full queue blocks the stage feeding it, so a slow Firestore slows parsing down
+ * instead of buffering the whole file. Each stage reports how long it was busy and
+ * how long it was blocked on its neighbours.
+ *
+ * @param <S> Parsed item
+ * @param <T> Analyzed item, ready to write
+ */
+@Slf4j
+public final class ImportPipeline<S, T> {
+
+    @FunctionalInterface
+    public interface BatchWriter<T> {
+        /**
+         * Start writing one batch
+         * @return Completion of the write
+         */
+        ApiFuture<?> write(List<T> batch) throws Exception;
+    }
+
+    public record StageStats(String stage, int workers, long items, long busyMs, long blockedMs) {
+        public double itemsPerSecond() {
+            return busyMs == 0 ? items * 1000.0 : items * 1000.0 / busyMs * workers;
+        }
+    }
+
+    public record Stats(String name, long items, long batches, long elapsedMs, List<StageStats> stages) {}
+
+    private final String name;
+    private final int queueCapacity;
+    private final int analyzers;
+    private final int batchSize;
+    private final int maxCommitsInFlight;
+    private final Function<S, T> analyze;
+    private final BatchWriter<T> writer;
+
+    // Queue element wrapper, so the end of the stream can be signalled with a sentinel
+    private record Item<V>(V value) {}
+    private static final Item<?> END = new Item<>(null);
+
+    public ImportPipeline(String name, int queueCapacity, int analyzers, int batchSize, int maxCommitsInFlight,
+                          Function<S, T> analyze, BatchWriter<T> writer) {
+        this.name = name;
+        this.queueCapacity = queueCapacity;
+        this.analyzers = analyzers;
+        this.batchSize = batchSize;
+        this.maxCommitsInFlight = maxCommitsInFlight;
+        this.analyze = analyze;
+        this.writer = writer;
+    }
+
+    /**
+     * Run the source through the pipeline. Returns after the last batch is committed.
+     *
+     * @throws ExecutionException if any stage fails; the other stages are cancelled
+     */
+    public Stats run(Stream<S> source) throws ExecutionException, InterruptedException {
+        BlockingQueue<Item<S>> parsed = new ArrayBlockingQueue<>(queueCapacity);
+        BlockingQueue<Item<T>> analyzed = new ArrayBlockingQueue<>(queueCapacity);
+        Counters parse = new Counters();
+        Counters analysis = new Counters();
+        Counters write = new Counters();
+        AtomicInteger runningAnalyzers = new AtomicInteger(analyzers);
+        AtomicLong batches = new AtomicLong();
+        long start = System.nanoTime();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            ExecutorCompletionService<Void> stages = new ExecutorCompletionService<>(executor);
+            List<Future<Void>> futures = new ArrayList<>();
+
+            futures.add(stages.submit(() -> {
+                parse(source, parsed, parse);
+                return null;
+            }));
+            for (int i = 0; i < analyzers; i++) {
+                futures.add(stages.submit(() -> {
+                    analyze(parsed, analyzed, analysis, runningAnalyzers);
+                    return null;
+                }));
+            }
+            futures.add(stages.submit(() -> {
+                write(analyzed, write, batches);
+                return null;
+            }));
+
+            try {
+                for (int i = 0; i < futures.size(); i++) {
+                    stages.take().get();
+                }
+            } catch (ExecutionException | InterruptedException e) {
+                // Stages blocked on a queue would otherwise wait forever
+                futures.forEach(future -> future.cancel(true));
+                throw e;
+            }
+        }
+
+        Stats stats = new Stats(name, write.items.get(), batches.get(),
+                (System.nanoTime() - start) / 1_000_000, List.of(
+                parse.stats("parse", 1),
+                analysis.stats("analyze", analyzers),
+                write.stats("write", 1)));
+        log.info("📊 {} import: {} items in {} batches, {} ms", name, stats.items(), stats.batches(), stats.elapsedMs());
+        stats.stages().forEach(stage -> log.info("📊   {}: {} items, busy {} ms, blocked {} ms, {} items/s",
+                stage.stage(), stage.items(), stage.busyMs(), stage.blockedMs(), Math.round(stage.itemsPerSecond())));
+        return stats;
+    }
+
+    private void parse(Stream<S> source, BlockingQueue<Item<S>> out, Counters counters) throws InterruptedException {
+        Iterator<S> items = source.iterator();
+        while (true) {
+            long busy = System.nanoTime();
+            if (!items.hasNext()) break;
+            S item = items.next();
+            counters.busy(busy);
+            counters.put(out, new Item<>(item));
+        }
+        for (int i = 0; i < analyzers; i++) {
+            counters.put(out, end());
+        }
+    }
+
+    private void analyze(BlockingQueue<Item<S>> in, BlockingQueue<Item<T>> out, Counters counters,
+                         AtomicInteger running) throws InterruptedException {
+        while (true) {
+            Item<S> item = counters.take(in);
+            if (item == END) break;
+            long busy = System.nanoTime();
+            T result = analyze.apply(item.value());
+            counters.busy(busy);
+            if (result != null) counters.put(out, new Item<>(result));
+        }
+        // The last analyzer to finish tells the writer
+        if (running.decrementAndGet() == 0) counters.put(out, end());
+    }
+
+    private void write(BlockingQueue<Item<T>> in, Counters counters, AtomicLong batches) throws Exception {
+        Deque<ApiFuture<?>> inFlight = new ArrayDeque<>();
+        List<T> batch = new ArrayList<>(batchSize);
+        while (true) {
+            Item<T> item = counters.take(in);
+            if (item != END) batch.add(item.value());
+            if (batch.size() == batchSize || (item == END && !batch.isEmpty())) {
+                long busy = System.nanoTime();
+                if (inFlight.size() >= maxCommitsInFlight) inFlight.removeFirst().get();
+                inFlight.addLast(writer.write(batch));
+                counters.busy(busy);
+                counters.items.addAndGet(batch.size());
+                batches.incrementAndGet();
+                batch = new ArrayList<>(batchSize);
+            }
+            if (item == END) break;
+        }
+        long busy = System.nanoTime();
+        while (!inFlight.isEmpty()) inFlight.removeFirst().get();
+        counters.busy(busy);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> Item<V> end() {
+        return (Item<V>) END;
+    }
+
+    /**
+     * Per-stage counters, shared by the workers of a stage
+     */
+    private static final class Counters {
+        private final AtomicLong items = new AtomicLong();
+        private final AtomicLong busyNanos = new AtomicLong();
+        private final AtomicLong blockedNanos = new AtomicLong();
+
+        void busy(long since) {
+            busyNanos.addAndGet(System.nanoTime() - since);
+        }
+
+        <V> void put(BlockingQueue<Item<V>> queue, Item<V> item) throws InterruptedException {
+            long since = System.nanoTime();
+            queue.put(item);
+            blockedNanos.addAndGet(System.nanoTime() - since);
+            if (item != END) items.incrementAndGet();
+        }
+
+        <V> Item<V> take(BlockingQueue<Item<V>> queue) throws InterruptedException {
+            long since = System.nanoTime();
+            Item<V> item = queue.take();
+            blockedNanos.addAndGet(System.nanoTime() - since);
+            return item;
+        }
+
+        StageStats stats(String stage, int workers) {
+            return new StageStats(stage, workers, items.get(),
+                    busyNanos.get() / 1_000_000, blockedNanos.get() / 1_000_000);
+        }
+    }
+}
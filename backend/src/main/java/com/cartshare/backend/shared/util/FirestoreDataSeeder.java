@@ -3,6 +3,7 @@ package com.cartshare.backend.shared.util;
 import com.cartshare.backend.core.model.Keyword;
 import com.cartshare.backend.core.model.Product;
 import com.cartshare.backend.core.service.AutocompleteService;
+import com.cartshare.backend.infrastructure.excel.CsvReader;
 import com.cartshare.backend.infrastructure.excel.ExcelReader;
 import com.cartshare.backend.infrastructure.excel.FirestoreExcelImporter;
 import lombok.RequiredArgsConstructor;
@@ -13,8 +14,10 @@ import org.springframework.core.annotation.Order;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Component;
+import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Slf4j
 @Component
@@ -30,33 +33,49 @@ public class FirestoreDataSeeder implements CommandLineRunner {
     public void run(String... args) {
         try {
             log.info("--- 🚀 STARTING FIRESTORE DATA SEEDING ---");
-            // 1. Keywords - Skip header row
-            Resource kwRes = resourceLoader.getResource("classpath:excel/keywords.xlsx");
-            try (InputStream is = kwRes.getInputStream()) {
-                List<Keyword> keywords = ExcelReader.read(is).stream()
-                        .skip(1) // Skip "Keyword" header
-                        .filter(row -> !row.isEmpty())
-                        .map(row -> new Keyword(row.getFirst()))
-                        .toList();
-                importer.importKeywordsFromList(keywords);
-                log.info("✅ Keywords processed: {}", keywords.size());
+            // 1. Keywords - rows are streamed straight into the import batches
+            try (Stream<List<String>> rows = seedRows("Keywords.csv", "keywords.xlsx")) {
+                int keywords = importer.importKeywords(rows
+                        .skip(1) // Skip "keyword,categoryId" header
+                        .map(row -> new Keyword(row.getFirst(), categoryId(row), null)));
+                log.info("✅ Keywords processed: {}", keywords);
             }
-            // 2. Products - Skip header row
-            Resource prodRes = resourceLoader.getResource("classpath:excel/Products.xlsx");
-            try (InputStream is = prodRes.getInputStream()) {
-                List<Product> products = ExcelReader.read(is).stream()
-                        .skip(1) // Skip "Product Name" header
-                        .filter(row -> !row.isEmpty())
-                        .map(row -> {
-                            String name = row.getFirst();
-                            return Product.createOfficial(name, importer.generateSearchKeywords(name));
-                        }).toList();
-                importer.importProductsFromList(products);
-                log.info("✅ Products processed: {}", products.size());
+            // 2. Products - keywords are generated by the import pipeline
+            try (Stream<List<String>> rows = seedRows("Products.csv", "Products.xlsx")) {
+                int products = importer.importOfficialProducts(rows
+                        .skip(1) // Skip "productName,categoryId" header
+                        .map(row -> Product.createOfficial(row.getFirst(), List.of()).withCategoryId(categoryId(row))));
+                log.info("✅ Products processed: {}", products);
             }
             // ... rest of the indexing logic
         } catch (Exception e) {
             log.error("❌ Critical error during data seeding: ", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Rows of a seed file: the CSV when it is shipped, otherwise the workbook it was exported from.
+     * Both hold the same rows (checked by FirestoreDataSeederTest).
+     */
+    private Stream<List<String>> seedRows(String csv, String workbook) throws IOException {
+        Resource csvResource = resourceLoader.getResource("classpath:csv/" + csv);
+        if (csvResource.exists()) return csvRows(csvResource);
+        try (InputStream is = resourceLoader.getResource("classpath:excel/" + workbook).getInputStream()) {
+            return ExcelReader.stream(is);
+        }
+    }
+
+    /**
+     * Map the CSV in place when it is a file; a resource inside the jar is spooled first
+     */
+    private static Stream<List<String>> csvRows(Resource resource) throws IOException {
+        if (resource.isFile()) return CsvReader.stream(resource.getFile().toPath());
+        try (InputStream is = resource.getInputStream()) {
+            return CsvReader.stream(is);
+        }
+    }
+
+    private static String categoryId(List<String> row) {
+        return row.size() > 1 && !row.get(1).isEmpty() ? row.get(1) : null;
+    }
+}
@@ -1,11 +1,16 @@
 package com.cartshare.backend.shared.util;
 
 public class StringUtils {
+    /**
+     * Canonical document ID for a product or keyword name ("Pão de Queijo" -> "pao-de-queijo").
+     * Every writer keys documents with it, so existence checks are a single get by key.
+     */
     public static String toSafeId(String input) {
         if (input == null) return null;
         return java.text.Normalizer.normalize(input.toLowerCase(), java.text.Normalizer.Form.NFD)
                 .replaceAll("\\p{M}", "")       // Remove accents (ã -> a)
-                .replaceAll("[^a-z0-9]", "")   // Remove spaces and symbols (pão caseiro -> paocaseiro)
-                .trim();
+                .replaceAll("[^a-z0-9]", "-")  // Spaces and symbols become separators
+                .replaceAll("-+", "-")
+                .replaceAll("^-|-$", "");
     }
 }
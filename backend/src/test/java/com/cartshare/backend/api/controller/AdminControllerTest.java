@@ -1,6 +1,8 @@
 package com.cartshare.backend.api.controller;
 
+import com.cartshare.backend.core.service.AutocompleteRebuildScheduler;
 import com.cartshare.backend.core.service.ProductExportService;
+import com.cartshare.backend.core.service.ProductIdMigrationService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -11,6 +13,9 @@ import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.when;
@@ -21,11 +26,17 @@ class AdminControllerTest {
     @Mock
     private ProductExportService exportService;
 
+    @Mock
+    private ProductIdMigrationService productIdMigrationService;
+
+    @Mock
+    private AutocompleteRebuildScheduler autocompleteRebuildScheduler;
+
     private AdminController adminController;
 
     @BeforeEach
     void setUp() {
-        adminController = new AdminController(exportService);
+        adminController = new AdminController(exportService, productIdMigrationService, autocompleteRebuildScheduler);
     }
 
     @Test
@@ -57,4 +68,37 @@ class AdminControllerTest {
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("migrateProductIds: Should return the migration summary")
+    void migrateProductIds_Success() throws Exception {
+        Map<String, Object> summary = Map.of("scanned", 3L, "migrated", 1L, "duplicatesRemoved", 0L, "dryRun", true);
+        when(productIdMigrationService.migrate(true)).thenReturn(summary);
+
+        ResponseEntity<?> response = adminController.migrateProductIds(true);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).isEqualTo(summary);
+    }
+
+    @Test
+    @DisplayName("migrateProductIds: Should return 500 when Firestore fails")
+    void migrateProductIds_Error() throws Exception {
+        when(productIdMigrationService.migrate(false)).thenThrow(new ExecutionException(new RuntimeException("down")));
+
+        ResponseEntity<?> response = adminController.migrateProductIds(false);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
+    @Test
+    @DisplayName("getAutocompleteStats: Should return the rebuild metrics")
+    void getAutocompleteStats_Success() {
+        when(autocompleteRebuildScheduler.stats()).thenReturn(Map.of("completed", 3L, "pendingRequests", 0L));
+
+        ResponseEntity<Map<String, Object>> response = adminController.getAutocompleteStats();
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getBody()).containsEntry("completed", 3L);
+    }
+}
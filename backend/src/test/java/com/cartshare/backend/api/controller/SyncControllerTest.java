@@ -1,25 +1,55 @@
 package com.cartshare.backend.api.controller;
 
 import com.cartshare.backend.api.v1.ContributeProductRequest;
+import com.cartshare.backend.core.model.CatalogChanges;
+import com.cartshare.backend.core.model.Contribution;
+import com.cartshare.backend.core.model.ContributionResult;
 import com.cartshare.backend.core.model.Keyword;
 import com.cartshare.backend.core.model.Product;
+import com.cartshare.backend.core.model.ProductPage;
+import com.cartshare.backend.core.model.ProductProjectionPage;
+import com.cartshare.backend.core.service.CatalogChangeService;
+import com.cartshare.backend.core.service.CatalogEventPublisher;
+import com.cartshare.backend.core.service.CatalogPayloadCache;
+import com.cartshare.backend.core.service.CatalogSnapshotMaterializer;
+import com.cartshare.backend.core.service.CatalogStreamService;
+import com.cartshare.backend.core.service.CatalogVersionService;
+import com.cartshare.backend.core.service.ContributionOutbox;
 import com.cartshare.backend.core.service.KeywordService;
 import com.cartshare.backend.core.service.ProductContributionService;
+import com.cartshare.backend.core.service.SyncFormat;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import reactor.core.publisher.Flux;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPInputStream;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class SyncControllerTest {
@@ -27,54 +57,242 @@ class SyncControllerTest {
     @Mock private com.google.cloud.firestore.Firestore firestore;
     @Mock private ProductContributionService productContributionService;
     @Mock private KeywordService keywordService;
-
+    @Mock private CatalogChangeService catalogChangeService;
+    @Mock private CatalogStreamService catalogStreamService;
+    @Mock private CatalogSnapshotMaterializer catalogSnapshotMaterializer;
+    @Mock private CatalogEventPublisher catalogEventPublisher;
+    @Mock private ContributionOutbox contributionOutbox;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CatalogVersionService catalogVersionService;
     private SyncController syncController;
 
     @BeforeEach
     void setUp() {
-        syncController = new SyncController(firestore, productContributionService, keywordService);
+        catalogVersionService = new CatalogVersionService(null, null);
+        syncController = new SyncController(firestore, productContributionService, keywordService,
+                catalogChangeService, catalogStreamService,
+                catalogVersionService, new CatalogPayloadCache(objectMapper), catalogSnapshotMaterializer, catalogEventPublisher,
+                contributionOutbox);
     }
 
     // ===== DATA SYNC TESTS =====
 
     @Test
-    @DisplayName("initialSync: Should return products and keywords for mobile-side grouping")
+    @DisplayName("initialSync: Should stream the catalog prepared by the stream service")
     void initialSync_Success() throws Exception {
-        // Arrange - Keywords no longer need a category ID
-        when(keywordService.getAllKeywords()).thenReturn(List.of(new Keyword("pão")));
-        when(productContributionService.getAllProducts()).thenReturn(List.of());
+        // Arrange
+        String payload = "{\"keywords\":[{\"keyword\":\"pão\"}],\"products\":[],\"syncStatus\":\"success\"}";
+        when(catalogStreamService.openInitialSync(anyString(), any()))
+                .thenReturn(out -> out.write(payload.getBytes(StandardCharsets.UTF_8)));
 
         // Act
-        ResponseEntity<?> response = syncController.initialSync();
+        ResponseEntity<StreamingResponseBody> response = syncController.initialSync(null, null, null);
 
         // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(writeBody(response)).isEqualTo(payload);
+    }
+
+    @Test
+    @DisplayName("initialSync: Should return 304 when the client already has this catalog version")
+    void initialSync_NotModified() throws Exception {
+        String etag = catalogVersionService.etag(catalogVersionService.currentVersion(), "gzip");
+
+        ResponseEntity<StreamingResponseBody> response = syncController.initialSync(null, etag, "gzip");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        verifyNoInteractions(catalogStreamService);
+    }
+
+    @Test
+    @DisplayName("initialSync: Should stream Smile when the client asks for it")
+    void initialSync_Smile() throws Exception {
+        when(catalogStreamService.openInitialSync(anyString(), eq(SyncFormat.SMILE)))
+                .thenReturn(out -> out.write(new byte[]{':', ')'}));
+
+        ResponseEntity<StreamingResponseBody> response =
+                syncController.initialSync("application/x-jackson-smile", null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(SyncFormat.SMILE.mediaType());
+        assertThat(response.getHeaders().getETag()).contains("smile");
+    }
+
+    @Test
+    @DisplayName("initialSync: Should gzip the stream when the client accepts gzip")
+    void initialSync_Gzip() throws Exception {
+        String payload = "{\"syncStatus\":\"success\"}";
+        when(catalogStreamService.openInitialSync(anyString(), any()))
+                .thenReturn(out -> out.write(payload.getBytes(StandardCharsets.UTF_8)));
+
+        ResponseEntity<StreamingResponseBody> response = syncController.initialSync(null, null, "gzip");
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(payload);
+        }
+    }
+
+    @Test
+    @DisplayName("initialSync: Should serve the materialized snapshot without reading Firestore")
+    void initialSync_FromSnapshot() throws Exception {
+        long version = catalogVersionService.currentVersion();
+        CatalogSnapshotMaterializer.Snapshot snapshot =
+                new CatalogSnapshotMaterializer.Snapshot(version, Path.of("catalog-v" + version + ".json.gz"), 4);
+        when(catalogSnapshotMaterializer.latest()).thenReturn(Optional.of(snapshot));
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(1).write(new byte[]{1, 2, 3, 4});
+            return null;
+        }).when(catalogSnapshotMaterializer).copyTo(eq(snapshot), any());
+
+        ResponseEntity<StreamingResponseBody> response = syncController.initialSync(null, null, "gzip");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        assertThat(response.getHeaders().getContentLength()).isEqualTo(4);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        assertThat(out.toByteArray()).containsExactly(1, 2, 3, 4);
+        verifyNoInteractions(catalogStreamService);
+    }
+
+    @Test
+    @DisplayName("initialSync: Should serve an older snapshot tagged with the snapshot's version")
+    void initialSync_OlderSnapshot() throws Exception {
+        long version = catalogVersionService.currentVersion();
+        CatalogSnapshotMaterializer.Snapshot snapshot =
+                new CatalogSnapshotMaterializer.Snapshot(version, Path.of("catalog-v" + version + ".json.gz"), 4);
+        when(catalogSnapshotMaterializer.latest()).thenReturn(Optional.of(snapshot));
+        catalogVersionService.markChanged();
+
+        ResponseEntity<StreamingResponseBody> response = syncController.initialSync(null, null, "gzip");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo(catalogVersionService.etag(version, "gzip"));
+        verifyNoInteractions(catalogStreamService);
+    }
+
+    @Test
+    @DisplayName("initialSync: Should return 304 when the client already has the snapshot being served")
+    void initialSync_SnapshotNotModified() throws Exception {
+        long version = catalogVersionService.currentVersion();
+        CatalogSnapshotMaterializer.Snapshot snapshot =
+                new CatalogSnapshotMaterializer.Snapshot(version, Path.of("catalog-v" + version + ".json.gz"), 4);
+        when(catalogSnapshotMaterializer.latest()).thenReturn(Optional.of(snapshot));
+        catalogVersionService.markChanged();
+
+        ResponseEntity<StreamingResponseBody> response =
+                syncController.initialSync(null, catalogVersionService.etag(version, "gzip"), "gzip");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        verify(catalogSnapshotMaterializer, never()).copyTo(any(), any());
+    }
+
+    @Test
+    @DisplayName("initialSync: Should stream from Firestore until a snapshot exists")
+    void initialSync_NoSnapshot() throws Exception {
+        when(catalogSnapshotMaterializer.latest()).thenReturn(Optional.empty());
+        when(catalogStreamService.openInitialSync(anyString(), any()))
+                .thenReturn(out -> out.write('{'));
+
+        ResponseEntity<StreamingResponseBody> response = syncController.initialSync(null, null, "gzip");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        verify(catalogStreamService).openInitialSync(anyString(), eq(SyncFormat.JSON));
+        verify(catalogSnapshotMaterializer, never()).copyTo(any(), any());
+    }
+
+    @Test
+    @DisplayName("streamChanges: Should hand out the publisher's event stream")
+    void streamChanges_ReturnsPublisherStream() {
+        Flux<ServerSentEvent<Object>> events = Flux.just(ServerSentEvent.builder().event("connected").data("ok").build());
+        when(catalogEventPublisher.subscribe()).thenReturn(events);
+
+        assertThat(syncController.streamChanges()).isSameAs(events);
+    }
+
+    @Test
+    @DisplayName("getChanges: Should return only changed documents and the next token")
+    void getChanges_Success() throws Exception {
+        CatalogChanges changes = new CatalogChanges(
+                List.of(Product.of("p1", "Milk", false, List.of("milk")).withUpdatedAt(20L)),
+                List.of(new Keyword("milk", 20L)),
+                List.of(),
+                CatalogChangeService.encodeToken(20L));
+        when(catalogChangeService.getChangesSince("token")).thenReturn(changes);
+
+        ResponseEntity<?> response = syncController.getChanges("token");
+
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         Map<String, Object> body = (Map<String, Object>) response.getBody();
-        assertThat(body).containsEntry("syncStatus", "success");
-        assertThat(body).containsKey("keywords");
-        assertThat(body).containsKey("products");
-        assertThat(body).doesNotContainKey("categories");
+        assertThat(body).containsEntry("nextToken", CatalogChangeService.encodeToken(20L));
+        assertThat((List<?>) body.get("products")).hasSize(1);
+        assertThat((List<?>) body.get("deletions")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("getChanges: Should return 400 for a malformed token")
+    void getChanges_InvalidToken() throws Exception {
+        when(catalogChangeService.getChangesSince("garbage"))
+                .thenThrow(new IllegalArgumentException("Invalid sync token"));
+
+        ResponseEntity<?> response = syncController.getChanges("garbage");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
     }
 
     // ===== PRODUCT CONTRIBUTION TESTS =====
 
     @Test
-    @DisplayName("contributeProduct: Should return 201 and valid response DTO")
+    @DisplayName("contributeProduct: Should return 202 with the status URL of the accepted contribution")
     void contributeProduct_Success() throws Exception {
-        // Arrange - Product.of no longer takes a categoryId
+        // Arrange
         ContributeProductRequest request = new ContributeProductRequest("Milk", "Store_Label_To_Be_Ignored");
-        Product mockProduct = Product.of("uuid", "Milk", false, List.of("milk"));
+        Contribution accepted = Contribution.accepted("c-1", "Milk", "Store_Label_To_Be_Ignored", "milk", null, 1L);
 
-        when(productContributionService.contributeProduct(anyString(), any())).thenReturn(mockProduct);
+        when(contributionOutbox.submit(anyString(), any(), any())).thenReturn(accepted);
 
         // Act
-        ResponseEntity<?> response = syncController.contributeProduct(request);
+        ResponseEntity<?> response = syncController.contributeProduct(request, null);
 
         // Assert
-        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.ACCEPTED);
+        assertThat(response.getHeaders().getLocation()).hasToString("/api/sync/contribute/status/c-1");
         Map<String, Object> body = (Map<String, Object>) response.getBody();
         assertThat(body).containsEntry("productName", "Milk");
-        assertThat(body).containsEntry("message", "Product added successfully");
+        assertThat(body).containsEntry("productId", "milk");
+        assertThat(body).containsEntry("status", "PENDING");
+        assertThat(body).containsEntry("message", "Contribution accepted");
+        verifyNoInteractions(productContributionService);
+    }
+
+    @Test
+    @DisplayName("getContributionStatus: Should report the outcome of a finished contribution")
+    void getContributionStatus_Finished() {
+        Contribution rejected = Contribution.accepted("c-1", "Milk", null, "milk", null, 1L)
+                .finished(Contribution.Status.REJECTED, 1, "Product already exists in the system", 2L);
+        when(contributionOutbox.status("c-1")).thenReturn(Optional.of(rejected));
+
+        ResponseEntity<?> response = syncController.getContributionStatus("c-1");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertThat(body).containsEntry("status", "REJECTED");
+        assertThat(body).containsEntry("error", "Product already exists in the system");
+    }
+
+    @Test
+    @DisplayName("getContributionStatus: Should return 404 for an unknown contribution")
+    void getContributionStatus_Unknown() {
+        when(contributionOutbox.status("missing")).thenReturn(Optional.empty());
+
+        ResponseEntity<?> response = syncController.getContributionStatus("missing");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_FOUND);
     }
 
     // ===== STATISTICS TESTS =====
@@ -111,13 +329,70 @@ class SyncControllerTest {
         when(productContributionService.getOfficialProducts()).thenReturn(officialList);
 
         // Act
-        ResponseEntity<?> response = syncController.getOfficialProducts();
+        ResponseEntity<?> response = syncController.getOfficialProducts(null, null, null, null);
 
         // Assert
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
-        Map<String, Object> body = (Map<String, Object>) response.getBody();
-        assertThat(body).containsEntry("type", "official");
-        assertThat(body).containsEntry("count", 1);
+        JsonNode body = objectMapper.readTree((byte[]) response.getBody());
+        assertThat(body.get("type").asText()).isEqualTo("official");
+        assertThat(body.get("count").asInt()).isEqualTo(1);
+        assertThat(response.getHeaders().getETag()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("getOfficialProducts: Should answer 304 from the ETag without touching Firestore")
+    void getOfficialProducts_NotModified() throws Exception {
+        String etag = catalogVersionService.etag(catalogVersionService.currentVersion(), null);
+
+        ResponseEntity<?> response = syncController.getOfficialProducts(null, etag, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().getETag()).isEqualTo(etag);
+        verifyNoInteractions(productContributionService);
+    }
+
+    @Test
+    @DisplayName("getOfficialProducts: Should reload after the catalog version changes")
+    void getOfficialProducts_ReloadsAfterWrite() throws Exception {
+        when(productContributionService.getOfficialProducts()).thenReturn(List.of());
+        ResponseEntity<?> first = syncController.getOfficialProducts(null, null, null, null);
+
+        catalogVersionService.markChanged();
+        ResponseEntity<?> second = syncController.getOfficialProducts(null, first.getHeaders().getETag(), null, null);
+
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(second.getHeaders().getETag()).isNotEqualTo(first.getHeaders().getETag());
+        verify(productContributionService, times(2)).getOfficialProducts();
+    }
+
+    @Test
+    @DisplayName("getOfficialProducts: Should encode CBOR when negotiated")
+    void getOfficialProducts_Cbor() throws Exception {
+        when(productContributionService.getOfficialProducts())
+                .thenReturn(List.of(Product.of("1", "Milk", true, List.of())));
+
+        ResponseEntity<?> response = syncController.getOfficialProducts("application/cbor", null, null, null);
+
+        assertThat(response.getHeaders().getContentType()).isEqualTo(SyncFormat.CBOR.mediaType());
+        JsonNode body = new ObjectMapper(new CBORFactory()).readTree((byte[]) response.getBody());
+        assertThat(body.get("count").asInt()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("getOfficialProducts: Should serve cached gzip bytes when the client accepts gzip")
+    void getOfficialProducts_Gzip() throws Exception {
+        when(productContributionService.getOfficialProducts())
+                .thenReturn(List.of(Product.of("1", "Milk", true, List.of())));
+
+        ResponseEntity<?> response = syncController.getOfficialProducts(null, null, "gzip, deflate", null);
+        syncController.getOfficialProducts(null, null, "gzip, deflate", null);
+
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING)).isEqualTo("gzip");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream((byte[]) response.getBody()))) {
+            assertThat(objectMapper.readTree(in).get("count").asInt()).isEqualTo(1);
+        }
+        // Second call is served from the pre-compressed cache
+        verify(productContributionService, times(1)).getOfficialProducts();
     }
 
     @Test
@@ -128,12 +403,77 @@ class SyncControllerTest {
         when(productContributionService.getUserContributedProducts()).thenReturn(mockProducts);
 
         // Act
-        ResponseEntity<?> response = syncController.getUserContributedProducts();
+        ResponseEntity<?> response = syncController.getUserContributedProducts(null, null, null, null);
 
         // Assert
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        JsonNode body = objectMapper.readTree((byte[]) response.getBody());
+        assertThat(body.get("type").asText()).isEqualTo("user-contributed");
+    }
+
+    @Test
+    @DisplayName("getProductsPage: Should return the page with its next cursor")
+    void getProductsPage_Success() throws Exception {
+        ProductPage page = new ProductPage(List.of(Product.of("1", "Milk", true, List.of())), "next");
+        when(productContributionService.getProductsPage(true, 50, null)).thenReturn(page);
+
+        ResponseEntity<?> response = syncController.getProductsPage("official", 50, null, null);
+
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
         Map<String, Object> body = (Map<String, Object>) response.getBody();
-        assertThat(body).containsEntry("type", "user-contributed");
+        assertThat(body).containsEntry("nextCursor", "next");
+        assertThat(body).containsEntry("count", 1);
+    }
+
+    @Test
+    @DisplayName("getProductsPage: Should return 400 for an unknown type")
+    void getProductsPage_UnknownType() {
+        ResponseEntity<?> response = syncController.getProductsPage("drinks", 50, null, null);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(productContributionService);
+    }
+
+    @Test
+    @DisplayName("getProductsPage: Should return only the requested fields")
+    void getProductsPage_Fields() throws Exception {
+        List<Map<String, Object>> products = List.of(Map.of("id", "leite", "productName", "Leite"));
+        when(productContributionService.getProductFieldsPage(null, 50, null, List.of("productName")))
+                .thenReturn(new ProductProjectionPage(products, null));
+
+        ResponseEntity<?> response = syncController.getProductsPage("all", 50, null, "productName");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertThat(body).containsEntry("products", products);
+        verify(productContributionService, never()).getProductsPage(any(), anyInt(), any());
+    }
+
+    @Test
+    @DisplayName("getOfficialProducts: Should cache each field selection separately")
+    void getOfficialProducts_Fields() throws Exception {
+        when(productContributionService.getOfficialProducts()).thenReturn(List.of());
+        when(productContributionService.getProductFields(true, List.of("isOfficial", "productName")))
+                .thenReturn(List.of(Map.of("id", "leite", "productName", "Leite", "isOfficial", true)));
+
+        syncController.getOfficialProducts(null, null, null, null);
+        ResponseEntity<?> projected = syncController.getOfficialProducts(null, null, null, "productName, isOfficial");
+        syncController.getOfficialProducts(null, null, null, "isOfficial,productName");
+
+        assertThat(new String((byte[]) projected.getBody(), StandardCharsets.UTF_8))
+                .contains("\"productName\":\"Leite\"")
+                .doesNotContain("searchKeywords");
+        verify(productContributionService, times(1)).getOfficialProducts();
+        verify(productContributionService, times(1)).getProductFields(eq(true), anyList());
+    }
+
+    @Test
+    @DisplayName("getUserContributedProducts: Should return 400 for an unknown field")
+    void getUserContributedProducts_UnknownField() {
+        ResponseEntity<?> response = syncController.getUserContributedProducts(null, null, null, "price");
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(productContributionService);
     }
 
     // ===== HEALTH & ERROR HANDLING =====
@@ -156,22 +496,22 @@ class SyncControllerTest {
     @Test
     @DisplayName("initialSync: Should return 500 when service fails")
     void initialSync_Failure() throws Exception {
-        when(keywordService.getAllKeywords()).thenThrow(new ExecutionException(new RuntimeException("DB Down")));
+        when(catalogStreamService.openInitialSync(anyString(), any()))
+                .thenThrow(new ExecutionException(new RuntimeException("DB Down")));
 
-        ResponseEntity<?> response = syncController.initialSync();
+        ResponseEntity<StreamingResponseBody> response = syncController.initialSync(null, null, null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
-        Map<String, Object> body = (Map<String, Object>) response.getBody();
-        assertThat(body).containsEntry("syncStatus", "failed");
+        assertThat(writeBody(response)).contains("\"syncStatus\":\"failed\"");
     }
 
     @Test
-    @DisplayName("contributeProduct: Should return 500 on execution error")
+    @DisplayName("contributeProduct: Should return 500 when the contribution cannot be logged")
     void contributeProduct_InternalError() throws Exception {
-        when(productContributionService.contributeProduct(anyString(), any()))
-                .thenThrow(new InterruptedException("Timeout"));
+        when(contributionOutbox.submit(anyString(), any(), any()))
+                .thenThrow(new java.io.IOException("Disk full"));
 
-        ResponseEntity<?> response = syncController.contributeProduct(new ContributeProductRequest("Milk", null));
+        ResponseEntity<?> response = syncController.contributeProduct(new ContributeProductRequest("Milk", null), null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
     }
@@ -186,14 +526,56 @@ class SyncControllerTest {
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    @Test
+    @DisplayName("contributeProducts: Should return per-item results and totals")
+    void contributeProducts_Success() throws Exception {
+        when(productContributionService.contributeProducts(anyList())).thenReturn(List.of(
+                ContributionResult.created(0, "Milk", "milk"),
+                ContributionResult.rejected(1, "Bread", "bread", ContributionResult.Status.DUPLICATE, "Product already exists in the system")
+        ));
+
+        ResponseEntity<?> response = syncController.contributeProducts(List.of(
+                new ContributeProductRequest("Milk", null),
+                new ContributeProductRequest("Bread", null)));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        Map<String, Object> body = (Map<String, Object>) response.getBody();
+        assertThat(body).containsEntry("total", 2);
+        assertThat(body).containsEntry("created", 1L);
+        assertThat(body).containsEntry("rejected", 1L);
+        verify(productContributionService).contributeProducts(List.of(
+                new ProductContributionService.BulkItem("Milk", "OUTROS"),
+                new ProductContributionService.BulkItem("Bread", "OUTROS")));
+    }
+
+    @Test
+    @DisplayName("contributeProducts: Should return 400 for an empty list")
+    void contributeProducts_Empty() {
+        ResponseEntity<?> response = syncController.contributeProducts(List.of());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
+        verifyNoInteractions(productContributionService);
+    }
+
+    @Test
+    @DisplayName("contributeProducts: Should return 500 when Firestore fails")
+    void contributeProducts_Failure() throws Exception {
+        when(productContributionService.contributeProducts(anyList()))
+                .thenThrow(new ExecutionException(new RuntimeException("unavailable")));
+
+        ResponseEntity<?> response = syncController.contributeProducts(List.of(new ContributeProductRequest("Milk", null)));
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
+    }
+
     @Test
     @DisplayName("contributeProduct: Should return 400 when service throws IllegalArgumentException")
     void contributeProduct_BadRequest() throws Exception {
-        // Simulate service validation failing
-        when(productContributionService.contributeProduct(anyString(), any()))
+        // Simulate validation failing
+        when(contributionOutbox.submit(anyString(), any(), any()))
                 .thenThrow(new IllegalArgumentException("Invalid Name"));
 
-        ResponseEntity<?> response = syncController.contributeProduct(new ContributeProductRequest("", null));
+        ResponseEntity<?> response = syncController.contributeProduct(new ContributeProductRequest("", null), null);
 
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
         Map<String, Object> body = (Map<String, Object>) response.getBody();
@@ -216,7 +598,7 @@ class SyncControllerTest {
     @DisplayName("getOfficialProducts: Should return 500 when Firestore fails")
     void getOfficialProducts_Failure() throws Exception {
         when(productContributionService.getOfficialProducts()).thenThrow(new ExecutionException(new RuntimeException()));
-        ResponseEntity<?> response = syncController.getOfficialProducts();
+        ResponseEntity<?> response = syncController.getOfficialProducts(null, null, null, null);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
@@ -224,7 +606,13 @@ class SyncControllerTest {
     @DisplayName("getUserContributedProducts: Should return 500 when Firestore fails")
     void getUserContributedProducts_Failure() throws Exception {
         when(productContributionService.getUserContributedProducts()).thenThrow(new ExecutionException(new RuntimeException()));
-        ResponseEntity<?> response = syncController.getUserContributedProducts();
+        ResponseEntity<?> response = syncController.getUserContributedProducts(null, null, null, null);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR);
     }
-}
\ No newline at end of file
+
+    private String writeBody(ResponseEntity<StreamingResponseBody> response) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -40,4 +40,13 @@ class KeywordTest {
 
         assertThat(k1).isNotEqualTo(k2);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should keep the category when stamped with the change time")
+    void withUpdatedAtShouldKeepCategory() {
+        Keyword keyword = new Keyword("arroz", "ALIMENTOS", null).withUpdatedAt(42L);
+
+        assertThat(keyword).isEqualTo(new Keyword("arroz", "ALIMENTOS", 42L));
+        assertThat(new Keyword("arroz", 42L).categoryId()).isNull();
+    }
+}
@@ -42,4 +42,18 @@ class ProductTest {
             product.searchKeywords().add("novo");
         }, "A lista de keywords não deve permitir modificação direta");
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Deve manter a categoria ao marcar a data de alteração")
+    void shouldKeepCategoryWhenStamped() {
+        Product product = Product.createOfficial("Arroz Agulha 1kg", List.of("arroz"))
+                .withCategoryId("ALIMENTOS")
+                .withUpdatedAt(42L);
+
+        assertAll("Categoria preservada",
+                () -> assertEquals("ALIMENTOS", product.categoryId()),
+                () -> assertEquals(42L, product.updatedAt()),
+                () -> assertNull(Product.createOfficial("Leite", List.of()).categoryId())
+        );
+    }
+}
@@ -0,0 +1,147 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.core.model.Keyword;
+import com.cartshare.backend.core.model.Product;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.QuerySnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AutocompleteRebuildSchedulerTest {
+
+    @Mock private Firestore firestore;
+    @Mock private CollectionReference keywordsCollection;
+    @Mock private CollectionReference productsCollection;
+    @Mock private QuerySnapshot keywordsSnapshot;
+    @Mock private QuerySnapshot productsSnapshot;
+    @Mock private KeywordService keywordService;
+    @Mock private NearDuplicateIndex nearDuplicateIndex;
+
+    private AutocompleteService autocompleteService;
+    private AutocompleteRebuildScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        when(firestore.collection("keywords")).thenReturn(keywordsCollection);
+        when(firestore.collection("products")).thenReturn(productsCollection);
+        when(keywordsCollection.get()).thenReturn(ApiFutures.immediateFuture(keywordsSnapshot));
+        when(productsCollection.get()).thenReturn(ApiFutures.immediateFuture(productsSnapshot));
+        when(keywordsSnapshot.toObjects(Keyword.class)).thenReturn(List.of(new Keyword("Arroz")));
+        when(productsSnapshot.toObjects(Product.class)).thenReturn(List.of(Product.of("leite", "Leite", true, List.of())));
+
+        autocompleteService = new AutocompleteService();
+        scheduler = new AutocompleteRebuildScheduler(firestore, autocompleteService, keywordService, nearDuplicateIndex, 50);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.stop();
+    }
+
+    private void awaitCompleted(long rebuilds) throws InterruptedException {
+        for (int i = 0; i < 300; i++) {
+            if ((long) scheduler.stats().get("completed") >= rebuilds
+                    && !(boolean) scheduler.stats().get("rebuildScheduled")) return;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Rebuilds not completed: " + scheduler.stats());
+    }
+
+    @Test
+    @DisplayName("requestRebuild: A burst of requests should be coalesced into one rebuild")
+    void requestRebuild_CoalescesBurst() throws Exception {
+        for (int i = 0; i < 50; i++) {
+            scheduler.requestRebuild();
+        }
+
+        awaitCompleted(1);
+        Thread.sleep(100);
+
+        verify(keywordsCollection, times(1)).get();
+        verify(productsCollection, times(1)).get();
+        assertThat(scheduler.stats())
+                .containsEntry("requested", 50L)
+                .containsEntry("completed", 1L)
+                .containsEntry("pendingRequests", 0L);
+        assertThat(autocompleteService.suggest("arroz")).containsExactly("Arroz");
+        assertThat(autocompleteService.version()).isEqualTo(1);
+        verify(keywordService).keywordsExist(List.of("Arroz"));
+        verify(nearDuplicateIndex).rebuild(List.of(Product.of("leite", "Leite", true, List.of())));
+    }
+
+    @Test
+    @DisplayName("requestRebuild: A request during a rebuild should run exactly one follow-up, never in parallel")
+    void requestRebuild_FollowUpAfterRunning() throws Exception {
+        CountDownLatch reading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(keywordsSnapshot.toObjects(Keyword.class)).thenAnswer(invocation -> {
+            reading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return List.of(new Keyword("Arroz"));
+        });
+
+        scheduler.requestRebuild();
+        assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(scheduler.stats()).containsEntry("rebuildRunning", true);
+        scheduler.requestRebuild();
+        scheduler.requestRebuild();
+        release.countDown();
+
+        awaitCompleted(2);
+        Thread.sleep(100);
+        verify(keywordsCollection, times(2)).get();
+        assertThat(scheduler.stats()).containsEntry("completed", 2L);
+    }
+
+    @Test
+    @DisplayName("rebuild: An incremental update during the read should trigger another rebuild")
+    void rebuild_IncrementalUpdateDuringRead() throws Exception {
+        CountDownLatch once = new CountDownLatch(1);
+        when(keywordsSnapshot.toObjects(Keyword.class)).thenAnswer(invocation -> {
+            if (once.getCount() > 0) {
+                once.countDown();
+                autocompleteService.indexAdd(List.of(new Keyword("Feijão")), List.of());
+            }
+            return List.of(new Keyword("Arroz"));
+        });
+
+        scheduler.requestRebuild();
+
+        awaitCompleted(2);
+        verify(keywordsCollection, times(2)).get();
+    }
+
+    @Test
+    @DisplayName("rebuild: A Firestore failure should be counted and keep the published index")
+    void rebuild_Failure() throws Exception {
+        autocompleteService.indexUpdate(List.of(new Keyword("Arroz")), List.of());
+        when(keywordsCollection.get()).thenReturn(ApiFutures.immediateFailedFuture(new RuntimeException("Firestore Down")));
+
+        scheduler.requestRebuild();
+
+        for (int i = 0; i < 300 && (long) scheduler.stats().get("failed") == 0; i++) {
+            Thread.sleep(10);
+        }
+        assertThat(scheduler.stats()).containsEntry("failed", 1L).containsEntry("completed", 0L);
+        assertThat(autocompleteService.version()).isEqualTo(1);
+        assertThat(autocompleteService.suggest("arroz")).containsExactly("Arroz");
+    }
+}
@@ -95,4 +95,29 @@ class AutocompleteServiceTest {
         assertThat(autocompleteService.suggest("")).isEmpty();
         assertThat(autocompleteService.suggest("   ")).isEmpty();
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("indexAdd: Should merge new entries into the existing index without dropping it")
+    void indexAddShouldMergeIncrementally() {
+        autocompleteService.indexUpdate(List.of(new Keyword("Arroz")), List.of());
+
+        autocompleteService.indexAdd(List.of(new Keyword("Feijão")),
+                List.of(Product.of("massa", "Massa", false, List.of("massa"))));
+
+        assertThat(autocompleteService.suggest("arroz")).containsExactly("Arroz");
+        assertThat(autocompleteService.suggest("feijao")).containsExactly("Feijão");
+        assertThat(autocompleteService.suggest("massa")).containsExactlyInAnyOrder("Massa", "massa");
+    }
+
+    @Test
+    @DisplayName("version: Should grow by one with every rebuild and incremental update")
+    void versionShouldBeMonotonic() {
+        long initial = autocompleteService.version();
+
+        autocompleteService.indexUpdate(List.of(new Keyword("Arroz")), List.of());
+        autocompleteService.indexAdd(List.of(new Keyword("Feijão")), List.of());
+
+        assertThat(autocompleteService.version()).isEqualTo(initial + 2);
+        assertThat(autocompleteService.size()).isEqualTo(2);
+    }
+}
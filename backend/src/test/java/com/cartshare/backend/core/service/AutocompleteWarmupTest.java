@@ -26,6 +26,8 @@ class AutocompleteWarmupTest {
 
     @Mock private Firestore firestore;
     @Mock private AutocompleteService autocompleteService;
+    @Mock private KeywordService keywordService;
+    @Mock private NearDuplicateIndex nearDuplicateIndex;
 
     @InjectMocks
     private AutocompleteWarmup autocompleteWarmup;
@@ -60,6 +62,9 @@ class AutocompleteWarmupTest {
         // Assert
         // Verify only 2 lists are passed now (keywords, products)
         verify(autocompleteService, times(1)).indexUpdate(anyList(), anyList());
+        // Keyword membership is loaded from the same read
+        verify(keywordService).keywordsExist(List.of("test"));
+        verify(nearDuplicateIndex).rebuild(anyList());
 
         // Verify only 2 collections are hit (categories was removed)
         verify(firestore, times(2)).collection(anyString());
@@ -0,0 +1,163 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.core.model.CatalogChanges;
+import com.cartshare.backend.core.model.Keyword;
+import com.cartshare.backend.core.model.Product;
+import com.cartshare.backend.core.model.Tombstone;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CatalogChangeServiceTest {
+
+    @Mock private Firestore firestore;
+    @Mock private CollectionReference productsCollection;
+    @Mock private CollectionReference keywordsCollection;
+    @Mock private CollectionReference tombstonesCollection;
+    @Mock private Query productsQuery;
+    @Mock private Query keywordsQuery;
+    @Mock private Query tombstonesQuery;
+    @Mock private ApiFuture<QuerySnapshot> productsFuture;
+    @Mock private ApiFuture<QuerySnapshot> keywordsFuture;
+    @Mock private ApiFuture<QuerySnapshot> tombstonesFuture;
+    @Mock private QuerySnapshot productsSnapshot;
+    @Mock private QuerySnapshot keywordsSnapshot;
+    @Mock private QuerySnapshot tombstonesSnapshot;
+
+    @InjectMocks
+    private CatalogChangeService catalogChangeService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        doReturn(productsCollection).when(firestore).collection("products");
+        doReturn(keywordsCollection).when(firestore).collection("keywords");
+        doReturn(tombstonesCollection).when(firestore).collection("tombstones");
+        when(productsCollection.whereGreaterThanOrEqualTo(eq("updatedAt"), any())).thenReturn(productsQuery);
+        when(keywordsCollection.whereGreaterThanOrEqualTo(eq("updatedAt"), any())).thenReturn(keywordsQuery);
+        when(tombstonesCollection.whereGreaterThanOrEqualTo(eq("deletedAt"), any())).thenReturn(tombstonesQuery);
+        when(productsQuery.get()).thenReturn(productsFuture);
+        when(keywordsQuery.get()).thenReturn(keywordsFuture);
+        when(tombstonesQuery.get()).thenReturn(tombstonesFuture);
+        when(productsFuture.get()).thenReturn(productsSnapshot);
+        when(keywordsFuture.get()).thenReturn(keywordsSnapshot);
+        when(tombstonesFuture.get()).thenReturn(tombstonesSnapshot);
+        when(productsSnapshot.toObjects(Product.class)).thenReturn(List.of());
+        when(keywordsSnapshot.toObjects(Keyword.class)).thenReturn(List.of());
+        when(tombstonesSnapshot.toObjects(Tombstone.class)).thenReturn(List.of());
+    }
+
+    @Test
+    @DisplayName("getChangesSince: Should query each collection from the decoded token, inclusive")
+    void getChangesSince_QueriesFromToken() throws Exception {
+        when(productsSnapshot.toObjects(Product.class))
+                .thenReturn(List.of(Product.of("p1", "Milk", false, List.of()).withUpdatedAt(150L)));
+        when(tombstonesSnapshot.toObjects(Tombstone.class))
+                .thenReturn(List.of(Tombstone.of("products", "old", 180L)));
+
+        CatalogChanges changes = catalogChangeService.getChangesSince(CatalogChangeService.encodeToken(100L));
+
+        verify(productsCollection).whereGreaterThanOrEqualTo("updatedAt", 100L);
+        verify(keywordsCollection).whereGreaterThanOrEqualTo("updatedAt", 100L);
+        verify(tombstonesCollection).whereGreaterThanOrEqualTo("deletedAt", 100L);
+        assertThat(changes.size()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("getChangesSince: Next token should trail the request time, not the newest stamp seen")
+    void getChangesSince_TokenTrailsRequestTime() throws Exception {
+        long before = System.currentTimeMillis();
+        // A write stamped just now is already visible; its stamp must not become the token
+        when(productsSnapshot.toObjects(Product.class))
+                .thenReturn(List.of(Product.of("p1", "Milk", false, List.of()).withUpdatedAt(before)));
+
+        CatalogChanges changes = catalogChangeService.getChangesSince(CatalogChangeService.encodeToken(100L));
+        long after = System.currentTimeMillis();
+
+        assertThat(CatalogChangeService.decodeToken(changes.nextToken()))
+                .isBetween(before - CatalogChangeService.COMMIT_WINDOW_MS, after - CatalogChangeService.COMMIT_WINDOW_MS);
+    }
+
+    @Test
+    @DisplayName("getChangesSince: A write committed after the token was issued, with an older stamp, is returned next time")
+    void getChangesSince_ReturnsLateCommitWithOlderStamp() throws Exception {
+        // An import stamped its batch, then a delta sync ran before the batch committed
+        long stampedAt = System.currentTimeMillis() - 1_000;
+        String token = catalogChangeService.getChangesSince(CatalogChangeService.encodeToken(100L)).nextToken();
+
+        // The batch commits now, carrying the stamp taken before the token was issued
+        Product late = Product.of("p1", "Milk", false, List.of()).withUpdatedAt(stampedAt);
+        when(productsSnapshot.toObjects(Product.class)).thenReturn(List.of(late));
+        CatalogChanges changes = catalogChangeService.getChangesSince(token);
+
+        long since = CatalogChangeService.decodeToken(token);
+        verify(productsCollection).whereGreaterThanOrEqualTo("updatedAt", since);
+        assertThat(since).isLessThanOrEqualTo(stampedAt);
+        assertThat(changes.products()).containsExactly(late);
+    }
+
+    @Test
+    @DisplayName("getChangesSince: Should never move the token backwards")
+    void getChangesSince_NoChanges() throws Exception {
+        long recent = System.currentTimeMillis();
+        String token = CatalogChangeService.encodeToken(recent);
+
+        CatalogChanges changes = catalogChangeService.getChangesSince(token);
+
+        assertThat(changes.size()).isZero();
+        assertThat(changes.nextToken()).isEqualTo(token);
+    }
+
+    @Test
+    @DisplayName("tokenAt: Should trail the given time by the commit window")
+    void tokenAt_TrailsTime() {
+        assertThat(CatalogChangeService.decodeToken(CatalogChangeService.tokenAt(1_000_000_000L)))
+                .isEqualTo(1_000_000_000L - CatalogChangeService.COMMIT_WINDOW_MS);
+        assertThat(CatalogChangeService.decodeToken(CatalogChangeService.tokenAt(42L))).isZero();
+    }
+
+    @Test
+    @DisplayName("decodeToken: Null or blank token starts from the beginning")
+    void decodeToken_Blank() {
+        assertThat(CatalogChangeService.decodeToken(null)).isZero();
+        assertThat(CatalogChangeService.decodeToken("  ")).isZero();
+    }
+
+    @Test
+    @DisplayName("decodeToken: Should reject malformed tokens")
+    void decodeToken_Malformed() {
+        assertThrows(IllegalArgumentException.class, () -> CatalogChangeService.decodeToken("not-a-token"));
+        assertThrows(IllegalArgumentException.class, () -> CatalogChangeService.decodeToken("%%%"));
+    }
+
+    @Test
+    @DisplayName("stageDeletion: Should delete the document and write a tombstone in the same batch")
+    void stageDeletion_WritesTombstone() {
+        WriteBatch batch = mock(WriteBatch.class);
+        DocumentReference productRef = mock(DocumentReference.class);
+        DocumentReference tombstoneRef = mock(DocumentReference.class);
+        when(productsCollection.document("p1")).thenReturn(productRef);
+        when(tombstonesCollection.document("products_p1")).thenReturn(tombstoneRef);
+
+        catalogChangeService.stageDeletion(batch, "products", "p1");
+
+        verify(batch).delete(productRef);
+        verify(batch).set(eq(tombstoneRef), any(Tombstone.class));
+    }
+}
@@ -0,0 +1,229 @@
+package com.cartshare.backend.core.service;
+
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.AggregateQuery;
+import com.google.cloud.firestore.AggregateQuerySnapshot;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.FieldValue;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.Transaction;
+import com.google.cloud.firestore.WriteResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CatalogCountersTest {
+
+    @Mock private Firestore firestore;
+    @Mock private CollectionReference productsCollection;
+    @Mock private CollectionReference keywordsCollection;
+    @Mock private CollectionReference countersCollection;
+    @Mock private CollectionReference shardsCollection;
+    @Mock private DocumentReference catalogCounter;
+    @Mock private DocumentReference shardReference;
+    @Mock private Query officialQuery;
+    @Mock private ApiFuture<QuerySnapshot> futureShards;
+    @Mock private QuerySnapshot shardsSnapshot;
+    @Mock private ApiFuture<WriteResult> futureWrite;
+    @Mock private ApiFuture<DocumentSnapshot> futureCounter;
+    @Mock private DocumentSnapshot counterSnapshot;
+    @Mock private Transaction transaction;
+
+    private CatalogCounters catalogCounters;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(firestore.collection("products")).thenReturn(productsCollection);
+        when(firestore.collection("keywords")).thenReturn(keywordsCollection);
+        when(firestore.collection("counters")).thenReturn(countersCollection);
+        when(countersCollection.document("catalog")).thenReturn(catalogCounter);
+        when(catalogCounter.collection("shards")).thenReturn(shardsCollection);
+        when(shardsCollection.get()).thenReturn(futureShards);
+        when(futureShards.get()).thenReturn(shardsSnapshot);
+        when(shardsCollection.document(anyString())).thenReturn(shardReference);
+        when(shardReference.set(anyMap(), any(SetOptions.class))).thenReturn(futureWrite);
+        when(catalogCounter.get()).thenReturn(futureCounter);
+        when(futureCounter.get()).thenReturn(counterSnapshot);
+        when(counterSnapshot.contains(CatalogCounters.COUNTED_AT)).thenReturn(true);
+        when(catalogCounter.update(eq(CatalogCounters.COUNTED_AT), any())).thenReturn(futureWrite);
+        when(firestore.runTransaction(any(Transaction.Function.class))).thenAnswer(invocation -> {
+            Transaction.Function<?> function = invocation.getArgument(0);
+            return ApiFutures.immediateFuture(function.updateCallback(transaction));
+        });
+        when(transaction.getAll(any(DocumentReference[].class))).thenReturn(ApiFutures.immediateFuture(List.of()));
+
+        when(productsCollection.whereEqualTo("isOfficial", true)).thenReturn(officialQuery);
+        AggregateQuery productsCount = countOf(transaction, 10);
+        AggregateQuery officialCount = countOf(transaction, 7);
+        AggregateQuery keywordsCount = countOf(transaction, 30);
+        when(productsCollection.count()).thenReturn(productsCount);
+        when(officialQuery.count()).thenReturn(officialCount);
+        when(keywordsCollection.count()).thenReturn(keywordsCount);
+
+        catalogCounters = new CatalogCounters(firestore);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AggregateQuery countOf(Transaction transaction, long count) throws Exception {
+        AggregateQuery query = mock(AggregateQuery.class);
+        ApiFuture<AggregateQuerySnapshot> future = mock(ApiFuture.class);
+        AggregateQuerySnapshot snapshot = mock(AggregateQuerySnapshot.class);
+        when(transaction.get(query)).thenReturn(future);
+        when(future.get()).thenReturn(snapshot);
+        when(snapshot.getCount()).thenReturn(count);
+        return query;
+    }
+
+    private static QueryDocumentSnapshot shard(Long products, Long official, Long keywords) {
+        QueryDocumentSnapshot shard = mock(QueryDocumentSnapshot.class);
+        when(shard.getLong(CatalogCounters.PRODUCTS)).thenReturn(products);
+        when(shard.getLong(CatalogCounters.OFFICIAL_PRODUCTS)).thenReturn(official);
+        when(shard.getLong(CatalogCounters.KEYWORDS)).thenReturn(keywords);
+        return shard;
+    }
+
+    @Test
+    @DisplayName("get: Should sum every shard without reading the catalog")
+    void get_SumsShards() throws Exception {
+        List<QueryDocumentSnapshot> shards = List.of(shard(5L, 4L, 20L), shard(3L, null, 1L), shard(null, null, null));
+        when(shardsSnapshot.getDocuments()).thenReturn(shards);
+
+        CatalogCounters.Counts counts = catalogCounters.get();
+
+        assertThat(counts).isEqualTo(new CatalogCounters.Counts(8, 4, 21));
+        assertThat(counts.userContributedProducts()).isEqualTo(4);
+        verify(productsCollection, never()).get();
+        verify(productsCollection, never()).count();
+    }
+
+    @Test
+    @DisplayName("get: Should recount and seed the shards the first time")
+    void get_SeedsShards() throws Exception {
+        when(counterSnapshot.contains(CatalogCounters.COUNTED_AT)).thenReturn(false);
+
+        CatalogCounters.Counts counts = catalogCounters.get();
+
+        assertThat(counts).isEqualTo(new CatalogCounters.Counts(10, 7, 30));
+        verify(shardsCollection).document("0");
+        verify(transaction, times(CatalogCounters.SHARDS)).set(any(DocumentReference.class), anyMap());
+        verify(transaction).set(eq(catalogCounter), anyMap(), eq(SetOptions.merge()));
+    }
+
+    @Test
+    @DisplayName("get: Should recount when the only shards come from increments before any count")
+    void get_RecountsIncrementOnlyShards() throws Exception {
+        when(counterSnapshot.contains(CatalogCounters.COUNTED_AT)).thenReturn(false);
+        when(shardsSnapshot.getDocuments()).thenReturn(List.of(shard(1L, null, null)));
+
+        assertThat(catalogCounters.get()).isEqualTo(new CatalogCounters.Counts(10, 7, 30));
+    }
+
+    @Test
+    @DisplayName("start: Should seed uninitialized counters and leave initialized ones alone")
+    void start_SeedsOnlyOnce() throws Exception {
+        catalogCounters.start();
+        verify(firestore, never()).runTransaction(any(Transaction.Function.class));
+
+        when(counterSnapshot.contains(CatalogCounters.COUNTED_AT)).thenReturn(false);
+        catalogCounters.start();
+        verify(firestore).runTransaction(any(Transaction.Function.class));
+    }
+
+    @Test
+    @DisplayName("recount: Should put the totals in shard 0 and zero the others")
+    @SuppressWarnings("unchecked")
+    void recount_ResetsShards() throws Exception {
+        DocumentReference first = mock(DocumentReference.class);
+        when(shardsCollection.document("0")).thenReturn(first);
+
+        catalogCounters.recount();
+
+        ArgumentCaptor<Map<String, Object>> firstShard = ArgumentCaptor.forClass(Map.class);
+        verify(transaction).set(eq(first), firstShard.capture());
+        assertThat(firstShard.getValue()).containsEntry(CatalogCounters.PRODUCTS, 10L)
+                .containsEntry(CatalogCounters.OFFICIAL_PRODUCTS, 7L)
+                .containsEntry(CatalogCounters.KEYWORDS, 30L);
+        verify(transaction, times(CatalogCounters.SHARDS - 1))
+                .set(shardReference, Map.of(CatalogCounters.PRODUCTS, 0L,
+                        CatalogCounters.OFFICIAL_PRODUCTS, 0L, CatalogCounters.KEYWORDS, 0L));
+    }
+
+    @Test
+    @DisplayName("recount: Should read every shard in the transaction before counting")
+    void recount_LocksShardsFirst() throws Exception {
+        catalogCounters.recount();
+
+        var order = inOrder(transaction);
+        order.verify(transaction).getAll(any(DocumentReference[].class));
+        order.verify(transaction, atLeastOnce()).get(any(AggregateQuery.class));
+        order.verify(transaction, atLeastOnce()).set(any(DocumentReference.class), anyMap());
+    }
+
+    @Test
+    @DisplayName("productAdded/keywordAdded: Should increment a single shard with merge")
+    @SuppressWarnings("unchecked")
+    void writes_IncrementOneShard() {
+        catalogCounters.productAdded(true);
+        catalogCounters.keywordAdded();
+
+        ArgumentCaptor<Map<String, Object>> increments = ArgumentCaptor.forClass(Map.class);
+        verify(shardReference, times(2)).set(increments.capture(), eq(SetOptions.merge()));
+        assertThat(increments.getAllValues().get(0))
+                .containsOnlyKeys(CatalogCounters.PRODUCTS, CatalogCounters.OFFICIAL_PRODUCTS)
+                .allSatisfy((field, value) -> assertThat(value).isInstanceOf(FieldValue.class));
+        assertThat(increments.getAllValues().get(1)).containsOnlyKeys(CatalogCounters.KEYWORDS);
+        verify(firestore, never()).runTransaction(any(Transaction.Function.class));
+    }
+
+    @Test
+    @DisplayName("productAdded: Should invalidate the counters when the increment fails")
+    void writes_FailureInvalidates() {
+        when(shardReference.set(anyMap(), any(SetOptions.class)))
+                .thenReturn(ApiFutures.immediateFailedFuture(new RuntimeException("unavailable")));
+
+        catalogCounters.productAdded(false);
+
+        verify(catalogCounter).update(eq(CatalogCounters.COUNTED_AT), eq(FieldValue.delete()));
+    }
+
+    @Test
+    @DisplayName("recount: Should propagate aggregation failures without touching the shards")
+    @SuppressWarnings("unchecked")
+    void recount_Failure() throws Exception {
+        AggregateQuery failing = mock(AggregateQuery.class);
+        ApiFuture<AggregateQuerySnapshot> future = mock(ApiFuture.class);
+        when(transaction.get(failing)).thenReturn(future);
+        when(future.get()).thenThrow(new ExecutionException(new RuntimeException("unavailable")));
+        when(keywordsCollection.count()).thenReturn(failing);
+
+        assertThrows(ExecutionException.class, () -> catalogCounters.recount());
+        verify(future).cancel(true);
+        verify(transaction, never()).set(any(DocumentReference.class), anyMap());
+    }
+}
@@ -0,0 +1,130 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.core.model.CatalogEvent;
+import com.cartshare.backend.core.model.Keyword;
+import com.cartshare.backend.core.model.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.reactivestreams.Subscription;
+import org.springframework.http.codec.ServerSentEvent;
+import reactor.core.Disposable;
+import reactor.core.publisher.BaseSubscriber;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogEventPublisherTest {
+
+    private final CatalogEventPublisher publisher = new CatalogEventPublisher();
+
+    @Test
+    @DisplayName("subscribe: Should start with a connected event and then push catalog writes")
+    void subscribe_PushesEvents() {
+        List<ServerSentEvent<Object>> received = new CopyOnWriteArrayList<>();
+        Disposable connection = publisher.subscribe().subscribe(received::add);
+
+        Product product = Product.of("leite", "Leite", false, List.of("leite")).withUpdatedAt(42L);
+        publisher.productCreated(product);
+        publisher.keywordCreated("leite", new Keyword("leite", 43L));
+
+        assertThat(received).extracting(ServerSentEvent::event)
+                .containsExactly("connected", "product", "keyword");
+        // Event ids trail the write, so resuming from one also returns writes committed late
+        assertThat(received.get(1).id()).isEqualTo(CatalogChangeService.tokenAt(42L));
+        assertThat(((CatalogEvent) received.get(1).data()).document()).isEqualTo(product);
+        connection.dispose();
+    }
+
+    @Test
+    @DisplayName("subscribe: Every connection should get every event")
+    void subscribe_FansOut() {
+        List<ServerSentEvent<Object>> first = new CopyOnWriteArrayList<>();
+        List<ServerSentEvent<Object>> second = new CopyOnWriteArrayList<>();
+        Disposable a = publisher.subscribe().subscribe(first::add);
+        Disposable b = publisher.subscribe().subscribe(second::add);
+
+        publisher.keywordCreated("arroz", new Keyword("arroz", 1L));
+
+        assertThat(publisher.subscriberCount()).isEqualTo(2);
+        assertThat(first).extracting(ServerSentEvent::event).containsExactly("connected", "keyword");
+        assertThat(second).extracting(ServerSentEvent::event).containsExactly("connected", "keyword");
+        a.dispose();
+        b.dispose();
+        assertThat(publisher.subscriberCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("catalogReloaded: Should tell clients to resync and end the stream")
+    void catalogReloaded_EndsWithResync() {
+        List<ServerSentEvent<Object>> received = new CopyOnWriteArrayList<>();
+        AtomicBoolean completed = new AtomicBoolean();
+        publisher.subscribe().subscribe(received::add, e -> {}, () -> completed.set(true));
+
+        publisher.catalogReloaded();
+
+        assertThat(received).extracting(ServerSentEvent::event).containsExactly("connected", "resync");
+        assertThat(completed).isTrue();
+    }
+
+    @Test
+    @DisplayName("catalogChangedElsewhere: Should tell clients to run a delta sync and keep the stream open")
+    void catalogChangedElsewhere_KeepsStreamOpen() {
+        List<ServerSentEvent<Object>> received = new CopyOnWriteArrayList<>();
+        AtomicBoolean completed = new AtomicBoolean();
+        Disposable connection = publisher.subscribe().subscribe(received::add, e -> {}, () -> completed.set(true));
+
+        publisher.catalogChangedElsewhere();
+        publisher.keywordCreated("arroz", new Keyword("arroz", 1L));
+
+        assertThat(received).extracting(ServerSentEvent::event).containsExactly("connected", "changed", "keyword");
+        assertThat(completed).isFalse();
+        connection.dispose();
+    }
+
+    @Test
+    @DisplayName("subscribe: A client that stops reading should get a resync instead of blocking writers")
+    void subscribe_SlowClientOverflow() {
+        List<String> received = new CopyOnWriteArrayList<>();
+        AtomicBoolean completed = new AtomicBoolean();
+        BaseSubscriber<ServerSentEvent<Object>> slowClient = new BaseSubscriber<>() {
+            @Override
+            protected void hookOnSubscribe(Subscription subscription) {
+                request(1);
+            }
+
+            @Override
+            protected void hookOnNext(ServerSentEvent<Object> event) {
+                received.add(event.event());
+            }
+
+            @Override
+            protected void hookOnComplete() {
+                completed.set(true);
+            }
+        };
+        publisher.subscribe().subscribe(slowClient);
+
+        // Writers never block, whatever the client does
+        for (int i = 0; i < CatalogEventPublisher.BUFFER_SIZE * 4; i++) {
+            publisher.keywordCreated("kw" + i, new Keyword("kw" + i, (long) i));
+        }
+        slowClient.request(Long.MAX_VALUE);
+
+        assertThat(received.getFirst()).isEqualTo("connected");
+        assertThat(received.getLast()).isEqualTo("resync");
+        assertThat(received.size()).isLessThan(CatalogEventPublisher.BUFFER_SIZE * 4);
+        assertThat(completed).isTrue();
+        assertThat(publisher.subscriberCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("emit: Publishing without subscribers should be a no-op")
+    void emit_NoSubscribers() {
+        publisher.productCreated(Product.of("pao", "Pão", true, List.of()));
+
+        assertThat(publisher.subscriberCount()).isZero();
+    }
+}
@@ -0,0 +1,41 @@
+package com.cartshare.backend.core.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CatalogPayloadCacheTest {
+
+    private final CatalogPayloadCache cache = new CatalogPayloadCache(new ObjectMapper());
+
+    @Test
+    @DisplayName("get: Should load once per version and reuse the encoded bytes")
+    void get_ReusesPayloadForSameVersion() throws Exception {
+        AtomicInteger loads = new AtomicInteger();
+
+        CatalogPayloadCache.EncodedPayload first = cache.get("key", 1, SyncFormat.JSON, () -> Map.of("n", loads.incrementAndGet()));
+        CatalogPayloadCache.EncodedPayload second = cache.get("key", 1, SyncFormat.JSON, () -> Map.of("n", loads.incrementAndGet()));
+        CatalogPayloadCache.EncodedPayload third = cache.get("key", 2, SyncFormat.JSON, () -> Map.of("n", loads.incrementAndGet()));
+
+        assertThat(loads.get()).isEqualTo(2);
+        assertThat(second).isSameAs(first);
+        assertThat(third.version()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("get: Gzip bytes should decompress to the JSON bytes")
+    void get_GzipMatchesJson() throws Exception {
+        CatalogPayloadCache.EncodedPayload payload = cache.get("key", 1, SyncFormat.JSON, () -> Map.of("products", "leite"));
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(payload.gzip()))) {
+            assertThat(in.readAllBytes()).isEqualTo(payload.body());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.cartshare.backend.core.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotMaterializerTest {
+
+    private static final String PAYLOAD = "{\"keywords\":[],\"products\":[{\"productName\":\"Leite\"}],\"syncStatus\":\"success\"}";
+
+    @Mock private CatalogStreamService catalogStreamService;
+
+    @TempDir Path directory;
+
+    private CatalogVersionService catalogVersionService;
+    private CatalogSnapshotMaterializer materializer;
+
+    @BeforeEach
+    void setUp() {
+        catalogVersionService = new CatalogVersionService(null, null);
+        materializer = new CatalogSnapshotMaterializer(catalogStreamService, catalogVersionService, directory, true, 0);
+    }
+
+    private void stubStream() throws Exception {
+        when(catalogStreamService.openInitialSync(anyString(), eq(SyncFormat.JSON)))
+                .thenReturn(out -> out.write(PAYLOAD.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    @DisplayName("refresh: Should write a gzip snapshot for the current catalog version")
+    void refresh_MaterializesSnapshot() throws Exception {
+        stubStream();
+        long version = catalogVersionService.currentVersion();
+
+        materializer.refresh();
+
+        CatalogSnapshotMaterializer.Snapshot snapshot = materializer.latest().orElseThrow();
+        assertThat(snapshot.version()).isEqualTo(version);
+        assertThat(snapshot.size()).isEqualTo(Files.size(snapshot.file()));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        materializer.copyTo(snapshot, out);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertThat(new String(in.readAllBytes(), StandardCharsets.UTF_8)).isEqualTo(PAYLOAD);
+        }
+    }
+
+    @Test
+    @DisplayName("refresh: Should not read Firestore again while the version is unchanged")
+    void refresh_SkipsUnchangedVersion() throws Exception {
+        stubStream();
+
+        materializer.refresh();
+        materializer.refresh();
+
+        verify(catalogStreamService, times(1)).openInitialSync(anyString(), eq(SyncFormat.JSON));
+    }
+
+    @Test
+    @DisplayName("refresh: Should regenerate after a catalog change and drop older generations")
+    void refresh_RegeneratesOnChange() throws Exception {
+        stubStream();
+        materializer.refresh();
+        Path firstFile = materializer.latest().orElseThrow().file();
+
+        catalogVersionService.markChanged();
+        materializer.refresh();
+        catalogVersionService.markChanged();
+        materializer.refresh();
+
+        assertThat(materializer.latest().orElseThrow().version()).isEqualTo(catalogVersionService.currentVersion());
+        assertThat(firstFile).doesNotExist();
+        try (var files = Files.list(directory)) {
+            assertThat(files.count()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    @DisplayName("refresh: Should keep the previous snapshot until the minimum interval has passed")
+    void refresh_WaitsForMinimumInterval() throws Exception {
+        stubStream();
+        materializer = new CatalogSnapshotMaterializer(catalogStreamService, catalogVersionService, directory, true, 60_000);
+        long first = catalogVersionService.currentVersion();
+        materializer.refresh();
+
+        catalogVersionService.markChanged();
+        materializer.refresh();
+
+        assertThat(materializer.latest().orElseThrow().version()).isEqualTo(first);
+        verify(catalogStreamService, times(1)).openInitialSync(anyString(), eq(SyncFormat.JSON));
+    }
+
+    @Test
+    @DisplayName("removeStale: Should delete snapshot files left behind by earlier runs")
+    void removeStale_DeletesOldFiles() throws Exception {
+        Files.writeString(directory.resolve("catalog-v17.json.gz"), "old");
+        Files.writeString(directory.resolve("catalog-123.tmp"), "partial");
+        Files.writeString(directory.resolve("notes.txt"), "keep");
+
+        materializer.removeStale();
+
+        try (var files = Files.list(directory)) {
+            assertThat(files.map(path -> path.getFileName().toString())).containsExactly("notes.txt");
+        }
+    }
+
+    @Test
+    @DisplayName("writeDecompressed: Should write plain JSON for clients without gzip")
+    void writeDecompressed_PlainJson() throws Exception {
+        stubStream();
+        materializer.refresh();
+        CatalogSnapshotMaterializer.Snapshot snapshot = materializer.latest().orElseThrow();
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        materializer.writeDecompressed(snapshot, out);
+
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(PAYLOAD);
+    }
+
+    @Test
+    @DisplayName("refresh: Should keep serving nothing when Firestore fails")
+    void refresh_FirestoreFailure() throws Exception {
+        when(catalogStreamService.openInitialSync(anyString(), eq(SyncFormat.JSON)))
+                .thenThrow(new ExecutionException(new RuntimeException("unavailable")));
+
+        materializer.refresh();
+
+        assertThat(materializer.latest()).isEmpty();
+        try (var files = Files.list(directory)) {
+            assertThat(files.count()).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("refresh: Should do nothing when disabled")
+    void refresh_Disabled() {
+        materializer = new CatalogSnapshotMaterializer(catalogStreamService, catalogVersionService, directory, false, 0);
+
+        materializer.refresh();
+
+        verifyNoInteractions(catalogStreamService);
+    }
+}
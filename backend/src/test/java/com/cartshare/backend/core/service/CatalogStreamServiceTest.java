@@ -0,0 +1,154 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.core.model.Keyword;
+import com.cartshare.backend.core.model.Product;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CatalogStreamServiceTest {
+
+    @Mock private Firestore firestore;
+    @Mock private CollectionReference keywordsCollection;
+    @Mock private CollectionReference productsCollection;
+    @Mock private Query keywordsQuery;
+    @Mock private Query productsQuery;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CatalogStreamService catalogStreamService;
+
+    @BeforeEach
+    void setUp() {
+        catalogStreamService = new CatalogStreamService(firestore, objectMapper);
+        doReturn(keywordsCollection).when(firestore).collection("keywords");
+        doReturn(productsCollection).when(firestore).collection("products");
+        when(keywordsCollection.orderBy(any(FieldPath.class))).thenReturn(keywordsQuery);
+        when(productsCollection.orderBy(any(FieldPath.class))).thenReturn(productsQuery);
+        when(keywordsQuery.limit(CatalogStreamService.PAGE_SIZE)).thenReturn(keywordsQuery);
+        when(productsQuery.limit(CatalogStreamService.PAGE_SIZE)).thenReturn(productsQuery);
+    }
+
+    @Test
+    @DisplayName("openInitialSync: Should stream keywords and products as one JSON document")
+    void openInitialSync_StreamsCatalog() throws Exception {
+        ApiFuture<QuerySnapshot> keywordsFuture = pageOf(List.of(new Keyword("arroz"), new Keyword("leite")), Keyword.class);
+        ApiFuture<QuerySnapshot> productsFuture = pageOf(List.of(Product.of("1", "Arroz", true, List.of("arroz"))), Product.class);
+        when(keywordsQuery.get()).thenReturn(keywordsFuture);
+        when(productsQuery.get()).thenReturn(productsFuture);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        catalogStreamService.openInitialSync("token", SyncFormat.JSON).writeTo(out);
+
+        JsonNode json = objectMapper.readTree(out.toByteArray());
+        assertThat(json.get("keywords")).hasSize(2);
+        assertThat(json.get("products")).hasSize(1);
+        assertThat(json.get("products").get(0).get("productName").asText()).isEqualTo("Arroz");
+        assertThat(json.get("syncToken").asText()).isEqualTo("token");
+        assertThat(json.get("syncStatus").asText()).isEqualTo("success");
+    }
+
+    @Test
+    @DisplayName("openInitialSync: Should keep paging with startAfter while pages are full")
+    void openInitialSync_PagesThroughCollection() throws Exception {
+        List<Keyword> fullPage = new ArrayList<>();
+        for (int i = 0; i < CatalogStreamService.PAGE_SIZE; i++) fullPage.add(new Keyword("kw" + i));
+        ApiFuture<QuerySnapshot> firstPage = pageOf(fullPage, Keyword.class);
+        ApiFuture<QuerySnapshot> lastPage = pageOf(List.of(new Keyword("last")), Keyword.class);
+        ApiFuture<QuerySnapshot> noProducts = pageOf(List.of(), Product.class);
+        Query nextQuery = mock(Query.class);
+        when(keywordsQuery.get()).thenReturn(firstPage);
+        when(keywordsQuery.startAfter(any(DocumentSnapshot.class))).thenReturn(nextQuery);
+        when(nextQuery.get()).thenReturn(lastPage);
+        when(productsQuery.get()).thenReturn(noProducts);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        catalogStreamService.openInitialSync("token", SyncFormat.JSON).writeTo(out);
+
+        JsonNode json = objectMapper.readTree(out.toByteArray());
+        assertThat(json.get("keywords")).hasSize(CatalogStreamService.PAGE_SIZE + 1);
+        verify(keywordsQuery).startAfter(any(DocumentSnapshot.class));
+    }
+
+    @Test
+    @DisplayName("openInitialSync: Should fail before streaming when the first read fails")
+    void openInitialSync_FirstReadFails() throws Exception {
+        ApiFuture<QuerySnapshot> failing = mock(ApiFuture.class);
+        when(keywordsQuery.get()).thenReturn(failing);
+        when(failing.get()).thenThrow(new ExecutionException(new RuntimeException("DB Down")));
+
+        assertThrows(ExecutionException.class, () -> catalogStreamService.openInitialSync("token", SyncFormat.JSON));
+    }
+
+    @Test
+    @DisplayName("openInitialSync: Should cancel the sibling read when one first page fails")
+    void openInitialSync_CancelsSiblingOnFailure() throws Exception {
+        ApiFuture<QuerySnapshot> keywordsFuture = mock(ApiFuture.class);
+        ApiFuture<QuerySnapshot> failing = mock(ApiFuture.class);
+        when(keywordsQuery.get()).thenReturn(keywordsFuture);
+        when(productsQuery.get()).thenReturn(failing);
+        when(failing.get()).thenThrow(new ExecutionException(new RuntimeException("DB Down")));
+
+        assertThrows(ExecutionException.class, () -> catalogStreamService.openInitialSync("token", SyncFormat.JSON));
+
+        // Both reads were issued before waiting on either
+        verify(productsQuery).get();
+        verify(keywordsFuture).cancel(true);
+    }
+
+    @Test
+    @DisplayName("writeTo: Should surface mid-stream Firestore failures as IOException")
+    void writeTo_MidStreamFailure() throws Exception {
+        List<Keyword> fullPage = new ArrayList<>();
+        for (int i = 0; i < CatalogStreamService.PAGE_SIZE; i++) fullPage.add(new Keyword("kw" + i));
+        ApiFuture<QuerySnapshot> firstPage = pageOf(fullPage, Keyword.class);
+        ApiFuture<QuerySnapshot> noProducts = pageOf(List.of(), Product.class);
+        ApiFuture<QuerySnapshot> failing = mock(ApiFuture.class);
+        Query nextQuery = mock(Query.class);
+        when(keywordsQuery.get()).thenReturn(firstPage);
+        when(productsQuery.get()).thenReturn(noProducts);
+        when(keywordsQuery.startAfter(any(DocumentSnapshot.class))).thenReturn(nextQuery);
+        when(nextQuery.get()).thenReturn(failing);
+        when(failing.get()).thenThrow(new ExecutionException(new RuntimeException("DB Down")));
+
+        CatalogStreamService.CatalogStream stream = catalogStreamService.openInitialSync("token", SyncFormat.JSON);
+
+        assertThrows(IOException.class, () -> stream.writeTo(new ByteArrayOutputStream()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> ApiFuture<QuerySnapshot> pageOf(List<T> items, Class<T> type) throws Exception {
+        List<QueryDocumentSnapshot> docs = new ArrayList<>();
+        for (T item : items) {
+            QueryDocumentSnapshot doc = mock(QueryDocumentSnapshot.class);
+            when(doc.toObject(type)).thenReturn(item);
+            docs.add(doc);
+        }
+        QuerySnapshot snapshot = mock(QuerySnapshot.class);
+        when(snapshot.getDocuments()).thenReturn(docs);
+        ApiFuture<QuerySnapshot> future = mock(ApiFuture.class);
+        when(future.get()).thenReturn(snapshot);
+        return future;
+    }
+}
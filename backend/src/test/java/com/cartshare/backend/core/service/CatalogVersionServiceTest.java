@@ -0,0 +1,204 @@
+package com.cartshare.backend.core.service;
+
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import com.google.cloud.Timestamp;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.DocumentReference;
+import com.google.cloud.firestore.DocumentSnapshot;
+import com.google.cloud.firestore.EventListener;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.SetOptions;
+import com.google.cloud.firestore.WriteResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+class CatalogVersionServiceTest {
+
+    private final CatalogVersionService catalogVersionService = new CatalogVersionService(null, null);
+
+    @Test
+    @DisplayName("markChanged: Should bump the version monotonically")
+    void markChanged_BumpsVersion() {
+        long before = catalogVersionService.currentVersion();
+
+        long after = catalogVersionService.markChanged();
+
+        assertThat(after).isEqualTo(before + 1);
+        assertThat(catalogVersionService.currentVersion()).isEqualTo(after);
+    }
+
+    @Test
+    @DisplayName("etag: Should be a quoted strong tag that differs per version and variant")
+    void etag_DiffersPerVersionAndVariant() {
+        String identity = catalogVersionService.etag(1, null);
+        String gzip = catalogVersionService.etag(1, "gzip");
+        String next = catalogVersionService.etag(2, null);
+
+        assertThat(identity).startsWith("\"").endsWith("\"").doesNotStartWith("W/");
+        assertThat(identity).isNotEqualTo(gzip).isNotEqualTo(next);
+    }
+
+    @Test
+    @DisplayName("matches: Should handle lists, weak tags and wildcards")
+    void matches_IfNoneMatchForms() {
+        String etag = catalogVersionService.etag(3, null);
+
+        assertThat(CatalogVersionService.matches(etag, etag)).isTrue();
+        assertThat(CatalogVersionService.matches("\"other\", " + etag, etag)).isTrue();
+        assertThat(CatalogVersionService.matches("W/" + etag, etag)).isTrue();
+        assertThat(CatalogVersionService.matches("*", etag)).isTrue();
+        assertThat(CatalogVersionService.matches("\"other\"", etag)).isFalse();
+        assertThat(CatalogVersionService.matches(null, etag)).isFalse();
+    }
+
+    // ===== SHARED VERSION =====
+
+    private static DocumentSnapshot versionSnapshot(long version) {
+        DocumentSnapshot snapshot = mock(DocumentSnapshot.class);
+        when(snapshot.exists()).thenReturn(true);
+        when(snapshot.getLong(CatalogVersionService.VERSION)).thenReturn(version);
+        when(snapshot.getCreateTime()).thenReturn(Timestamp.ofTimeSecondsAndNanos(1_700_000_000L, 0));
+        return snapshot;
+    }
+
+    private static DocumentReference versionDocument(Firestore firestore) {
+        CollectionReference meta = mock(CollectionReference.class);
+        DocumentReference document = mock(DocumentReference.class);
+        when(firestore.collection(CatalogVersionService.COLLECTION)).thenReturn(meta);
+        when(meta.document(CatalogVersionService.DOCUMENT)).thenReturn(document);
+        return document;
+    }
+
+    @Test
+    @DisplayName("start: Should load the shared version and follow writes made by other replicas")
+    @SuppressWarnings("unchecked")
+    void start_FollowsSharedVersion() {
+        Firestore firestore = mock(Firestore.class);
+        DocumentReference document = versionDocument(firestore);
+        DocumentSnapshot loaded = versionSnapshot(7);
+        when(document.get()).thenReturn(ApiFutures.immediateFuture(loaded));
+        ArgumentCaptor<EventListener<DocumentSnapshot>> listener = ArgumentCaptor.forClass(EventListener.class);
+        CatalogEventPublisher publisher = mock(CatalogEventPublisher.class);
+        CatalogVersionService replica = new CatalogVersionService(firestore, publisher);
+
+        replica.start();
+        verify(document).addSnapshotListener(listener.capture());
+        String before = replica.etag(replica.currentVersion(), null);
+        // Another replica handled a write
+        DocumentSnapshot bumped = versionSnapshot(8);
+        listener.getValue().onEvent(bumped, null);
+
+        assertThat(replica.currentVersion()).isEqualTo(8);
+        assertThat(CatalogVersionService.matches(before, replica.etag(replica.currentVersion(), null))).isFalse();
+        // Clients connected here are told to catch up
+        verify(publisher).catalogChangedElsewhere();
+        // A late event never moves the version back
+        listener.getValue().onEvent(loaded, null);
+        assertThat(replica.currentVersion()).isEqualTo(8);
+        verifyNoMoreInteractions(publisher);
+    }
+
+    @Test
+    @DisplayName("start: Should not announce the replica's own bumps as changes made elsewhere")
+    @SuppressWarnings("unchecked")
+    void start_OwnBumpsNotAnnounced() {
+        Firestore firestore = mock(Firestore.class);
+        DocumentReference document = versionDocument(firestore);
+        when(document.get()).thenReturn(ApiFutures.immediateFuture(versionSnapshot(7)));
+        when(document.set(anyMap(), any(SetOptions.class))).thenReturn(ApiFutures.immediateFuture(null));
+        ArgumentCaptor<EventListener<DocumentSnapshot>> listener = ArgumentCaptor.forClass(EventListener.class);
+        CatalogEventPublisher publisher = mock(CatalogEventPublisher.class);
+        CatalogVersionService replica = new CatalogVersionService(firestore, publisher);
+        replica.start();
+        verify(document).addSnapshotListener(listener.capture());
+
+        replica.markChanged();
+        listener.getValue().onEvent(versionSnapshot(8), null);
+        verifyNoInteractions(publisher);
+
+        // Its own bump and another replica's arrive together
+        replica.markChanged();
+        listener.getValue().onEvent(versionSnapshot(10), null);
+        verify(publisher).catalogChangedElsewhere();
+    }
+
+    @Test
+    @DisplayName("markChanged: Should serve the new version right away and increment the shared document without reading it")
+    @SuppressWarnings("unchecked")
+    void markChanged_IncrementsSharedVersion() {
+        Firestore firestore = mock(Firestore.class);
+        DocumentReference document = versionDocument(firestore);
+        when(document.set(anyMap(), any(SetOptions.class))).thenReturn(ApiFutures.immediateFuture(null));
+        CatalogVersionService replica = new CatalogVersionService(firestore, null);
+
+        long version = replica.markChanged();
+
+        ArgumentCaptor<Map<String, Object>> update = ArgumentCaptor.forClass(Map.class);
+        verify(document).set(update.capture(), any(SetOptions.class));
+        assertThat(update.getValue()).containsOnlyKeys(CatalogVersionService.VERSION);
+        assertThat(version).isEqualTo(1);
+        assertThat(replica.currentVersion()).isEqualTo(1);
+        verify(document, never()).get();
+    }
+
+    @Test
+    @DisplayName("markChanged: Should send bumps made while an increment is in flight as one more write")
+    void markChanged_CoalescesBumps() {
+        Firestore firestore = mock(Firestore.class);
+        DocumentReference document = versionDocument(firestore);
+        SettableApiFuture<WriteResult> first = SettableApiFuture.create();
+        when(document.set(anyMap(), any(SetOptions.class)))
+                .thenReturn(first)
+                .thenReturn(ApiFutures.immediateFuture(null));
+        CatalogVersionService replica = new CatalogVersionService(firestore, null);
+
+        replica.markChanged();
+        replica.markChanged();
+        replica.markChanged();
+        verify(document, times(1)).set(anyMap(), any(SetOptions.class));
+
+        first.set(null);
+
+        verify(document, times(2)).set(anyMap(), any(SetOptions.class));
+        assertThat(replica.currentVersion()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("markChanged: Should not fail the write when the shared bump fails")
+    void markChanged_SharedBumpFails() {
+        Firestore firestore = mock(Firestore.class);
+        DocumentReference document = versionDocument(firestore);
+        when(document.set(anyMap(), any(SetOptions.class)))
+                .thenReturn(ApiFutures.immediateFailedFuture(new RuntimeException("unavailable")));
+        CatalogVersionService replica = new CatalogVersionService(firestore, null);
+
+        assertThat(replica.markChanged()).isEqualTo(1);
+        assertThat(replica.markChanged()).isEqualTo(2);
+        verify(document, times(2)).set(anyMap(), any(SetOptions.class));
+    }
+
+    @Test
+    @DisplayName("etag: Replicas following the same document should produce the same tag")
+    void etag_SameAcrossReplicas() {
+        Firestore firestore = mock(Firestore.class);
+        DocumentReference document = versionDocument(firestore);
+        DocumentSnapshot loaded = versionSnapshot(5);
+        when(document.get()).thenReturn(ApiFutures.immediateFuture(loaded));
+        CatalogVersionService first = new CatalogVersionService(firestore, null);
+        CatalogVersionService second = new CatalogVersionService(firestore, null);
+
+        first.start();
+        second.start();
+
+        assertThat(first.etag(first.currentVersion(), "gzip")).isEqualTo(second.etag(second.currentVersion(), "gzip"));
+    }
+}
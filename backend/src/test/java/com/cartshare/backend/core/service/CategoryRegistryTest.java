@@ -0,0 +1,123 @@
+package com.cartshare.backend.core.service;
+
+import com.google.api.core.ApiFutures;
+import com.google.cloud.firestore.CollectionReference;
+import com.google.cloud.firestore.FieldPath;
+import com.google.cloud.firestore.Firestore;
+import com.google.cloud.firestore.Query;
+import com.google.cloud.firestore.QueryDocumentSnapshot;
+import com.google.cloud.firestore.QuerySnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CategoryRegistryTest {
+
+    @Mock private Firestore firestore;
+    @Mock private CollectionReference categories;
+    @Mock private Query idsQuery;
+    @Mock private QuerySnapshot querySnapshot;
+
+    private CategoryRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        when(firestore.collection("categories")).thenReturn(categories);
+        when(categories.select(any(FieldPath[].class))).thenReturn(idsQuery);
+        when(idsQuery.get()).thenReturn(ApiFutures.immediateFuture(querySnapshot));
+        when(querySnapshot.getDocuments()).thenReturn(List.of());
+
+        registry = new CategoryRegistry(firestore, CategoryRegistry.CATEGORIES_RESOURCE);
+    }
+
+    private static QueryDocumentSnapshot category(String id) {
+        QueryDocumentSnapshot doc = mock(QueryDocumentSnapshot.class);
+        when(doc.getId()).thenReturn(id);
+        return doc;
+    }
+
+    @Test
+    @DisplayName("exists: Should answer workbook categories from memory")
+    void exists_WorkbookCategory() {
+        registry.start();
+
+        assertThat(registry.exists("OUTROS")).isTrue();
+        assertThat(registry.exists("BEBIDAS")).isTrue();
+
+        verify(idsQuery, times(1)).get();
+        verify(categories, never()).document(any());
+    }
+
+    @Test
+    @DisplayName("exists: Should know categories that only exist in Firestore after loading")
+    void exists_FirestoreCategory() {
+        List<QueryDocumentSnapshot> docs = List.of(category("CONGELADOS"));
+        when(querySnapshot.getDocuments()).thenReturn(docs);
+
+        registry.start();
+
+        assertThat(registry.exists("CONGELADOS")).isTrue();
+    }
+
+    @Test
+    @DisplayName("exists: Should reject unknown and blank categories without reading Firestore")
+    void exists_MissingCategory() {
+        registry.start();
+
+        assertThat(registry.exists("NON_EXISTENT")).isFalse();
+        assertThat(registry.exists("NON_EXISTENT")).isFalse();
+        assertThat(registry.exists(" ")).isFalse();
+        assertThat(registry.exists(null)).isFalse();
+
+        verify(idsQuery, times(1)).get();
+        verify(categories, never()).document(any());
+    }
+
+    @Test
+    @DisplayName("start: Should fall back to the workbook when Firestore cannot be listed")
+    void start_FirestoreDown() {
+        when(idsQuery.get()).thenReturn(ApiFutures.immediateFailedFuture(new RuntimeException("unavailable")));
+
+        registry.start();
+
+        assertThat(registry.exists("ALIMENTOS")).isTrue();
+    }
+
+    @Test
+    @DisplayName("refresh: Should pick up categories created since the last load")
+    void refresh_ReloadsIds() {
+        registry.start();
+        assertThat(registry.exists("CONGELADOS")).isFalse();
+
+        List<QueryDocumentSnapshot> docs = List.of(category("CONGELADOS"));
+        when(querySnapshot.getDocuments()).thenReturn(docs);
+        registry.refresh();
+
+        assertThat(registry.exists("CONGELADOS")).isTrue();
+    }
+
+    @Test
+    @DisplayName("refresh: Should keep the known categories when the reload fails")
+    void refresh_FailureKeepsIds() {
+        when(querySnapshot.getDocuments()).thenReturn(List.of(category("CONGELADOS")));
+        registry.start();
+
+        when(idsQuery.get()).thenReturn(ApiFutures.immediateFailedFuture(new RuntimeException("unavailable")));
+        registry.refresh();
+
+        assertThat(registry.exists("CONGELADOS")).isTrue();
+    }
+}
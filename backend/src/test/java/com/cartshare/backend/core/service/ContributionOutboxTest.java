@@ -0,0 +1,307 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.core.model.Contribution;
+import com.cartshare.backend.core.model.Product;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ContributionOutboxTest {
+
+    @Mock private ProductContributionService productContributionService;
+
+    @TempDir Path directory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ContributionOutbox outbox;
+
+    @BeforeEach
+    void setUp() {
+        when(productContributionService.canonicalProductId(anyString()))
+                .thenAnswer(invocation -> ((String) invocation.getArgument(0)).trim().toLowerCase());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        if (outbox != null) outbox.stop();
+    }
+
+    private ContributionOutbox startOutbox() throws Exception {
+        return startOutbox(1000);
+    }
+
+    private ContributionOutbox startOutbox(int compactAfter) throws Exception {
+        outbox = new ContributionOutbox(productContributionService, objectMapper, directory, 2, 10, 100, compactAfter);
+        outbox.start();
+        return outbox;
+    }
+
+    private Contribution awaitFinished(String id) throws InterruptedException {
+        for (int i = 0; i < 200; i++) {
+            Contribution contribution = outbox.status(id).orElseThrow();
+            if (contribution.status() != Contribution.Status.PENDING) return contribution;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Contribution " + id + " still pending");
+    }
+
+    private List<Contribution> logLines() throws Exception {
+        return Files.readAllLines(directory.resolve(ContributionOutbox.LOG_FILE), StandardCharsets.UTF_8).stream()
+                .map(line -> {
+                    try {
+                        return objectMapper.readValue(line, Contribution.class);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .toList();
+    }
+
+    @Test
+    @DisplayName("submit: Should log the contribution before acknowledging and write it in the background")
+    void submit_LogsAndCompletes() throws Exception {
+        when(productContributionService.contributeProduct("Leite", null))
+                .thenReturn(Product.of("leite", "Leite", false, List.of("leite")));
+        startOutbox();
+
+        Contribution accepted = outbox.submit("  Leite ", null, null);
+
+        assertThat(accepted.status()).isEqualTo(Contribution.Status.PENDING);
+        assertThat(accepted.productId()).isEqualTo("leite");
+        assertThat(logLines().getFirst().id()).isEqualTo(accepted.id());
+
+        Contribution finished = awaitFinished(accepted.id());
+        assertThat(finished.status()).isEqualTo(Contribution.Status.COMPLETED);
+        assertThat(finished.attempts()).isEqualTo(1);
+        assertThat(logLines()).extracting(Contribution::status)
+                .containsExactly(Contribution.Status.PENDING, Contribution.Status.COMPLETED);
+        assertThat(outbox.pendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("submit: Should reject invalid names without logging them")
+    void submit_InvalidName() throws Exception {
+        when(productContributionService.canonicalProductId(" ")).thenThrow(new IllegalArgumentException("Product name is required"));
+        startOutbox();
+
+        assertThrows(IllegalArgumentException.class, () -> outbox.submit(" ", null, null));
+
+        assertThat(logLines()).isEmpty();
+        verify(productContributionService, never()).contributeProduct(any(), any());
+    }
+
+    @Test
+    @DisplayName("submit: Should reject an unknown category without logging it")
+    void submit_InvalidCategory() throws Exception {
+        doThrow(new IllegalArgumentException("Category 'NOPE' does not exist"))
+                .when(productContributionService).validateCategoryId("NOPE");
+        startOutbox();
+
+        assertThrows(IllegalArgumentException.class, () -> outbox.submit("Leite", "NOPE", null));
+
+        assertThat(logLines()).isEmpty();
+        assertThat(outbox.pendingCount()).isZero();
+        verify(productContributionService, never()).contributeProduct(any(), any());
+    }
+
+    @Test
+    @DisplayName("submit: Should return the pending contribution for a product already in the outbox")
+    void submit_DeduplicatesPending() throws Exception {
+        when(productContributionService.contributeProduct(anyString(), any())).thenAnswer(invocation -> {
+            Thread.sleep(200);
+            return Product.of("leite", "Leite", false, List.of());
+        });
+        startOutbox();
+
+        Contribution first = outbox.submit("Leite", null, null);
+        Contribution second = outbox.submit("LEITE", null, null);
+
+        assertThat(second.id()).isEqualTo(first.id());
+        awaitFinished(first.id());
+        verify(productContributionService, times(1)).contributeProduct(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("submit: Should return the original contribution for a retry with the same idempotency key")
+    void submit_IdempotencyKey() throws Exception {
+        when(productContributionService.contributeProduct(anyString(), any()))
+                .thenReturn(Product.of("leite", "Leite", false, List.of()));
+        startOutbox();
+
+        Contribution first = outbox.submit("Leite", null, "key-1");
+        awaitFinished(first.id());
+        Contribution retry = outbox.submit("Leite", null, "key-1");
+
+        assertThat(retry.id()).isEqualTo(first.id());
+        assertThat(retry.status()).isEqualTo(Contribution.Status.COMPLETED);
+        verify(productContributionService, times(1)).contributeProduct(anyString(), any());
+        assertThrows(IllegalArgumentException.class, () -> outbox.submit("Pao", null, "key-1"));
+        assertThrows(IllegalArgumentException.class, () -> outbox.submit("Pao", null, " "));
+    }
+
+    @Test
+    @DisplayName("start: Should keep honouring idempotency keys after a restart")
+    void start_ReplaysIdempotencyKeys() throws Exception {
+        when(productContributionService.contributeProduct(anyString(), any()))
+                .thenReturn(Product.of("leite", "Leite", false, List.of()));
+        startOutbox();
+        Contribution first = outbox.submit("Leite", null, "key-1");
+        awaitFinished(first.id());
+        outbox.stop();
+
+        startOutbox();
+
+        assertThat(outbox.submit("Leite", null, "key-1").id()).isEqualTo(first.id());
+    }
+
+    @Test
+    @DisplayName("process: Should mark a contribution failing validation as rejected without retrying")
+    void process_Rejected() throws Exception {
+        when(productContributionService.contributeProduct(anyString(), any()))
+                .thenThrow(new IllegalArgumentException("Product already exists in the system"));
+        startOutbox();
+
+        Contribution finished = awaitFinished(outbox.submit("Leite", null, null).id());
+
+        assertThat(finished.status()).isEqualTo(Contribution.Status.REJECTED);
+        assertThat(finished.error()).isEqualTo("Product already exists in the system");
+        verify(productContributionService, times(1)).contributeProduct(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("process: Should retry transient failures and complete")
+    void process_RetriesTransientFailures() throws Exception {
+        when(productContributionService.contributeProduct(anyString(), any()))
+                .thenThrow(new ExecutionException(new RuntimeException("unavailable")))
+                .thenReturn(Product.of("leite", "Leite", false, List.of()));
+        startOutbox();
+
+        Contribution finished = awaitFinished(outbox.submit("Leite", null, null).id());
+
+        assertThat(finished.status()).isEqualTo(Contribution.Status.COMPLETED);
+        assertThat(finished.attempts()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("process: Should treat a duplicate found by a retry as its own earlier write")
+    void process_RetryFindsOwnWrite() throws Exception {
+        when(productContributionService.contributeProduct(anyString(), any()))
+                .thenThrow(new ExecutionException(new RuntimeException("deadline exceeded")))
+                .thenThrow(new IllegalArgumentException("Product already exists in the system"));
+        when(productContributionService.productExists("Leite")).thenReturn(true);
+        startOutbox();
+
+        Contribution finished = awaitFinished(outbox.submit("Leite", null, null).id());
+
+        assertThat(finished.status()).isEqualTo(Contribution.Status.COMPLETED);
+    }
+
+    @Test
+    @DisplayName("process: Should fail a contribution whose existence check fails, so it is not left pending")
+    void process_ExistenceCheckFails() throws Exception {
+        when(productContributionService.contributeProduct(anyString(), any()))
+                .thenThrow(new ExecutionException(new RuntimeException("deadline exceeded")))
+                .thenThrow(new IllegalArgumentException("Product already exists in the system"));
+        when(productContributionService.productExists("Leite"))
+                .thenThrow(new ExecutionException(new RuntimeException("unavailable")));
+        startOutbox();
+
+        Contribution finished = awaitFinished(outbox.submit("Leite", null, null).id());
+
+        assertThat(finished.status()).isEqualTo(Contribution.Status.FAILED);
+        assertThat(outbox.pendingCount()).isZero();
+        assertThat(logLines().getLast().status()).isEqualTo(Contribution.Status.FAILED);
+        assertThat(outbox.submit("Leite", null, null).id()).isNotEqualTo(finished.id());
+    }
+
+    @Test
+    @DisplayName("finish: Should compact the log once enough lines are superseded, and keep appending to it")
+    void finish_CompactsLog() throws Exception {
+        when(productContributionService.contributeProduct(anyString(), any()))
+                .thenReturn(Product.of("leite", "Leite", false, List.of()));
+        startOutbox(2);
+
+        Contribution first = awaitFinished(outbox.submit("Leite", null, null).id());
+        Contribution second = awaitFinished(outbox.submit("Pao", null, null).id());
+
+        assertThat(logLines()).extracting(Contribution::id).containsExactly(first.id(), second.id());
+        assertThat(logLines()).extracting(Contribution::status)
+                .containsOnly(Contribution.Status.COMPLETED);
+
+        Contribution third = awaitFinished(outbox.submit("Arroz", null, null).id());
+        assertThat(logLines()).extracting(Contribution::id)
+                .containsExactly(first.id(), second.id(), third.id(), third.id());
+    }
+
+    @Test
+    @DisplayName("process: Should give up after the maximum number of attempts")
+    void process_Failed() throws Exception {
+        when(productContributionService.contributeProduct(anyString(), any()))
+                .thenThrow(new ExecutionException(new RuntimeException("unavailable")));
+        startOutbox();
+
+        Contribution finished = awaitFinished(outbox.submit("Leite", null, null).id());
+
+        assertThat(finished.status()).isEqualTo(Contribution.Status.FAILED);
+        assertThat(finished.attempts()).isEqualTo(ContributionOutbox.MAX_ATTEMPTS);
+        verify(productContributionService, times(ContributionOutbox.MAX_ATTEMPTS)).contributeProduct(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("start: Should resume contributions left pending by a crash and skip finished ones")
+    void start_ReplaysPendingContributions() throws Exception {
+        Contribution pending = Contribution.accepted("c-1", "Leite", null, "leite", null, 1L);
+        Contribution done = Contribution.accepted("c-2", "Pao", null, "pao", null, 1L);
+        Files.writeString(directory.resolve(ContributionOutbox.LOG_FILE),
+                objectMapper.writeValueAsString(pending) + "\n"
+                        + objectMapper.writeValueAsString(done) + "\n"
+                        + objectMapper.writeValueAsString(done.finished(Contribution.Status.COMPLETED, 1, null, 2L)) + "\n"
+                        + "{\"id\":\"c-3\",\"produ", StandardCharsets.UTF_8);
+        when(productContributionService.contributeProduct("Leite", null))
+                .thenReturn(Product.of("leite", "Leite", false, List.of()));
+
+        startOutbox();
+
+        assertThat(awaitFinished("c-1").status()).isEqualTo(Contribution.Status.COMPLETED);
+        assertThat(outbox.status("c-2")).get().extracting(Contribution::status).isEqualTo(Contribution.Status.COMPLETED);
+        assertThat(outbox.status("c-3")).isEmpty();
+        verify(productContributionService, never()).contributeProduct(eq("Pao"), any());
+    }
+
+    @Test
+    @DisplayName("start: Should complete a recovered contribution whose product was already written")
+    void start_RecoveredAlreadyWritten() throws Exception {
+        Contribution pending = Contribution.accepted("c-1", "Leite", null, "leite", null, 1L);
+        Files.writeString(directory.resolve(ContributionOutbox.LOG_FILE),
+                objectMapper.writeValueAsString(pending) + "\n", StandardCharsets.UTF_8);
+        when(productContributionService.contributeProduct(anyString(), any()))
+                .thenThrow(new IllegalArgumentException("Product already exists in the system"));
+        when(productContributionService.productExists("Leite")).thenReturn(true);
+
+        startOutbox();
+
+        assertThat(awaitFinished("c-1").status()).isEqualTo(Contribution.Status.COMPLETED);
+    }
+}
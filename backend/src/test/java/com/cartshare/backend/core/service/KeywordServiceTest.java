@@ -11,9 +11,11 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
@@ -27,11 +29,10 @@ class KeywordServiceTest {
     @Mock private Firestore firestore;
     @Mock private CollectionReference collectionReference;
     @Mock private DocumentReference documentReference;
-    @Mock private DocumentSnapshot documentSnapshot;
-    @Mock private ApiFuture<DocumentSnapshot> futureDocumentSnapshot;
     @Mock private ApiFuture<QuerySnapshot> futureQuerySnapshot;
-    @Mock private ApiFuture<WriteResult> futureWriteResult;
     @Mock private QuerySnapshot querySnapshot;
+    @Mock private CatalogEventPublisher catalogEventPublisher;
+    @Mock private CatalogCounters catalogCounters;
 
     @InjectMocks
     private KeywordService keywordService;
@@ -43,68 +44,104 @@ class KeywordServiceTest {
         lenient().when(collectionReference.document(anyString())).thenReturn(documentReference);
     }
 
-    // ===== CREATE KEYWORDS FOR PRODUCT =====
+    // ===== PENDING KEYWORDS =====
 
     @Test
-    @DisplayName("createKeywordsForProduct: Should create keywords if they don't exist")
-    void shouldCreateKeywordsForProduct() throws Exception {
-        List<String> searchKeywords = List.of("Arroz", "Agulhão");
-
-        when(documentReference.get()).thenReturn(futureDocumentSnapshot);
-        when(futureDocumentSnapshot.get()).thenReturn(documentSnapshot);
-        when(documentSnapshot.exists()).thenReturn(false); // None exist
-        when(documentReference.set(any(Keyword.class))).thenReturn(futureWriteResult);
-        when(futureWriteResult.get()).thenReturn(mock(WriteResult.class));
-
-        keywordService.createKeywordsForProduct("Product Test", searchKeywords);
-
-        // Verify sanitized IDs: "Arroz" -> "arroz", "Agulhão" -> "agulhao"
-        verify(collectionReference).document("arroz");
-        verify(collectionReference).document("agulhao");
-        verify(documentReference, times(2)).set(any(Keyword.class));
+    @DisplayName("pendingKeywords: Should key keywords by sanitized document ID and claim them")
+    void shouldKeyPendingKeywordsBySafeId() throws Exception {
+        KeywordService.PendingKeywords pending = keywordService.pendingKeywords(List.of("Arroz", "Agulhão"));
+
+        assertThat(pending.keywordsById()).containsExactly(
+                Map.entry("arroz", "Arroz"), Map.entry("agulhao", "Agulhão"));
+        assertThat(pending.claimed()).containsExactly("arroz", "agulhao");
+        verifyNoInteractions(firestore);
     }
 
     @Test
-    @DisplayName("createKeywordsForProduct: Should skip existing keywords")
-    void shouldSkipExistingKeywords() throws Exception {
-        List<String> searchKeywords = List.of("cafe", "novo");
-
-        // We create specific mocks to avoid conflicting with the 'anyString' default if needed
-        DocumentReference docRefCafe = mock(DocumentReference.class);
-        DocumentReference docRefNovo = mock(DocumentReference.class);
-        DocumentSnapshot snapCafe = mock(DocumentSnapshot.class);
-        DocumentSnapshot snapNovo = mock(DocumentSnapshot.class);
-        ApiFuture<DocumentSnapshot> futureCafe = mock(ApiFuture.class);
-        ApiFuture<DocumentSnapshot> futureNovo = mock(ApiFuture.class);
-
-        when(collectionReference.document("cafe")).thenReturn(docRefCafe);
-        when(collectionReference.document("novo")).thenReturn(docRefNovo);
-
-        // "cafe" exists
-        when(docRefCafe.get()).thenReturn(futureCafe);
-        when(futureCafe.get()).thenReturn(snapCafe);
-        when(snapCafe.exists()).thenReturn(true);
-
-        // "novo" does not exist
-        when(docRefNovo.get()).thenReturn(futureNovo);
-        when(futureNovo.get()).thenReturn(snapNovo);
-        when(snapNovo.exists()).thenReturn(false);
-        when(docRefNovo.set(any(Keyword.class))).thenReturn(futureWriteResult);
-
-        keywordService.createKeywordsForProduct("Coffee", searchKeywords);
-
-        verify(docRefCafe, never()).set(any());
-        verify(docRefNovo, times(1)).set(any(Keyword.class));
+    @DisplayName("Normalization: Different variations of a word should point to the same Document ID")
+    void shouldNormalizeKeywordsToSameId() throws Exception {
+        KeywordService.PendingKeywords pending = keywordService.pendingKeywords(List.of("Maçã", "maca", "MAÇÃ "));
+
+        assertThat(pending.keywordsById()).containsOnlyKeys("maca");
+    }
+
+    @Test
+    @DisplayName("pendingKeywords: Should skip keywords a committed write already created")
+    void shouldSkipKnownKeywords() throws Exception {
+        KeywordService.PendingKeywords first = keywordService.pendingKeywords(List.of("cafe"));
+        keywordService.keywordsWritten(first, Map.of());
+
+        KeywordService.PendingKeywords second = keywordService.pendingKeywords(List.of("cafe", "novo"));
+
+        assertThat(second.keywordsById()).containsOnlyKeys("novo");
+    }
+
+    @Test
+    @DisplayName("keywordsExist: Keywords loaded at warmup should need no write or read")
+    void shouldSkipKeywordsLoadedAtWarmup() throws Exception {
+        keywordService.keywordsExist(List.of("arroz", "leite"));
+
+        KeywordService.PendingKeywords pending = keywordService.pendingKeywords(List.of("Arroz", "leite", "1kg"));
+
+        assertThat(pending.keywordsById()).containsOnlyKeys("1kg");
+        assertThat(pending.claimed()).containsExactly("1kg");
+        assertThat(keywordService.knownKeywordCount()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("pendingKeywords: Should wait for a concurrent write of the same keyword instead of repeating it")
+    void shouldCoalesceConcurrentKeywordWrites() throws Exception {
+        KeywordService.PendingKeywords first = keywordService.pendingKeywords(List.of("leite"));
+
+        CompletableFuture<KeywordService.PendingKeywords> second = CompletableFuture.supplyAsync(() -> {
+            try {
+                return keywordService.pendingKeywords(List.of("leite", "magro"));
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        keywordService.keywordsWritten(first, Map.of("leite", new Keyword("leite")));
+
+        KeywordService.PendingKeywords pending = second.get(5, TimeUnit.SECONDS);
+        assertThat(pending.keywordsById()).containsOnlyKeys("magro");
+        assertThat(pending.claimed()).containsExactly("magro");
+    }
+
+    @Test
+    @DisplayName("keywordsFailed: Should release claims so the keyword is written again")
+    void shouldReleaseClaimsOnFailure() throws Exception {
+        KeywordService.PendingKeywords first = keywordService.pendingKeywords(List.of("leite"));
+        keywordService.keywordsFailed(first, new RuntimeException("unavailable"));
+
+        KeywordService.PendingKeywords second = keywordService.pendingKeywords(List.of("leite"));
+
+        assertThat(first.done()).isCompletedExceptionally();
+        assertThat(second.keywordsById()).containsOnlyKeys("leite");
+        assertThat(second.claimed()).containsExactly("leite");
+        verifyNoInteractions(catalogEventPublisher, catalogCounters);
+    }
+
+    @Test
+    @DisplayName("keywordsWritten: Should announce and count only the keywords actually created")
+    void shouldAnnounceCreatedKeywords() throws Exception {
+        KeywordService.PendingKeywords pending = keywordService.pendingKeywords(List.of("arroz", "agulhao"));
+
+        keywordService.keywordsWritten(pending, Map.of("agulhao", new Keyword("agulhao")));
+
+        assertThat(pending.done()).isCompleted();
+        verify(catalogEventPublisher).keywordCreated(eq("agulhao"), any(Keyword.class));
+        verify(catalogEventPublisher, never()).keywordCreated(eq("arroz"), any(Keyword.class));
+        verify(catalogCounters, times(1)).keywordAdded();
     }
 
     @Test
-    @DisplayName("createKeywordsForProduct: Should handle Firestore exceptions gracefully")
-    void shouldHandleFirestoreExceptionGracefully() {
-        when(collectionReference.document(anyString())).thenThrow(new RuntimeException("DB Down"));
+    @DisplayName("keywordsWritten: Should announce nothing when nothing was created")
+    void shouldNotAnnounceWithoutCreatedKeywords() throws Exception {
+        KeywordService.PendingKeywords pending = keywordService.pendingKeywords(List.of("arroz"));
+
+        keywordService.keywordsWritten(pending, Map.of());
 
-        assertDoesNotThrow(() ->
-                keywordService.createKeywordsForProduct("Test", List.of("kw"))
-        );
+        verifyNoInteractions(catalogEventPublisher, catalogCounters);
     }
 
     // ===== GET ALL KEYWORDS =====
@@ -128,49 +165,19 @@ class KeywordServiceTest {
     @Test
     @DisplayName("getKeywordCount: Should return correct keyword count")
     void getKeywordCount_Success() throws Exception {
-        int expectedCount = 15;
-        when(collectionReference.get()).thenReturn(futureQuerySnapshot);
-        when(futureQuerySnapshot.get()).thenReturn(querySnapshot);
-        when(querySnapshot.size()).thenReturn(expectedCount);
+        when(catalogCounters.get()).thenReturn(new CatalogCounters.Counts(0, 0, 15));
 
         long result = keywordService.getKeywordCount();
 
         assertThat(result).isEqualTo(15L);
+        verify(collectionReference, never()).get();
     }
 
     @Test
     @DisplayName("getKeywordCount: Should throw ExecutionException when Firestore fails")
     void getKeywordCount_FirestoreExecutionException() throws Exception {
-        when(collectionReference.get()).thenReturn(futureQuerySnapshot);
-        when(futureQuerySnapshot.get()).thenThrow(new ExecutionException("Error", new RuntimeException()));
+        when(catalogCounters.get()).thenThrow(new ExecutionException("Error", new RuntimeException()));
 
         assertThrows(ExecutionException.class, () -> keywordService.getKeywordCount());
     }
-
-    // =========== NORMALIZATION ================
-    @Test
-    @DisplayName("Normalization: Different variations of a word should point to the same Document ID")
-    void shouldNormalizeKeywordsToSameId() throws Exception {
-        // Arrange: Three variations of the same word
-        List<String> variations = List.of("Maçã", "maca", "MAÇÃ ");
-
-        when(documentReference.get()).thenReturn(futureDocumentSnapshot);
-        when(futureDocumentSnapshot.get()).thenReturn(documentSnapshot);
-
-        // Simulate they don't exist yet
-        when(documentSnapshot.exists()).thenReturn(false);
-        when(documentReference.set(any(Keyword.class))).thenReturn(futureWriteResult);
-        when(futureWriteResult.get()).thenReturn(mock(WriteResult.class));
-
-        // Act
-        keywordService.createKeywordsForProduct("Fruit", variations);
-
-        // Assert: All three variations should result in "maca"
-        // verify(..., times(3)) because the service calls document() for each iteration
-        verify(collectionReference, times(3)).document("maca");
-
-        // Verify it only attempted to set the data if it didn't exist
-        // (Note: In a real scenario with the first call, it would exist for the 2nd/3rd call,
-        // but here we are testing the ID mapping logic specifically).
-    }
-}
\ No newline at end of file
+}
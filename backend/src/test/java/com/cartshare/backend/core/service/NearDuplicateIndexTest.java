@@ -0,0 +1,92 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.core.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class NearDuplicateIndexTest {
+
+    private NearDuplicateIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new NearDuplicateIndex(0.8, true);
+        index.rebuild(List.of(
+                Product.of("arroz-agulha-1kg", "Arroz Agulha 1kg", true, List.of()),
+                Product.of("leite-meio-gordo", "Leite Meio Gordo", true, List.of()),
+                Product.of("pao", "Pão", true, List.of())
+        ));
+    }
+
+    @Test
+    @DisplayName("closest: Should find a name that only differs in spacing, case or accents")
+    void closest_SpacingAndAccents() {
+        assertThat(index.closest("arroz agulha 1 kg", "arroz-agulha-1-kg"))
+                .get()
+                .satisfies(match -> {
+                    assertThat(match.productId()).isEqualTo("arroz-agulha-1kg");
+                    assertThat(match.similarity()).isEqualTo(1.0);
+                });
+        assertThat(index.closest("LEITE MEIO-GORDO", "leite-meio-gordo-x")).isPresent();
+    }
+
+    @Test
+    @DisplayName("closest: Should find a small typo above the threshold")
+    void closest_Typo() {
+        assertThat(index.closest("Leite Meio Gordos", "leite-meio-gordos"))
+                .get()
+                .extracting(NearDuplicateIndex.Match::productId)
+                .isEqualTo("leite-meio-gordo");
+    }
+
+    @Test
+    @DisplayName("closest: Should not match different products or the product itself")
+    void closest_NoMatch() {
+        assertThat(index.closest("Arroz Agulha 5kg", "arroz-agulha-5kg")).isEmpty();
+        assertThat(index.closest("Feijão Preto", "feijao-preto")).isEmpty();
+        assertThat(index.closest("Arroz Agulha 1kg", "arroz-agulha-1kg")).isEmpty();
+        assertThat(index.closest("!!!", "")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("closest: Should accept another size of a product, however similar the names")
+    void closest_SizeVariant() {
+        index.add(Product.of("leite-meio-gordo-1l", "Leite Meio-Gordo 1L", true, List.of()));
+
+        assertThat(index.closest("Leite Meio-Gordo 1,5L", "leite-meio-gordo-1-5l")).isEmpty();
+        assertThat(index.closest("Leite Meio Gordo 1 L", "leite-meio-gordo-1-l")).isPresent();
+    }
+
+    @Test
+    @DisplayName("numbers: Should extract the numbers of a name in order")
+    void numbers() {
+        assertThat(NearDuplicateIndex.numbers("Leite 1,5L")).containsExactly("1", "5");
+        assertThat(NearDuplicateIndex.numbers("Pilhas AA")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("add: Should make a new product a candidate immediately; rebuild should replace everything")
+    void add_AndRebuild() {
+        index.add(Product.of("azeite-virgem-extra", "Azeite Virgem Extra", false, List.of()));
+        assertThat(index.closest("azeite virgem-extr", "azeite-virgem-extr")).isPresent();
+        assertThat(index.size()).isEqualTo(4);
+
+        index.rebuild(List.of());
+
+        assertThat(index.size()).isZero();
+        assertThat(index.closest("Arroz Agulha 1 kg", "arroz-agulha-1-kg")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("shingles: Should ignore separators and keep very short names whole")
+    void shingles() {
+        assertThat(NearDuplicateIndex.shingles("1 kg")).isEqualTo(NearDuplicateIndex.shingles("1KG"));
+        assertThat(NearDuplicateIndex.shingles("Pão")).containsExactly("pao");
+        assertThat(NearDuplicateIndex.shingles(" - ")).isEmpty();
+    }
+}
@@ -0,0 +1,113 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.core.model.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProductCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000);
+    private final AtomicInteger loads = new AtomicInteger();
+    private ProductCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductCache(2, 10_000, 1_000, now::get);
+    }
+
+    private ProductCache.ProductLoader loading(Product product) {
+        return id -> {
+            loads.incrementAndGet();
+            return product;
+        };
+    }
+
+    private static Product product(String id) {
+        return Product.of(id, id, false, List.of());
+    }
+
+    @Test
+    @DisplayName("get: Should load once and answer later lookups from memory")
+    void get_ReadThrough() throws Exception {
+        Product leite = product("leite");
+
+        assertThat(cache.get("leite", loading(leite))).isEqualTo(leite);
+        assertThat(cache.get("leite", loading(leite))).isEqualTo(leite);
+
+        assertThat(loads).hasValue(1);
+        assertThat(cache.stats()).containsEntry("hits", 1L).containsEntry("misses", 1L);
+    }
+
+    @Test
+    @DisplayName("get: Should cache missing products for the shorter negative TTL")
+    void get_NegativeEntries() throws Exception {
+        assertThat(cache.get("leite", loading(null))).isNull();
+        assertThat(cache.get("leite", loading(null))).isNull();
+        assertThat(loads).hasValue(1);
+
+        now.addAndGet(1_000);
+        assertThat(cache.get("leite", loading(product("leite")))).isNotNull();
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("get: Should reload products after the TTL")
+    void get_Expires() throws Exception {
+        cache.get("leite", loading(product("leite")));
+
+        now.addAndGet(9_999);
+        cache.get("leite", loading(product("leite")));
+        assertThat(loads).hasValue(1);
+
+        now.addAndGet(1);
+        cache.get("leite", loading(product("leite")));
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("get: Should evict the least recently used product past the maximum size")
+    void get_EvictsLeastRecentlyUsed() throws Exception {
+        cache.get("leite", loading(product("leite")));
+        cache.get("pao", loading(product("pao")));
+        cache.get("leite", loading(product("leite")));
+        cache.get("arroz", loading(product("arroz")));
+
+        assertThat(cache.stats()).containsEntry("size", 2);
+        cache.get("leite", loading(product("leite")));
+        assertThat(loads).hasValue(3);
+        cache.get("pao", loading(product("pao")));
+        assertThat(loads).hasValue(4);
+    }
+
+    @Test
+    @DisplayName("put: Should replace a negative entry with the written product")
+    void put_ReplacesNegativeEntry() throws Exception {
+        cache.get("leite", loading(null));
+
+        cache.put(product("leite"));
+
+        assertThat(cache.get("leite", loading(null))).isEqualTo(product("leite"));
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("invalidateAll: Should forget every entry and drop loads that raced it")
+    void invalidateAll() throws Exception {
+        cache.get("leite", loading(product("leite")));
+        cache.get("pao", id -> {
+            cache.invalidateAll();
+            return product("pao");
+        });
+
+        assertThat(cache.stats()).containsEntry("size", 0);
+        cache.get("leite", loading(product("leite")));
+        assertThat(loads).hasValue(2);
+    }
+}
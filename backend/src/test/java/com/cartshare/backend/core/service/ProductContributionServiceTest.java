@@ -1,9 +1,17 @@
 package com.cartshare.backend.core.service;
 
+import com.cartshare.backend.core.model.ContributionResult;
+import com.cartshare.backend.core.model.Keyword;
 import com.cartshare.backend.core.model.Product;
+import com.cartshare.backend.core.model.ProductPage;
+import com.cartshare.backend.core.model.ProductProjectionPage;
 import com.cartshare.backend.infrastructure.excel.FirestoreExcelImporter;
 import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutures;
+import com.google.api.gax.grpc.GrpcStatusCode;
+import com.google.api.gax.rpc.AlreadyExistsException;
 import com.google.cloud.firestore.*;
+import io.grpc.Status;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -14,10 +22,16 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
@@ -27,6 +41,7 @@ class ProductContributionServiceTest {
     @Mock private Firestore firestore;
     @Mock private FirestoreExcelImporter importer;
     @Mock private AutocompleteService autocompleteService;
+    @Mock private AutocompleteRebuildScheduler autocompleteRebuildScheduler;
     @Mock private KeywordService keywordService;
     @Mock private CollectionReference productsCollection;
     @Mock private CollectionReference keywordsCollection;
@@ -37,16 +52,50 @@ class ProductContributionServiceTest {
     @Mock private ApiFuture<DocumentSnapshot> futureDocumentSnapshot;
     @Mock private DocumentSnapshot documentSnapshot;
     @Mock private ApiFuture<WriteResult> futureWrite;
+    @Mock private CatalogVersionService catalogVersionService;
+    @Mock private CatalogEventPublisher catalogEventPublisher;
+    @Mock private CatalogCounters catalogCounters;
+    @Mock private CategoryRegistry categoryRegistry;
+    @Mock private ProductCache productCache;
+    @Mock private NearDuplicateIndex nearDuplicateIndex;
+    @Mock private Transaction transaction;
+    @Mock private DocumentReference keywordReference;
+    @Mock private DocumentSnapshot absent;
+    @Mock private DocumentSnapshot present;
     @InjectMocks private ProductContributionService contributionService;
+
+    private KeywordService.PendingKeywords pending;
+
     @BeforeEach
+    @SuppressWarnings("unchecked")
     void setUp() throws Exception {
         doReturn(productsCollection).when(firestore).collection("products");
         doReturn(keywordsCollection).when(firestore).collection("keywords");
         doReturn(documentReference).when(productsCollection).document(anyString());
+        doReturn(keywordReference).when(keywordsCollection).document(anyString());
         doReturn(query).when(productsCollection).whereEqualTo(anyString(), any());
         when(productsCollection.get()).thenReturn(futureQuerySnapshot);
         when(keywordsCollection.get()).thenReturn(futureQuerySnapshot);
         when(futureQuerySnapshot.get()).thenReturn(querySnapshot);
+
+        // By default nothing exists yet: one absent snapshot per requested reference
+        when(absent.exists()).thenReturn(false);
+        when(present.exists()).thenReturn(true);
+        when(transaction.getAll(any(DocumentReference[].class))).thenAnswer(invocation ->
+                ApiFutures.immediateFuture(java.util.Collections.nCopies(invocation.getArguments().length, absent)));
+        when(firestore.runTransaction(any(Transaction.Function.class))).thenAnswer(invocation -> {
+            Transaction.Function<Object> function = (Transaction.Function<Object>) invocation.getArgument(0);
+            return ApiFutures.immediateFuture(function.updateCallback(transaction));
+        });
+
+        pending = pendingKeywords();
+        when(keywordService.pendingKeywords(anyList())).thenReturn(pending);
+    }
+
+    private static KeywordService.PendingKeywords pendingKeywords(String... keywords) {
+        Map<String, String> byId = new java.util.LinkedHashMap<>();
+        for (String keyword : keywords) byId.put(keyword, keyword);
+        return new KeywordService.PendingKeywords(byId, List.of(keywords), new CompletableFuture<>());
     }
 
     @Test
@@ -54,43 +103,186 @@ class ProductContributionServiceTest {
     void contributeProduct_Success() throws Exception {
         String productName = "Apple iPhone";
         List<String> keywords = List.of("apple", "iphone");
-        when(query.get()).thenReturn(futureQuerySnapshot);
-        when(querySnapshot.isEmpty()).thenReturn(true);
+        KeywordService.PendingKeywords appleKeywords = pendingKeywords("apple", "iphone");
         when(importer.generateSearchKeywords(productName)).thenReturn(keywords);
-        when(documentReference.set(any(Product.class))).thenReturn(futureWrite);
+        when(keywordService.pendingKeywords(keywords)).thenReturn(appleKeywords);
         Product result = contributionService.contributeProduct(productName, null);
         assertThat(result.productName()).isEqualTo(productName);
+        assertThat(result.id()).isEqualTo("apple-iphone");
         assertThat(result.isOfficial()).isFalse();
-        verify(keywordService).createKeywordsForProduct(eq(productName), eq(keywords));
-        verify(autocompleteService).indexUpdate(anyList(), anyList());
+        verify(productsCollection).document("apple-iphone");
+        verify(productsCollection, never()).whereEqualTo(eq("productName"), any());
+
+        // Product and both keywords are created in the same transaction
+        verify(firestore, times(1)).runTransaction(any(Transaction.Function.class));
+        verify(transaction).create(documentReference, result);
+        verify(transaction, times(2)).create(eq(keywordReference), any(Keyword.class));
+        verify(keywordService).keywordsWritten(eq(appleKeywords), argThat(created -> created.keySet().equals(java.util.Set.of("apple", "iphone"))));
+        verify(documentReference, never()).create(any(Product.class));
+        verify(autocompleteRebuildScheduler).requestRebuild();
+        verify(autocompleteService, never()).indexUpdate(any(), any());
+        verify(productCache).put(result);
+        verify(nearDuplicateIndex).add(result);
+        verify(catalogEventPublisher).productCreated(result);
+        verify(catalogCounters).productAdded(false);
+    }
+
+    @Test
+    @DisplayName("contributeProduct: Concurrent contributions of the same name should share one write")
+    void contributeProduct_SingleFlight() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(importer.generateSearchKeywords(anyString())).thenReturn(List.of("leite"));
+        when(transaction.getAll(any(DocumentReference[].class))).thenAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return ApiFutures.immediateFuture(java.util.Collections.nCopies(invocation.getArguments().length, absent));
+        });
+
+        CompletableFuture<Product> first = CompletableFuture.supplyAsync(() -> contribute("Leite Meio Gordo"));
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<Product> second = CompletableFuture.supplyAsync(() -> contribute("leite meio-gordo"));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThat(second.get(5, TimeUnit.SECONDS)).isSameAs(first.get(5, TimeUnit.SECONDS));
+        verify(firestore, times(1)).runTransaction(any(Transaction.Function.class));
+        verify(catalogCounters, times(1)).productAdded(false);
+    }
+
+    @Test
+    @DisplayName("contributeProduct: A contribution after the first one finished should not share its result")
+    void contributeProduct_SingleFlightReleased() throws Exception {
+        when(importer.generateSearchKeywords(anyString())).thenReturn(List.of("leite"));
+        contributionService.contributeProduct("Leite", null);
+
+        when(transaction.getAll(any(DocumentReference[].class)))
+                .thenReturn(ApiFutures.immediateFuture(List.of(present, present)));
+        assertThrows(IllegalArgumentException.class, () -> contributionService.contributeProduct("Leite", null));
+        verify(firestore, times(2)).runTransaction(any(Transaction.Function.class));
+    }
+
+    private Product contribute(String productName) {
+        try {
+            return contributionService.contributeProduct(productName, null);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
     }
 
     @Test
     @DisplayName("contributeProduct: Should throw exception if product already exists")
     void contributeProduct_AlreadyExists() throws Exception {
-        when(query.get()).thenReturn(futureQuerySnapshot);
-        when(querySnapshot.isEmpty()).thenReturn(false);
+        when(importer.generateSearchKeywords(anyString())).thenReturn(List.of("existing"));
+        when(transaction.getAll(any(DocumentReference[].class)))
+                .thenReturn(ApiFutures.immediateFuture(List.of(present)));
         assertThrows(IllegalArgumentException.class, () ->
                 contributionService.contributeProduct("Existing Product", null)
         );
+        verify(transaction, never()).create(any(DocumentReference.class), any(Object.class));
+        verify(keywordService).keywordsFailed(eq(pending), any());
+        verify(keywordService, never()).keywordsWritten(any(), any());
+        verify(catalogCounters, never()).productAdded(anyBoolean());
+    }
+
+    @Test
+    @DisplayName("contributeProduct: Should reject a near duplicate of an existing product before any write")
+    void contributeProduct_NearDuplicateRejected() throws Exception {
+        when(nearDuplicateIndex.closest("arroz agulha 1 kg", "arroz-agulha-1-kg"))
+                .thenReturn(Optional.of(new NearDuplicateIndex.Match("arroz-agulha-1kg", "arroz agulha 1kg", 1.0)));
+        when(nearDuplicateIndex.rejects()).thenReturn(true);
+
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class, () ->
+                contributionService.contributeProduct("arroz agulha 1 kg", null));
+
+        assertThat(error.getMessage()).contains("arroz agulha 1kg");
+        verify(firestore, never()).runTransaction(any(Transaction.Function.class));
+        verify(keywordService, never()).pendingKeywords(any());
+    }
+
+    @Test
+    @DisplayName("contributeProduct: Should only warn about a near duplicate when rejection is off")
+    void contributeProduct_NearDuplicateWarned() throws Exception {
+        when(importer.generateSearchKeywords(anyString())).thenReturn(List.of("arroz"));
+        when(nearDuplicateIndex.closest(anyString(), anyString()))
+                .thenReturn(Optional.of(new NearDuplicateIndex.Match("arroz-agulha-1kg", "arroz agulha 1kg", 1.0)));
+        when(nearDuplicateIndex.rejects()).thenReturn(false);
+
+        Product result = contributionService.contributeProduct("arroz agulha 1 kg", null);
+
+        assertThat(result.id()).isEqualTo("arroz-agulha-1-kg");
+        verify(nearDuplicateIndex).add(result);
+    }
+
+    @Test
+    @DisplayName("contributeProduct: Should map a concurrent ALREADY_EXISTS commit to the duplicate error")
+    void contributeProduct_AlreadyExistsOnCommit() throws Exception {
+        when(importer.generateSearchKeywords(anyString())).thenReturn(List.of("leite"));
+        when(firestore.runTransaction(any(Transaction.Function.class))).thenReturn(ApiFutures.immediateFailedFuture(
+                new AlreadyExistsException(new RuntimeException("exists"), GrpcStatusCode.of(Status.Code.ALREADY_EXISTS), false)));
+        assertThrows(IllegalArgumentException.class, () ->
+                contributionService.contributeProduct("Leite", null)
+        );
+        verify(keywordService).keywordsFailed(eq(pending), any());
+    }
+
+    @Test
+    @DisplayName("contributeProduct: Should only create the keywords that do not exist yet")
+    void contributeProduct_SkipsExistingKeywords() throws Exception {
+        KeywordService.PendingKeywords milkKeywords = pendingKeywords("leite", "magro");
+        when(importer.generateSearchKeywords(anyString())).thenReturn(List.of("leite", "magro"));
+        when(keywordService.pendingKeywords(anyList())).thenReturn(milkKeywords);
+        when(transaction.getAll(any(DocumentReference[].class)))
+                .thenReturn(ApiFutures.immediateFuture(List.of(absent, present, absent)));
+
+        contributionService.contributeProduct("Leite Magro", null);
+
+        verify(transaction, times(1)).create(eq(keywordReference), any(Keyword.class));
+        verify(keywordService).keywordsWritten(eq(milkKeywords), argThat(created -> created.keySet().equals(java.util.Set.of("magro"))));
+    }
+
+    @Test
+    @DisplayName("contributeProduct: Should propagate other Firestore write failures and release keyword claims")
+    void contributeProduct_WriteFailure() throws Exception {
+        when(importer.generateSearchKeywords(anyString())).thenReturn(List.of("leite"));
+        when(firestore.runTransaction(any(Transaction.Function.class)))
+                .thenReturn(ApiFutures.immediateFailedFuture(new RuntimeException("unavailable")));
+        assertThrows(ExecutionException.class, () ->
+                contributionService.contributeProduct("Leite", null)
+        );
+        verify(keywordService).keywordsFailed(eq(pending), any());
+    }
+
+    @Test
+    @DisplayName("contributeProduct: Should reject names without letters or digits")
+    void contributeProduct_NoCanonicalId() {
+        assertThrows(IllegalArgumentException.class, () ->
+                contributionService.contributeProduct("!!!", null)
+        );
+        verifyNoInteractions(importer);
+    }
+
+    @Test
+    @DisplayName("productExists: Should be a single get by canonical ID, ignoring case and accents")
+    void productExists_GetByCanonicalId() throws Exception {
+        when(documentReference.get()).thenReturn(futureDocumentSnapshot);
+        when(futureDocumentSnapshot.get()).thenReturn(documentSnapshot);
+        when(documentSnapshot.exists()).thenReturn(true);
+
+        assertThat(contributionService.productExists("PÃO de Queijo")).isTrue();
+        verify(productsCollection).document("pao-de-queijo");
+        verify(productsCollection, never()).whereEqualTo(eq("productName"), any());
     }
 
     @Test
     @DisplayName("getProductStats: Should calculate correct stats without categories")
     void getProductStats_Success() throws Exception {
-        when(productsCollection.get()).thenReturn(futureQuerySnapshot);
-        when(querySnapshot.size()).thenReturn(10);
-        Query officialQuery = mock(Query.class);
-        ApiFuture<QuerySnapshot> officialFuture = mock(ApiFuture.class);
-        QuerySnapshot officialSnapshot = mock(QuerySnapshot.class);
-        when(productsCollection.whereEqualTo("isOfficial", true)).thenReturn(officialQuery);
-        when(officialQuery.get()).thenReturn(officialFuture);
-        when(officialFuture.get()).thenReturn(officialSnapshot);
-        when(officialSnapshot.size()).thenReturn(7);
+        when(catalogCounters.get()).thenReturn(new CatalogCounters.Counts(10, 7, 4));
         var stats = contributionService.getProductStats();
         assertThat(stats.get("total")).isEqualTo(10L);
         assertThat(stats.get("official")).isEqualTo(7L);
         assertThat(stats.get("userContributed")).isEqualTo(3L);
+        verify(productsCollection, never()).get();
     }
 
     @Test
@@ -114,21 +306,14 @@ class ProductContributionServiceTest {
     }
 
     @Test
-    @DisplayName("updateAutocompleteIndex: Should log error but not crash when Firestore fails")
-    void updateAutocompleteIndex_HandlesException() throws Exception {
-        String productName = "Valid Product";
-        when(productsCollection.whereEqualTo("productName", productName)).thenReturn(query);
-        when(query.get()).thenReturn(futureQuerySnapshot);
-        when(querySnapshot.isEmpty()).thenReturn(true);
-        when(documentReference.set(any(Product.class))).thenReturn(futureWrite);
-        when(futureWrite.get()).thenReturn(mock(WriteResult.class));
-        ApiFuture<QuerySnapshot> failingFuture = mock(ApiFuture.class);
-        when(keywordsCollection.get()).thenReturn(failingFuture);
-        when(failingFuture.get()).thenThrow(new ExecutionException(new RuntimeException("Firestore Down")));
+    @DisplayName("contributeProduct: Should not read the catalog for the autocomplete index itself")
+    void contributeProduct_DefersAutocompleteRebuild() throws Exception {
         when(importer.generateSearchKeywords(anyString())).thenReturn(List.of("test"));
-        Product result = contributionService.contributeProduct(productName, null);
+        Product result = contributionService.contributeProduct("Valid Product", null);
         assertThat(result).isNotNull();
-        verify(autocompleteService, never()).indexUpdate(any(), any());
+        verify(keywordsCollection, never()).get();
+        verify(productsCollection, never()).get();
+        verify(autocompleteRebuildScheduler, times(1)).requestRebuild();
     }
 
     @Test
@@ -166,25 +351,17 @@ class ProductContributionServiceTest {
     @DisplayName("contributeProduct: Should succeed when a valid category ID is provided")
     void contributeProduct_WithValidCategory_Success() throws Exception {
         String catId = "VEGETABLES";
-        CollectionReference categoriesCollection = mock(CollectionReference.class);
-        DocumentReference catDocRef = mock(DocumentReference.class);
 
-        // Mock the category existence check
-        when(firestore.collection("categories")).thenReturn(categoriesCollection);
-        when(categoriesCollection.document(catId)).thenReturn(catDocRef);
-        when(catDocRef.get()).thenReturn(futureDocumentSnapshot);
-        when(futureDocumentSnapshot.get()).thenReturn(documentSnapshot);
-        when(documentSnapshot.exists()).thenReturn(true);
+        // Category is validated by the registry, not a Firestore read
+        when(categoryRegistry.exists(catId)).thenReturn(true);
 
         // Standard mocks for the rest of the method
-        when(query.get()).thenReturn(futureQuerySnapshot);
-        when(querySnapshot.isEmpty()).thenReturn(true);
         when(importer.generateSearchKeywords(anyString())).thenReturn(List.of("test"));
-        when(documentReference.set(any(Product.class))).thenReturn(futureWrite);
 
         Product result = contributionService.contributeProduct("Lettuce", catId);
         assertThat(result).isNotNull();
-        verify(documentReference).set(any(Product.class));
+        verify(transaction).create(eq(documentReference), any(Product.class));
+        verify(firestore, never()).collection("categories");
     }
 
     @Test
@@ -194,26 +371,13 @@ class ProductContributionServiceTest {
         String catId = "NON_EXISTENT";
         String productName = "Some Product";
 
-        // 1. Properly chain the category mocks
-        CollectionReference categoriesCollection = mock(CollectionReference.class);
-        DocumentReference catDocRef = mock(DocumentReference.class);
-
-        // Use doReturn to match your setUp style and avoid stubbing issues
-        doReturn(categoriesCollection).when(firestore).collection("categories");
-        when(categoriesCollection.document(catId)).thenReturn(catDocRef);
-        when(catDocRef.get()).thenReturn(futureDocumentSnapshot);
-        when(futureDocumentSnapshot.get()).thenReturn(documentSnapshot);
-        when(documentSnapshot.exists()).thenReturn(false); // The core of the test
-
-        // 2. Mock the product existence check (needed because it's called before category check)
-        when(productsCollection.whereEqualTo("productName", productName)).thenReturn(query);
-        when(query.get()).thenReturn(futureQuerySnapshot);
-        when(querySnapshot.isEmpty()).thenReturn(true);
+        when(categoryRegistry.exists(catId)).thenReturn(false); // The core of the test
 
         // --- WHEN / THEN ---
         assertThrows(IllegalArgumentException.class, () ->
                 contributionService.contributeProduct(productName, catId)
         );
+        verify(firestore, never()).runTransaction(any(Transaction.Function.class));
     }
 
     @Test
@@ -223,4 +387,257 @@ class ProductContributionServiceTest {
                 contributionService.contributeProduct("   ", null)
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("canonicalProductId: Should validate the name and return its canonical ID without touching Firestore")
+    void canonicalProductId_ValidatesName() {
+        assertThat(contributionService.canonicalProductId("  Leite Meio-Gordo ")).isEqualTo("leite-meio-gordo");
+        assertThrows(IllegalArgumentException.class, () -> contributionService.canonicalProductId("   "));
+        assertThrows(IllegalArgumentException.class, () -> contributionService.canonicalProductId("!!!"));
+        verify(firestore, never()).collection(anyString());
+    }
+
+    @Test
+    @DisplayName("getProductsPage: Should page by document ID and return a cursor when the page is full")
+    void getProductsPage_ReturnsCursor() throws Exception {
+        Query ordered = mock(Query.class);
+        QueryDocumentSnapshot doc1 = mock(QueryDocumentSnapshot.class);
+        QueryDocumentSnapshot doc2 = mock(QueryDocumentSnapshot.class);
+        when(query.orderBy(any(FieldPath.class))).thenReturn(ordered);
+        when(ordered.limit(2)).thenReturn(ordered);
+        when(ordered.get()).thenReturn(futureQuerySnapshot);
+        when(querySnapshot.getDocuments()).thenReturn(List.of(doc1, doc2));
+        when(doc1.toObject(Product.class)).thenReturn(Product.of("arroz", "Arroz", true, List.of()));
+        when(doc2.toObject(Product.class)).thenReturn(Product.of("leite", "Leite", true, List.of()));
+        when(doc2.getId()).thenReturn("leite");
+
+        ProductPage page = contributionService.getProductsPage(true, 2, null);
+
+        verify(productsCollection).whereEqualTo("isOfficial", true);
+        assertThat(page.products()).hasSize(2);
+        assertThat(page.nextCursor()).isNotNull();
+
+        // The cursor resumes after the last document of the page
+        Query resumed = mock(Query.class);
+        when(ordered.startAfter(anyString())).thenReturn(resumed);
+        when(resumed.get()).thenReturn(futureQuerySnapshot);
+        when(querySnapshot.getDocuments()).thenReturn(List.of(doc1));
+
+        ProductPage next = contributionService.getProductsPage(true, 2, page.nextCursor());
+
+        verify(ordered).startAfter("leite");
+        assertThat(next.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("getProductsPage: Should reject malformed cursors")
+    void getProductsPage_InvalidCursor() {
+        Query ordered = mock(Query.class);
+        when(productsCollection.orderBy(any(FieldPath.class))).thenReturn(ordered);
+        when(ordered.limit(anyInt())).thenReturn(ordered);
+
+        assertThrows(IllegalArgumentException.class, () ->
+                contributionService.getProductsPage(null, 10, "%%%"));
+    }
+
+    @Test
+    @DisplayName("getProductFields: Should push the projection down to Firestore select")
+    void getProductFields_SelectsFields() throws Exception {
+        Query selected = mock(Query.class);
+        QueryDocumentSnapshot doc = mock(QueryDocumentSnapshot.class);
+        when(query.select(any(String[].class))).thenReturn(selected);
+        when(selected.get()).thenReturn(futureQuerySnapshot);
+        when(querySnapshot.getDocuments()).thenReturn(List.of(doc));
+        when(doc.getId()).thenReturn("leite");
+        when(doc.contains("productName")).thenReturn(true);
+        when(doc.get("productName")).thenReturn("Leite");
+
+        List<Map<String, Object>> products = contributionService.getProductFields(true, List.of("id", "productName"));
+
+        verify(query).select(new String[]{"productName"});
+        assertThat(products).containsExactly(Map.of("id", "leite", "productName", "Leite"));
+        verify(doc, never()).toObject(Product.class);
+    }
+
+    @Test
+    @DisplayName("getProductFieldsPage: Should page the projected query")
+    void getProductFieldsPage_PagesProjection() throws Exception {
+        Query ordered = mock(Query.class);
+        Query selected = mock(Query.class);
+        QueryDocumentSnapshot doc = mock(QueryDocumentSnapshot.class);
+        when(productsCollection.orderBy(any(FieldPath.class))).thenReturn(ordered);
+        when(ordered.limit(1)).thenReturn(ordered);
+        when(ordered.select(any(String[].class))).thenReturn(selected);
+        when(selected.get()).thenReturn(futureQuerySnapshot);
+        when(querySnapshot.getDocuments()).thenReturn(List.of(doc));
+        when(doc.getId()).thenReturn("arroz");
+
+        ProductProjectionPage page = contributionService.getProductFieldsPage(null, 1, null, List.of("id"));
+
+        assertThat(page.products()).containsExactly(Map.of("id", "arroz"));
+        assertThat(page.nextCursor()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("parseFields: Should normalize the selection and reject unknown fields")
+    void parseFields_Validation() {
+        assertThat(ProductContributionService.parseFields(null)).isNull();
+        assertThat(ProductContributionService.parseFields(" , ")).isNull();
+        assertThat(ProductContributionService.parseFields("productName, id,productName"))
+                .containsExactly("id", "productName");
+        assertThrows(IllegalArgumentException.class, () -> ProductContributionService.parseFields("productName,price"));
+    }
+
+    // ===== BULK CONTRIBUTION =====
+
+    @Test
+    @DisplayName("contributeProducts: Should check existence once, write in a batch and report each item")
+    void contributeProducts_MixedResults() throws Exception {
+        WriteBatch batch = mock(WriteBatch.class);
+        when(firestore.batch()).thenReturn(batch);
+        when(batch.commit()).thenReturn(ApiFutures.immediateFuture(List.of()));
+        when(importer.generateSearchKeywords(anyString()))
+                .thenAnswer(invocation -> List.of(((String) invocation.getArgument(0)).toLowerCase()));
+        when(keywordService.pendingKeywords(anyList())).thenReturn(pendingKeywords("leite", "pao"));
+        // products [leite, pao] then keywords [leite, pao]
+        when(firestore.getAll(any(DocumentReference[].class)))
+                .thenReturn(ApiFutures.immediateFuture(List.of(absent, present, absent, present)));
+
+        List<ContributionResult> results = contributionService.contributeProducts(List.of(
+                new ProductContributionService.BulkItem("Leite", null),
+                new ProductContributionService.BulkItem("LEITE", null),
+                new ProductContributionService.BulkItem("   ", null),
+                new ProductContributionService.BulkItem("Pao", null)
+        ));
+
+        assertThat(results).extracting(ContributionResult::status).containsExactly(
+                ContributionResult.Status.CREATED,
+                ContributionResult.Status.DUPLICATE,
+                ContributionResult.Status.INVALID,
+                ContributionResult.Status.DUPLICATE);
+        assertThat(results.getFirst().productId()).isEqualTo("leite");
+
+        verify(firestore, times(1)).getAll(any(DocumentReference[].class));
+        verify(batch, times(1)).create(eq(keywordReference), any(Keyword.class));
+        verify(batch, never()).set(any(DocumentReference.class), any());
+        verify(batch, times(1)).create(eq(documentReference), any(Product.class));
+        verify(batch, times(2)).commit();
+        verify(documentReference, never()).create(any(Product.class));
+        verify(keywordService).keywordsWritten(any(), argThat(created -> created.keySet().equals(java.util.Set.of("leite"))));
+        verify(catalogEventPublisher, times(1)).productCreated(any(Product.class));
+        verify(productCache, times(1)).put(any(Product.class));
+        verify(catalogCounters, times(1)).productAdded(false);
+        verify(catalogVersionService, times(1)).markChanged();
+        verify(autocompleteService, times(1)).indexAdd(anyCollection(), argThat(products -> products.size() == 1));
+        verify(autocompleteService, never()).indexUpdate(any(), any());
+    }
+
+    @Test
+    @DisplayName("contributeProducts: Should retry a batch that lost a race one product at a time")
+    void contributeProducts_BatchAlreadyExists() throws Exception {
+        WriteBatch batch = mock(WriteBatch.class);
+        when(firestore.batch()).thenReturn(batch);
+        when(batch.commit()).thenReturn(ApiFutures.immediateFailedFuture(new AlreadyExistsException(
+                new RuntimeException("exists"), GrpcStatusCode.of(Status.Code.ALREADY_EXISTS), false)));
+        when(importer.generateSearchKeywords(anyString())).thenReturn(List.of());
+        when(firestore.getAll(any(DocumentReference[].class)))
+                .thenReturn(ApiFutures.immediateFuture(List.of(absent, absent)));
+        when(documentReference.create(any(Product.class)))
+                .thenReturn(ApiFutures.immediateFailedFuture(new AlreadyExistsException(
+                        new RuntimeException("exists"), GrpcStatusCode.of(Status.Code.ALREADY_EXISTS), false)))
+                .thenReturn(ApiFutures.immediateFuture(mock(WriteResult.class)));
+
+        List<ContributionResult> results = contributionService.contributeProducts(List.of(
+                new ProductContributionService.BulkItem("Leite", null),
+                new ProductContributionService.BulkItem("Pao", null)
+        ));
+
+        assertThat(results).extracting(ContributionResult::status).containsExactly(
+                ContributionResult.Status.DUPLICATE,
+                ContributionResult.Status.CREATED);
+        verify(catalogCounters, times(1)).productAdded(false);
+    }
+
+    @Test
+    @DisplayName("contributeProducts: Should report only the keywords it created when another writer created some")
+    void contributeProducts_KeywordAlreadyExists() throws Exception {
+        WriteBatch batch = mock(WriteBatch.class);
+        when(firestore.batch()).thenReturn(batch);
+        when(batch.commit())
+                .thenReturn(ApiFutures.immediateFailedFuture(new AlreadyExistsException(
+                        new RuntimeException("exists"), GrpcStatusCode.of(Status.Code.ALREADY_EXISTS), false)))
+                .thenReturn(ApiFutures.immediateFuture(List.of()));
+        when(importer.generateSearchKeywords(anyString()))
+                .thenAnswer(invocation -> List.of(((String) invocation.getArgument(0)).toLowerCase()));
+        when(keywordService.pendingKeywords(anyList())).thenReturn(pendingKeywords("leite", "pao"));
+        when(firestore.getAll(any(DocumentReference[].class)))
+                .thenReturn(ApiFutures.immediateFuture(List.of(absent, absent, absent, absent)));
+        // leite was created by another replica meanwhile, pao is still new
+        when(keywordReference.create(any(Keyword.class)))
+                .thenReturn(ApiFutures.immediateFailedFuture(new AlreadyExistsException(
+                        new RuntimeException("exists"), GrpcStatusCode.of(Status.Code.ALREADY_EXISTS), false)))
+                .thenReturn(ApiFutures.immediateFuture(mock(WriteResult.class)));
+
+        List<ContributionResult> results = contributionService.contributeProducts(List.of(
+                new ProductContributionService.BulkItem("Leite", null),
+                new ProductContributionService.BulkItem("Pao", null)
+        ));
+
+        assertThat(results).extracting(ContributionResult::status)
+                .containsOnly(ContributionResult.Status.CREATED);
+        verify(keywordReference, times(2)).create(any(Keyword.class));
+        verify(keywordService).keywordsWritten(any(), argThat(created -> created.keySet().equals(java.util.Set.of("pao"))));
+        verify(autocompleteService).indexAdd(argThat(keywords -> keywords.size() == 1), anyCollection());
+    }
+
+    @Test
+    @DisplayName("contributeProducts: Should release keyword claims when the existence check fails")
+    void contributeProducts_GetAllFailure() throws Exception {
+        when(importer.generateSearchKeywords(anyString())).thenReturn(List.of("leite"));
+        when(firestore.getAll(any(DocumentReference[].class)))
+                .thenReturn(ApiFutures.immediateFailedFuture(new RuntimeException("unavailable")));
+
+        assertThrows(ExecutionException.class, () -> contributionService.contributeProducts(List.of(
+                new ProductContributionService.BulkItem("Leite", null))));
+
+        verify(keywordService).keywordsFailed(eq(pending), any());
+        verify(firestore, never()).batch();
+    }
+
+    @Test
+    @DisplayName("contributeProducts: Should report near duplicates of existing products as duplicates")
+    void contributeProducts_NearDuplicate() throws Exception {
+        when(nearDuplicateIndex.closest(eq("arroz agulha 1 kg"), anyString()))
+                .thenReturn(Optional.of(new NearDuplicateIndex.Match("arroz-agulha-1kg", "arroz agulha 1kg", 1.0)));
+        when(nearDuplicateIndex.rejects()).thenReturn(true);
+
+        List<ContributionResult> results = contributionService.contributeProducts(List.of(
+                new ProductContributionService.BulkItem("arroz agulha 1 kg", null)));
+
+        assertThat(results.getFirst().status()).isEqualTo(ContributionResult.Status.DUPLICATE);
+        assertThat(results.getFirst().error()).contains("arroz agulha 1kg");
+        verify(firestore, never()).getAll(any(DocumentReference[].class));
+    }
+
+    @Test
+    @DisplayName("contributeProducts: Should not touch Firestore when every item is invalid")
+    void contributeProducts_AllInvalid() throws Exception {
+        List<ContributionResult> results = contributionService.contributeProducts(List.of(
+                new ProductContributionService.BulkItem(null, null),
+                new ProductContributionService.BulkItem("!!!", null)
+        ));
+
+        assertThat(results).extracting(ContributionResult::status)
+                .containsOnly(ContributionResult.Status.INVALID);
+        verify(firestore, never()).getAll(any(DocumentReference[].class));
+    }
+
+    @Test
+    @DisplayName("contributeProducts: Should reject requests above the item limit")
+    void contributeProducts_TooManyItems() {
+        List<ProductContributionService.BulkItem> items = java.util.Collections.nCopies(
+                ProductContributionService.MAX_BULK_ITEMS + 1, new ProductContributionService.BulkItem("Leite", null));
+
+        assertThrows(IllegalArgumentException.class, () -> contributionService.contributeProducts(items));
+    }
+}
@@ -0,0 +1,149 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.core.model.Product;
+import com.google.api.core.ApiFuture;
+import com.google.cloud.firestore.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProductIdMigrationServiceTest {
+
+    @Mock private Firestore firestore;
+    @Mock private CatalogChangeService catalogChangeService;
+    @Mock private CatalogVersionService catalogVersionService;
+    @Mock private CatalogEventPublisher catalogEventPublisher;
+    @Mock private CatalogCounters catalogCounters;
+    @Mock private ProductCache productCache;
+    @Mock private CollectionReference productsCollection;
+    @Mock private Query pages;
+    @Mock private ApiFuture<QuerySnapshot> futurePage;
+    @Mock private QuerySnapshot page;
+    @Mock private WriteBatch writeBatch;
+    @Mock private ApiFuture<List<WriteResult>> futureCommit;
+
+    @InjectMocks private ProductIdMigrationService migrationService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        when(firestore.collection("products")).thenReturn(productsCollection);
+        when(productsCollection.orderBy(any(FieldPath.class))).thenReturn(pages);
+        when(pages.limit(anyInt())).thenReturn(pages);
+        when(pages.get()).thenReturn(futurePage);
+        when(futurePage.get()).thenReturn(page);
+        when(firestore.batch()).thenReturn(writeBatch);
+        when(writeBatch.commit()).thenReturn(futureCommit);
+    }
+
+    private QueryDocumentSnapshot document(String id, String name) {
+        QueryDocumentSnapshot doc = mock(QueryDocumentSnapshot.class);
+        when(doc.getId()).thenReturn(id);
+        when(doc.toObject(Product.class)).thenReturn(Product.of(id, name, false, List.of(name.toLowerCase())));
+        return doc;
+    }
+
+    @SuppressWarnings("unchecked")
+    private DocumentReference canonical(String id, boolean exists) throws Exception {
+        DocumentReference ref = mock(DocumentReference.class);
+        ApiFuture<DocumentSnapshot> future = mock(ApiFuture.class);
+        DocumentSnapshot snapshot = mock(DocumentSnapshot.class);
+        when(ref.get()).thenReturn(future);
+        when(future.get()).thenReturn(snapshot);
+        when(snapshot.exists()).thenReturn(exists);
+        when(productsCollection.document(id)).thenReturn(ref);
+        return ref;
+    }
+
+    @Test
+    @DisplayName("migrate: Should copy UUID-keyed products to their canonical ID and tombstone the old ID")
+    void migrate_MovesLegacyDocuments() throws Exception {
+        List<QueryDocumentSnapshot> documents = List.of(
+                document("3f2b-uuid", "Pão de Queijo"),
+                document("leite", "Leite"));
+        when(page.getDocuments()).thenReturn(documents);
+        DocumentReference target = canonical("pao-de-queijo", false);
+
+        Map<String, Object> result = migrationService.migrate(false);
+
+        ArgumentCaptor<Product> copied = ArgumentCaptor.forClass(Product.class);
+        verify(writeBatch).set(eq(target), copied.capture());
+        assertThat(copied.getValue().id()).isEqualTo("pao-de-queijo");
+        assertThat(copied.getValue().updatedAt()).isNotNull();
+        verify(catalogChangeService).stageDeletion(writeBatch, "products", "3f2b-uuid");
+        verify(catalogChangeService, never()).stageDeletion(any(), anyString(), eq("leite"));
+        verify(writeBatch).commit();
+        verify(catalogCounters).recount();
+        verify(productCache).invalidateAll();
+        assertThat(result).containsEntry("scanned", 2L).containsEntry("migrated", 1L)
+                .containsEntry("duplicatesRemoved", 0L);
+    }
+
+    @Test
+    @DisplayName("migrate: Should only delete a legacy duplicate when the canonical product exists")
+    void migrate_RemovesDuplicates() throws Exception {
+        List<QueryDocumentSnapshot> documents = List.of(document("uuid-1", "Leite"), document("uuid-2", "LEITE"));
+        when(page.getDocuments()).thenReturn(documents);
+        canonical("leite", false);
+
+        Map<String, Object> result = migrationService.migrate(false);
+
+        verify(writeBatch, times(1)).set(any(DocumentReference.class), any(Product.class));
+        verify(catalogChangeService).stageDeletion(writeBatch, "products", "uuid-1");
+        verify(catalogChangeService).stageDeletion(writeBatch, "products", "uuid-2");
+        assertThat(result).containsEntry("migrated", 1L).containsEntry("duplicatesRemoved", 1L);
+    }
+
+    @Test
+    @DisplayName("migrate: Dry run should count without writing")
+    void migrate_DryRun() throws Exception {
+        List<QueryDocumentSnapshot> documents = List.of(document("uuid-1", "Arroz"));
+        when(page.getDocuments()).thenReturn(documents);
+        canonical("arroz", false);
+
+        Map<String, Object> result = migrationService.migrate(true);
+
+        assertThat(result).containsEntry("migrated", 1L).containsEntry("dryRun", true);
+        verify(writeBatch, never()).commit();
+        verifyNoInteractions(catalogChangeService, catalogVersionService, catalogCounters, productCache);
+    }
+
+    @Test
+    @DisplayName("migrate: Should follow pages until a short page")
+    void migrate_Pages() throws Exception {
+        QueryDocumentSnapshot canonicalDoc = document("arroz", "Arroz");
+        List<QueryDocumentSnapshot> fullPage = java.util.Collections.nCopies(ProductIdMigrationService.PAGE_SIZE, canonicalDoc);
+        Query next = mock(Query.class);
+        @SuppressWarnings("unchecked")
+        ApiFuture<QuerySnapshot> nextFuture = mock(ApiFuture.class);
+        QuerySnapshot lastPage = mock(QuerySnapshot.class);
+        when(page.getDocuments()).thenReturn(fullPage);
+        when(pages.startAfter(canonicalDoc)).thenReturn(next);
+        when(next.get()).thenReturn(nextFuture);
+        when(nextFuture.get()).thenReturn(lastPage);
+        when(lastPage.getDocuments()).thenReturn(List.of());
+
+        Map<String, Object> result = migrationService.migrate(false);
+
+        assertThat(result).containsEntry("scanned", (long) ProductIdMigrationService.PAGE_SIZE)
+                .containsEntry("migrated", 0L);
+        verify(writeBatch, never()).commit();
+        verifyNoInteractions(catalogCounters);
+    }
+}
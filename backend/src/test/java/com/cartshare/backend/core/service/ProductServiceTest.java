@@ -16,6 +16,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
@@ -36,6 +37,10 @@ class ProductServiceTest {
     @Mock private Transaction transaction;
     @Mock private DocumentSnapshot documentSnapshot;
     @Mock private ApiFuture<DocumentSnapshot> futureSnapshot;
+    @Mock private CatalogVersionService catalogVersionService;
+    @Mock private CatalogEventPublisher catalogEventPublisher;
+    @Mock private CatalogCounters catalogCounters;
+    @Spy private ProductCache productCache = new ProductCache(100, 60_000, 1_000);
 
     @InjectMocks
     private ProductService productService;
@@ -51,6 +56,9 @@ class ProductServiceTest {
 
         doReturn(collectionReference).when(firestore).collection("products");
         doReturn(documentReference).when(collectionReference).document(anyString());
+        // Cache misses are read through with a plain get
+        when(documentReference.get()).thenReturn(futureSnapshot);
+        when(futureSnapshot.get()).thenReturn(documentSnapshot);
 
         // Intercept the transaction lambda
         when(firestore.runTransaction(any(Transaction.Function.class))).thenAnswer(invocation -> {
@@ -89,7 +97,11 @@ class ProductServiceTest {
         Product result = productService.addOrGetProduct(name, List.of());
 
         assertThat(result).isEqualTo(existing);
+        // Existing products never start a transaction
+        verify(firestore, never()).runTransaction(any(Transaction.Function.class));
         verify(transaction, never()).set(any(), any());
+        verify(catalogVersionService, never()).markChanged();
+        verifyNoInteractions(catalogEventPublisher);
     }
 
     @Test
@@ -115,5 +127,41 @@ class ProductServiceTest {
 
         // Verify that the transaction actually tried to save the new product
         verify(transaction).set(eq(documentReference), any(Product.class));
+        verify(catalogVersionService).markChanged();
+        verify(catalogEventPublisher).productCreated(result);
+        verify(catalogCounters).productAdded(false);
+    }
+
+    @Test
+    @DisplayName("addOrGetProduct: Should answer repeated lookups of an existing product from the cache")
+    void addOrGetProduct_CachedExisting() throws Exception {
+        Product existing = Product.of("arroz", "Arroz", true, List.of("arroz"));
+        mockedStringUtils.when(() -> StringUtils.toSafeId("Arroz")).thenReturn("arroz");
+        when(documentSnapshot.exists()).thenReturn(true);
+        when(documentSnapshot.toObject(Product.class)).thenReturn(existing);
+
+        productService.addOrGetProduct("Arroz", List.of());
+        Product result = productService.addOrGetProduct("Arroz", List.of());
+
+        assertThat(result).isEqualTo(existing);
+        verify(documentReference, times(1)).get();
+        verify(firestore, never()).runTransaction(any(Transaction.Function.class));
+    }
+
+    @Test
+    @DisplayName("addOrGetProduct: Should cache a created product so the next call reads nothing")
+    void addOrGetProduct_CachesCreated() throws Exception {
+        mockedStringUtils.when(() -> StringUtils.toSafeId("Chocolate")).thenReturn("chocolate");
+        mockedSearchUtils.when(() -> SearchUtils.generateSearchKeywords("Chocolate")).thenReturn(List.of("chocolate"));
+        when(transaction.get(documentReference)).thenReturn(futureSnapshot);
+        when(documentSnapshot.exists()).thenReturn(false);
+
+        Product created = productService.addOrGetProduct("Chocolate", List.of());
+        Product again = productService.addOrGetProduct("Chocolate", List.of());
+
+        assertThat(again).isEqualTo(created);
+        verify(firestore, times(1)).runTransaction(any(Transaction.Function.class));
+        verify(documentReference, times(1)).get();
+        verify(catalogEventPublisher, times(1)).productCreated(created);
     }
-}
\ No newline at end of file
+}
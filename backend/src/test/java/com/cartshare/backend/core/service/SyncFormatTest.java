@@ -0,0 +1,110 @@
+package com.cartshare.backend.core.service;
+
+import com.cartshare.backend.core.model.Product;
+import com.cartshare.backend.infrastructure.excel.ExcelReader;
+import com.cartshare.backend.shared.util.ResourceUtils;
+import com.cartshare.backend.shared.util.SearchUtils;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SyncFormatTest {
+
+    private static final int ROUNDS = 50;
+
+    static Map<String, Object> catalog;
+    static Map<SyncFormat, ObjectMapper> mappers;
+
+    @BeforeAll
+    static void setup() throws Exception {
+        try (InputStream is = ResourceUtils.getResourceStream("excel/Products.xlsx")) {
+            List<Product> products = ExcelReader.read(is).stream()
+                    .skip(1)
+                    .filter(r -> !r.isEmpty() && !r.getFirst().isBlank())
+                    .map(r -> Product.of(ExcelReader.toSafeId(r.getFirst()), r.getFirst(), true,
+                            SearchUtils.generateSearchKeywords(r.getFirst())).withUpdatedAt(1_700_000_000_000L))
+                    .toList();
+            catalog = Map.of("products", products, "count", products.size(), "type", "official");
+        }
+        mappers = SyncFormat.mappers(new ObjectMapper());
+    }
+
+    @ParameterizedTest
+    @DisplayName("fromAccept: Should negotiate the requested format and default to JSON")
+    @CsvSource(delimiter = '|', value = {
+            "application/cbor | CBOR",
+            "application/x-jackson-smile | SMILE",
+            "application/json | JSON",
+            "*/* | JSON",
+            "application/cbor;q=0, application/x-jackson-smile | SMILE",
+            "text/html, application/cbor;q=0.9 | CBOR",
+            "application/json;q=0.1, application/cbor | CBOR",
+            "application/json;q=0.5, application/x-jackson-smile;q=0.8, application/cbor;q=0.7 | SMILE",
+            "*/*;q=0.8, application/cbor | CBOR",
+            "*/*, application/x-jackson-smile | SMILE",
+            "application/cbor, application/x-jackson-smile | CBOR",
+            "not a media type | JSON"
+    })
+    void fromAccept_Negotiates(String accept, SyncFormat expected) {
+        assertThat(SyncFormat.fromAccept(accept)).isEqualTo(expected);
+    }
+
+    @Test
+    @DisplayName("fromAccept: Missing header means JSON")
+    void fromAccept_Missing() {
+        assertThat(SyncFormat.fromAccept(null)).isEqualTo(SyncFormat.JSON);
+    }
+
+    @Test
+    @DisplayName("Binary formats: Should round-trip the catalog and be smaller than JSON")
+    void binaryFormats_SmallerThanJson() throws Exception {
+        Map<SyncFormat, byte[]> encoded = new EnumMap<>(SyncFormat.class);
+        for (SyncFormat format : SyncFormat.values()) {
+            encoded.put(format, mappers.get(format).writeValueAsBytes(catalog));
+        }
+
+        JsonNode expected = mappers.get(SyncFormat.JSON).readTree(encoded.get(SyncFormat.JSON));
+        assertThat(mappers.get(SyncFormat.CBOR).readTree(encoded.get(SyncFormat.CBOR))).isEqualTo(expected);
+        assertThat(mappers.get(SyncFormat.SMILE).readTree(encoded.get(SyncFormat.SMILE))).isEqualTo(expected);
+
+        assertThat(encoded.get(SyncFormat.CBOR).length).isLessThan(encoded.get(SyncFormat.JSON).length);
+        assertThat(encoded.get(SyncFormat.SMILE).length).isLessThan(encoded.get(SyncFormat.CBOR).length);
+    }
+
+    @Test
+    @DisplayName("Benchmark Report: Payload size and encode/decode time per format")
+    void benchmarkReport() throws Exception {
+        System.out.printf("%n--- SYNC FORMAT BENCHMARK (%d products) ---%n", ((List<?>) catalog.get("products")).size());
+        System.out.printf("%-6s %10s %10s %12s %12s%n", "format", "bytes", "gzip", "encode(us)", "decode(us)");
+        for (SyncFormat format : SyncFormat.values()) {
+            ObjectMapper mapper = mappers.get(format);
+            byte[] bytes = mapper.writeValueAsBytes(catalog);
+
+            // Warm up before timing
+            for (int i = 0; i < ROUNDS; i++) mapper.readTree(mapper.writeValueAsBytes(catalog));
+
+            long start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) mapper.writeValueAsBytes(catalog);
+            long encodeMicros = (System.nanoTime() - start) / ROUNDS / 1_000;
+
+            start = System.nanoTime();
+            for (int i = 0; i < ROUNDS; i++) mapper.readTree(bytes);
+            long decodeMicros = (System.nanoTime() - start) / ROUNDS / 1_000;
+
+            System.out.printf("%-6s %10d %10d %12d %12d%n", format, bytes.length,
+                    CatalogPayloadCache.gzip(bytes).length, encodeMicros, decodeMicros);
+        }
+        System.out.println("-------------------------------------------");
+    }
+}
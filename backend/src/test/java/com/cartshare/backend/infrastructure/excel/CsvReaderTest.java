@@ -0,0 +1,100 @@
+package com.cartshare.backend.infrastructure.excel;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvReaderTest {
+
+    @TempDir
+    Path dir;
+
+    private Path csv(String content) throws IOException {
+        Path file = dir.resolve("data.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    @Test
+    @DisplayName("Should read all non-empty rows including header, trimmed")
+    void shouldReadNonEmptyRows() throws Exception {
+        Path file = csv("productName,categoryId\narroz agulha 1kg , ALIMENTOS\n\n , \nfeijão preto,ALIMENTOS");
+
+        try (Stream<List<String>> rows = CsvReader.stream(file)) {
+            assertEquals(List.of(
+                    List.of("productName", "categoryId"),
+                    List.of("arroz agulha 1kg", "ALIMENTOS"),
+                    List.of("feijão preto", "ALIMENTOS")
+            ), rows.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should handle quoted fields, escaped quotes, CRLF and a byte order mark")
+    void shouldHandleQuotingAndLineEndings() throws Exception {
+        Path file = csv("\uFEFFproductName,categoryId\r\n\"Vinho \"\"Tinto\"\", 75cl\",BEBIDAS\r\n\"linha\nquebrada\",\r\n");
+
+        try (Stream<List<String>> rows = CsvReader.stream(file)) {
+            assertEquals(List.of(
+                    List.of("productName", "categoryId"),
+                    List.of("Vinho \"Tinto\", 75cl", "BEBIDAS"),
+                    List.of("linha\nquebrada", "")
+            ), rows.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("Should fail on an unterminated quoted field")
+    void shouldFailOnUnterminatedQuote() throws Exception {
+        Path file = csv("productName\n\"arroz");
+
+        try (Stream<List<String>> rows = CsvReader.stream(file)) {
+            assertThrows(IllegalStateException.class, rows::toList);
+        }
+    }
+
+    @Test
+    @DisplayName("stream: Should parse records lazily")
+    void streamShouldBeLazy() throws Exception {
+        StringBuilder content = new StringBuilder("productName,categoryId\n");
+        for (int i = 0; i < 50_000; i++) content.append("Produto ").append(i).append(",OUTROS\n");
+        Path file = csv(content.toString());
+
+        try (Stream<List<String>> rows = CsvReader.stream(file)) {
+            Iterator<List<String>> iterator = rows.skip(1).iterator();
+            assertEquals(List.of("Produto 0", "OUTROS"), iterator.next());
+            assertEquals(List.of("Produto 1", "OUTROS"), iterator.next());
+        }
+    }
+
+    @Test
+    @DisplayName("stream(InputStream): Should spool the CSV and delete the copy on close")
+    void streamFromInputStreamShouldDeleteSpooledFile() throws Exception {
+        Stream<List<String>> rows = CsvReader.stream(new ByteArrayInputStream("keyword,categoryId\narroz,ALIMENTOS\n".getBytes(StandardCharsets.UTF_8)));
+        assertEquals(List.of(List.of("keyword", "categoryId"), List.of("arroz", "ALIMENTOS")), rows.toList());
+        rows.close();
+
+        try (Stream<Path> temp = Files.list(Path.of(System.getProperty("java.io.tmpdir")))) {
+            assertTrue(temp.noneMatch(path -> path.getFileName().toString().startsWith("cartshare-import-")
+                    && path.toString().endsWith(".csv")));
+        }
+    }
+
+    @Test
+    @DisplayName("Negative: Should reject a null InputStream")
+    void shouldRejectNullInputStream() {
+        assertThrows(IOException.class, () -> CsvReader.stream((InputStream) null));
+    }
+}
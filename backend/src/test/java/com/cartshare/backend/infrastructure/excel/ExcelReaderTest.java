@@ -1,5 +1,6 @@
 package com.cartshare.backend.infrastructure.excel;
 
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.Cell;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
@@ -16,6 +17,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -108,6 +110,110 @@ class ExcelReaderTest {
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    @DisplayName("stream: Should convert numbers and booleans and keep the position of missing cells")
+    void streamShouldConvertCellTypes() throws Exception {
+        byte[] excelContent;
+        try (Workbook workbook = new XSSFWorkbook();
+             ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Types");
+            Row row = sheet.createRow(0);
+            row.createCell(0).setCellValue(" Leite ");
+            row.createCell(2).setCellValue(12.0);
+            row.createCell(3).setCellValue(true);
+            sheet.createRow(1);
+            sheet.createRow(5).createCell(1).setCellValue("Pão");
+            workbook.write(bos);
+            excelContent = bos.toByteArray();
+        }
+
+        try (Stream<List<String>> rows = ExcelReader.stream(new ByteArrayInputStream(excelContent))) {
+            assertEquals(List.of(
+                    List.of("Leite", "", "12", "true"),
+                    List.of("", "Pão")
+            ), rows.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("stream: Should read the cached result of formula cells, blank when there is none")
+    void streamShouldReadFormulaResults() throws Exception {
+        byte[] excelContent;
+        try (Workbook workbook = new XSSFWorkbook();
+             ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Formulas");
+            Row row = sheet.createRow(0);
+            row.createCell(0).setCellFormula("CONCATENATE(\"Pã\",\"o\")");
+            row.createCell(1).setCellFormula("6*2");
+            workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+            // Not evaluated: no cached result in the file
+            row.createCell(2).setCellFormula("1+1");
+            workbook.write(bos);
+            excelContent = bos.toByteArray();
+        }
+
+        try (Stream<List<String>> rows = ExcelReader.stream(new ByteArrayInputStream(excelContent))) {
+            assertEquals(List.of(List.of("Pão", "12", "")), rows.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("stream: Should pad a sparse row up to each cell that is present")
+    void streamShouldPadSparseRows() throws Exception {
+        byte[] excelContent;
+        try (Workbook workbook = new XSSFWorkbook();
+             ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+            Row row = workbook.createSheet("Sparse").createRow(0);
+            row.createCell(1).setCellValue("Leite");
+            row.createCell(4).setCellValue("ALIMENTOS");
+            workbook.write(bos);
+            excelContent = bos.toByteArray();
+        }
+
+        try (Stream<List<String>> rows = ExcelReader.stream(new ByteArrayInputStream(excelContent))) {
+            assertEquals(List.of(List.of("", "Leite", "", "", "ALIMENTOS")), rows.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("stream: Should still read legacy .xls workbooks")
+    void streamShouldReadLegacyWorkbooks() throws Exception {
+        byte[] excelContent;
+        try (Workbook workbook = new HSSFWorkbook();
+             ByteArrayOutputStream bos = new ByteArrayOutputStream()) {
+            Sheet sheet = workbook.createSheet("Legacy");
+            sheet.createRow(0).createCell(0).setCellValue("productName");
+            Row row = sheet.createRow(2);
+            row.createCell(0).setCellValue(" Pão ");
+            row.createCell(2).setCellValue(3.0);
+            workbook.write(bos);
+            excelContent = bos.toByteArray();
+        }
+
+        try (Stream<List<String>> rows = ExcelReader.stream(new ByteArrayInputStream(excelContent))) {
+            assertEquals(List.of(List.of("productName"), List.of("Pão", "", "3")), rows.toList());
+        }
+    }
+
+    @Test
+    @DisplayName("stream: Should emit rows lazily and stop reading when the consumer stops")
+    void streamShouldBeLazy() throws Exception {
+        String[][] data = new String[5000][];
+        for (int i = 0; i < data.length; i++) data[i] = new String[]{"Produto " + i};
+        byte[] excelContent = createMockExcel(data);
+
+        try (Stream<List<String>> rows = ExcelReader.stream(new ByteArrayInputStream(excelContent))) {
+            assertEquals(List.of(List.of("Produto 0"), List.of("Produto 1")), rows.limit(2).toList());
+        }
+    }
+
+    @Test
+    @DisplayName("stream: Should fail to open a corrupt workbook")
+    void streamShouldRejectCorruptWorkbook() {
+        assertThrows(IOException.class, () -> ExcelReader.stream(new ByteArrayInputStream("NotAnExcelFile".getBytes())));
+        assertThrows(IOException.class, () -> ExcelReader.stream(null));
+    }
+
     @Test
     @DisplayName("toSafeId: Should handle various special characters and spacing")
     void toSafeId_ComplexInputs() {
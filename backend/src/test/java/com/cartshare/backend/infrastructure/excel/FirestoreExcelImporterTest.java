@@ -2,7 +2,11 @@ package com.cartshare.backend.infrastructure.excel;
 
 import com.cartshare.backend.core.model.Keyword;
 import com.cartshare.backend.core.model.Product;
-import com.google.api.core.ApiFuture;
+import com.cartshare.backend.core.service.CatalogCounters;
+import com.cartshare.backend.core.service.CatalogEventPublisher;
+import com.cartshare.backend.core.service.CatalogVersionService;
+import com.cartshare.backend.core.service.ProductCache;
+import com.google.api.core.ApiFutures;
 import com.google.cloud.firestore.*;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -14,6 +18,8 @@ import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
 import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -23,14 +29,18 @@ class FirestoreExcelImporterTest {
     @Mock private Firestore firestore;
     @Mock private CollectionReference collectionReference;
     @Mock private DocumentReference documentReference;
-    @Mock private WriteBatch writeBatch;
+    @Mock private BulkWriter bulkWriter;
     @Mock private InputStream inputStream;
-    @Mock private ApiFuture<List<WriteResult>> mockApiFuture;
+    @Mock private WriteResult writeResult;
+    @Mock private CatalogVersionService catalogVersionService;
+    @Mock private CatalogEventPublisher catalogEventPublisher;
+    @Mock private CatalogCounters catalogCounters;
+    @Mock private ProductCache productCache;
     private FirestoreExcelImporter importer;
 
     @BeforeEach
     void setUp() {
-        importer = new FirestoreExcelImporter(firestore);
+        importer = new FirestoreExcelImporter(firestore, catalogVersionService, catalogEventPublisher, catalogCounters, productCache);
     }
 
     @Test
@@ -38,21 +48,20 @@ class FirestoreExcelImporterTest {
     void shouldImportProductsWithKeywords() throws Exception {
         List<List<String>> mockExcelData = List.of(List.of("Arroz Agulhão"));
         try (MockedStatic<ExcelReader> mockedReader = mockStatic(ExcelReader.class)) {
-            mockedReader.when(() -> ExcelReader.read(any())).thenReturn(mockExcelData);
+            mockedReader.when(() -> ExcelReader.stream(any())).thenReturn(mockExcelData.stream());
             mockedReader.when(() -> ExcelReader.toSafeId("Arroz Agulhão")).thenReturn("arroz-agulhao");
-            when(firestore.batch()).thenReturn(writeBatch);
+            stubBulkWriter();
             when(firestore.collection("products")).thenReturn(collectionReference);
             when(collectionReference.document("arroz-agulhao")).thenReturn(documentReference);
-            when(writeBatch.commit()).thenReturn(mockApiFuture);
             importer.importProducts(inputStream);
             ArgumentCaptor<Product> captor = ArgumentCaptor.forClass(Product.class);
-            verify(writeBatch).set(eq(documentReference), captor.capture());
+            verify(bulkWriter).set(eq(documentReference), captor.capture());
             Product saved = captor.getValue();
             assertEquals("Arroz Agulhão", saved.productName());
             assertTrue(saved.isOfficial());
             assertTrue(saved.searchKeywords().contains("arroz"));
             assertTrue(saved.searchKeywords().contains("agulhao"));
-            verify(writeBatch).commit();
+            verify(bulkWriter).close();
         }
     }
 
@@ -60,13 +69,15 @@ class FirestoreExcelImporterTest {
     @DisplayName("Import Keywords: Should generate entries using keyword as ID")
     void shouldImportKeywordsCorrectly() throws Exception {
         List<Keyword> mockKeywords = List.of(new Keyword("Arroz"), new Keyword("Feijão"));
-        when(firestore.batch()).thenReturn(writeBatch);
+        stubBulkWriter();
         when(firestore.collection("keywords")).thenReturn(collectionReference);
         when(collectionReference.document(anyString())).thenReturn(documentReference);
-        when(writeBatch.commit()).thenReturn(mockApiFuture);
         importer.importKeywordsFromList(mockKeywords);
-        verify(writeBatch, times(2)).set(eq(documentReference), any(Keyword.class));
-        verify(writeBatch).commit();
+        verify(bulkWriter, times(2)).set(eq(documentReference), any(Keyword.class));
+        verify(bulkWriter).flush();
+        verify(bulkWriter).close();
+        verify(catalogEventPublisher).catalogReloaded();
+        verify(catalogCounters).recount();
     }
 
     @Test
@@ -74,8 +85,8 @@ class FirestoreExcelImporterTest {
     void shouldNotWriteToFirestoreDuringDryRun() throws Exception {
         importer.setDryRun(true);
         importer.importKeywordsFromList(List.of(new Keyword("Test")));
-        verify(firestore, never()).batch();
-        verifyNoInteractions(writeBatch);
+        verify(firestore, never()).bulkWriter();
+        verifyNoInteractions(bulkWriter);
     }
 
     @Test
@@ -125,17 +136,84 @@ class FirestoreExcelImporterTest {
         assertTrue(importer.generateSearchKeywords("   ").isEmpty());
     }
 
+    @Test
+    @DisplayName("Import Product Names: Should generate keywords in the pipeline and flush every 400 products")
+    void shouldImportProductNamesInBatches() throws Exception {
+        stubBulkWriter();
+        when(firestore.collection("products")).thenReturn(collectionReference);
+        when(collectionReference.document(anyString())).thenReturn(documentReference);
+
+        int imported = importer.importProductNames(java.util.stream.IntStream.range(0, 1000).mapToObj(i -> "Arroz " + i));
+
+        assertEquals(1000, imported);
+        ArgumentCaptor<Product> captor = ArgumentCaptor.forClass(Product.class);
+        verify(bulkWriter, times(1000)).set(eq(documentReference), captor.capture());
+        assertTrue(captor.getAllValues().stream().allMatch(p -> p.isOfficial() && p.searchKeywords().contains("arroz")));
+        verify(bulkWriter, times(3)).flush();
+        verify(bulkWriter).close();
+        verify(catalogCounters, times(1)).recount();
+    }
+
     @Test
     @DisplayName("Import Products From List: Should save official products")
     void shouldImportProductsFromList() throws Exception {
         List<Product> products = List.of(Product.createOfficial("Leite", List.of("leite")));
-        when(firestore.batch()).thenReturn(writeBatch);
+        stubBulkWriter();
         when(firestore.collection("products")).thenReturn(collectionReference);
         when(collectionReference.document(anyString())).thenReturn(documentReference);
-        when(writeBatch.commit()).thenReturn(mockApiFuture);
         importer.importProductsFromList(products);
-        verify(writeBatch).set(any(DocumentReference.class), any(Product.class));
-        verify(writeBatch).commit();
+        verify(bulkWriter).set(any(DocumentReference.class), any(Product.class));
+        verify(bulkWriter).flush();
+        verify(productCache).invalidateAll();
+    }
+
+    @Test
+    @DisplayName("Import Official Products: Should generate keywords and keep the category")
+    void shouldImportOfficialProductsWithCategory() throws Exception {
+        stubBulkWriter();
+        when(firestore.collection("products")).thenReturn(collectionReference);
+        when(collectionReference.document("arroz-agulha-1kg")).thenReturn(documentReference);
+
+        int imported = importer.importOfficialProducts(Stream.of(
+                Product.createOfficial("Arroz Agulha 1kg", List.of()).withCategoryId("ALIMENTOS")));
+
+        assertEquals(1, imported);
+        ArgumentCaptor<Product> captor = ArgumentCaptor.forClass(Product.class);
+        verify(bulkWriter).set(eq(documentReference), captor.capture());
+        Product saved = captor.getValue();
+        assertEquals("ALIMENTOS", saved.categoryId());
+        assertTrue(saved.isOfficial());
+        assertTrue(saved.searchKeywords().contains("arroz"));
+        assertNotNull(saved.updatedAt());
+    }
+
+    @Test
+    @DisplayName("Import Products: Should fail when a document cannot be written after the BulkWriter retries")
+    void shouldFailImportWhenWriteFails() {
+        when(firestore.bulkWriter()).thenReturn(bulkWriter);
+        when(firestore.collection("products")).thenReturn(collectionReference);
+        when(collectionReference.document(anyString())).thenReturn(documentReference);
+        when(bulkWriter.set(any(DocumentReference.class), any(Object.class)))
+                .thenReturn(ApiFutures.immediateFailedFuture(new IllegalStateException("UNAVAILABLE")));
+
+        assertThrows(Exception.class, () -> importer.importProductsFromList(List.of(Product.createOfficial("Leite", List.of("leite")))));
+        verify(bulkWriter).close();
+        verifyNoInteractions(catalogCounters);
+    }
+
+    @Test
+    @DisplayName("Import Products: Should keep the import and invalidate the counters when the recount fails")
+    void shouldKeepImportWhenRecountFails() throws Exception {
+        stubBulkWriter();
+        when(firestore.collection("products")).thenReturn(collectionReference);
+        when(collectionReference.document(anyString())).thenReturn(documentReference);
+        when(catalogCounters.recount()).thenThrow(new ExecutionException(new RuntimeException("UNAVAILABLE")));
+
+        int imported = importer.importProducts(Stream.of(Product.createOfficial("Leite", List.of("leite"))));
+
+        assertEquals(1, imported);
+        verify(catalogCounters).invalidate();
+        verify(catalogEventPublisher).catalogReloaded();
     }
 
     @Test
@@ -149,4 +227,9 @@ class FirestoreExcelImporterTest {
         assertTrue(keywords.contains("naive"));
         assertTrue(keywords.contains("naïve"));
     }
-}
\ No newline at end of file
+
+    private void stubBulkWriter() {
+        when(firestore.bulkWriter()).thenReturn(bulkWriter);
+        when(bulkWriter.set(any(DocumentReference.class), any(Object.class))).thenReturn(ApiFutures.immediateFuture(writeResult));
+    }
+}
@@ -0,0 +1,133 @@
+package com.cartshare.backend.infrastructure.excel;
+
+import com.google.api.core.ApiFutures;
+import com.google.api.core.SettableApiFuture;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ImportPipelineTest {
+
+    @Test
+    @DisplayName("run: Should analyze every item and write it in batches of the configured size")
+    void run_WritesAllItemsInBatches() throws Exception {
+        List<List<String>> batches = Collections.synchronizedList(new ArrayList<>());
+        ImportPipeline<Integer, String> pipeline = new ImportPipeline<>("Test", 8, 4, 10, 2,
+                i -> "item-" + i,
+                batch -> {
+                    batches.add(List.copyOf(batch));
+                    return ApiFutures.immediateFuture(null);
+                });
+
+        ImportPipeline.Stats stats = pipeline.run(IntStream.range(0, 95).boxed());
+
+        assertThat(batches).hasSize(10);
+        assertThat(batches.subList(0, 9)).allSatisfy(batch -> assertThat(batch).hasSize(10));
+        assertThat(batches.stream().flatMap(List::stream))
+                .containsExactlyInAnyOrderElementsOf(IntStream.range(0, 95).mapToObj(i -> "item-" + i).toList());
+        assertThat(stats.items()).isEqualTo(95);
+        assertThat(stats.batches()).isEqualTo(10);
+        assertThat(stats.stages()).extracting(ImportPipeline.StageStats::stage)
+                .containsExactly("parse", "analyze", "write");
+        assertThat(stats.stages()).extracting(ImportPipeline.StageStats::items)
+                .containsExactly(95L, 95L, 95L);
+    }
+
+    @Test
+    @DisplayName("run: A slow writer should hold parsing back instead of buffering the source")
+    void run_Backpressure() throws Exception {
+        AtomicInteger parsed = new AtomicInteger();
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ImportPipeline<Integer, Integer> pipeline = new ImportPipeline<>("Test", 5, 2, 5, 1,
+                i -> i,
+                batch -> {
+                    writing.countDown();
+                    release.await(5, TimeUnit.SECONDS);
+                    return ApiFutures.immediateFuture(null);
+                });
+
+        CompletableFuture<ImportPipeline.Stats> run = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pipeline.run(IntStream.range(0, 10_000).peek(i -> parsed.incrementAndGet()).boxed());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue();
+        Thread.sleep(100);
+        // Two queues of 5, one item in each analyzer, the batch being written and one being parsed
+        assertThat(parsed.get()).isLessThan(30);
+
+        release.countDown();
+        assertThat(run.get(10, TimeUnit.SECONDS).items()).isEqualTo(10_000);
+    }
+
+    @Test
+    @DisplayName("run: Should keep at most the configured number of commits in flight")
+    void run_BoundsCommitsInFlight() throws Exception {
+        List<SettableApiFuture<Void>> commits = Collections.synchronizedList(new ArrayList<>());
+        ImportPipeline<Integer, Integer> pipeline = new ImportPipeline<>("Test", 4, 1, 1, 2,
+                i -> i,
+                batch -> {
+                    SettableApiFuture<Void> commit = SettableApiFuture.create();
+                    commits.add(commit);
+                    return commit;
+                });
+
+        CompletableFuture<ImportPipeline.Stats> run = CompletableFuture.supplyAsync(() -> {
+            try {
+                return pipeline.run(IntStream.range(0, 3).boxed());
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        Thread.sleep(200);
+        assertThat(commits).hasSize(2);
+        commits.getFirst().set(null);
+        Thread.sleep(200);
+        assertThat(commits).hasSize(3);
+        commits.forEach(commit -> commit.set(null));
+        assertThat(run.get(5, TimeUnit.SECONDS).batches()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("run: A failing stage should cancel the others and fail the import")
+    void run_StageFailure() {
+        ImportPipeline<Integer, Integer> pipeline = new ImportPipeline<>("Test", 2, 2, 5, 1,
+                i -> {
+                    if (i == 50) throw new IllegalArgumentException("bad row");
+                    return i;
+                },
+                batch -> ApiFutures.immediateFuture(null));
+
+        ExecutionException error = assertThrows(ExecutionException.class,
+                () -> pipeline.run(IntStream.range(0, 10_000).boxed()));
+
+        assertThat(error.getCause()).hasMessage("bad row");
+    }
+
+    @Test
+    @DisplayName("run: A failed commit should fail the import")
+    void run_CommitFailure() {
+        ImportPipeline<Integer, Integer> pipeline = new ImportPipeline<>("Test", 2, 1, 5, 1,
+                i -> i,
+                batch -> ApiFutures.immediateFailedFuture(new IllegalStateException("unavailable")));
+
+        assertThrows(ExecutionException.class, () -> pipeline.run(IntStream.range(0, 100).boxed()));
+    }
+}
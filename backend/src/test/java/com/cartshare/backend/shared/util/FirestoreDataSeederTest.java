@@ -3,12 +3,14 @@ package com.cartshare.backend.shared.util;
 import com.cartshare.backend.core.model.Keyword;
 import com.cartshare.backend.core.model.Product;
 import com.cartshare.backend.core.service.AutocompleteService;
+import com.cartshare.backend.infrastructure.excel.CsvReader;
 import com.cartshare.backend.infrastructure.excel.ExcelReader;
 import com.cartshare.backend.infrastructure.excel.FirestoreExcelImporter;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
@@ -17,27 +19,37 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import java.io.ByteArrayInputStream;
 import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
+@SuppressWarnings("unchecked")
 class FirestoreDataSeederTest {
     @Mock private FirestoreExcelImporter importer;
     @Mock private AutocompleteService autocompleteService;
     @Mock private ResourceLoader resourceLoader;
     @Mock private Resource kwResource;
     @Mock private Resource prodResource;
+    @Mock private Resource kwCsvResource;
+    @Mock private Resource prodCsvResource;
     @InjectMocks
     private FirestoreDataSeeder firestoreDataSeeder;
 
     @Test
-    @DisplayName("run: Successful seeding should process Keywords and Products")
+    @DisplayName("run: Without CSVs, should seed Keywords and Products from the workbooks with their categories")
     void run_SuccessfulSeeding_ShouldInvokeRelevantServices() throws Exception {
         // --- GIVEN ---
+        // No CSV shipped: the workbooks are used
+        when(resourceLoader.getResource("classpath:csv/Keywords.csv")).thenReturn(kwCsvResource);
+        when(resourceLoader.getResource("classpath:csv/Products.csv")).thenReturn(prodCsvResource);
+
         // Mock keyword resource
         when(resourceLoader.getResource("classpath:excel/keywords.xlsx")).thenReturn(kwResource);
         when(kwResource.getInputStream()).thenAnswer(inv -> new ByteArrayInputStream(new byte[0]));
@@ -48,44 +60,105 @@ class FirestoreDataSeederTest {
 
         // Prepare test data - ExcelReader will be called twice
         List<List<String>> kwData = List.of(
-                List.of("Keyword"),  // Header (will be skipped)
-                List.of("Arroz")     // Data row
+                List.of("keyword", "categoryId"),  // Header (will be skipped)
+                List.of("Arroz", "ALIMENTOS")      // Data row
         );
         List<List<String>> prodData = List.of(
-                List.of("Product Name"),  // Header (will be skipped)
-                List.of("Feijão")        // Data row
+                List.of("productName", "categoryId"),  // Header (will be skipped)
+                List.of("Feijão", "ALIMENTOS")         // Data row
         );
 
         try (MockedStatic<ExcelReader> excelReader = mockStatic(ExcelReader.class)) {
-            // Mock ExcelReader.read() to return different data on consecutive calls
-            excelReader.when(() -> ExcelReader.read(any()))
-                    .thenReturn(kwData)    // 1st call: Keywords
-                    .thenReturn(prodData)  // 2nd call: Products
-                    .thenReturn(List.of()); // 3rd+ call: Safety net
+            // Mock ExcelReader.stream() to return different rows on consecutive calls
+            excelReader.when(() -> ExcelReader.stream(any()))
+                    .thenReturn(kwData.stream())    // 1st call: Keywords
+                    .thenReturn(prodData.stream())  // 2nd call: Products
+                    .thenReturn(Stream.empty());    // 3rd+ call: Safety net
+
+            // The importer consumes the streams while the reader is open
+            List<Keyword> keywords = new ArrayList<>();
+            List<Product> products = new ArrayList<>();
+            when(importer.importKeywords(any(Stream.class))).thenAnswer(inv -> {
+                ((Stream<Keyword>) inv.getArgument(0)).forEach(keywords::add);
+                return keywords.size();
+            });
+            when(importer.importOfficialProducts(any(Stream.class))).thenAnswer(inv -> {
+                ((Stream<Product>) inv.getArgument(0)).forEach(products::add);
+                return products.size();
+            });
+
+            // --- WHEN ---
+            firestoreDataSeeder.run();
+
+            // --- THEN ---
+            // Verify imports were called with correct data, header rows skipped
+            assertThat(keywords).containsExactly(new Keyword("Arroz", "ALIMENTOS", null));
+            assertThat(products).extracting(Product::productName, Product::categoryId)
+                    .containsExactly(tuple("Feijão", "ALIMENTOS"));
+            verify(importer, never()).importKeywordsFromList(any());
+
+            // Search keywords are generated by the importer's pipeline, not by the seeder
+            verify(importer, never()).generateSearchKeywords(anyString());
+        }
+    }
 
-            // Mock keyword generation for product search keywords
-            when(importer.generateSearchKeywords(anyString())).thenReturn(List.of("test"));
+    @Test
+    @DisplayName("run: CSV seed files should be preferred and keep category assignments")
+    void run_WithCsvResources_ShouldImportWithCategories() throws Exception {
+        // --- GIVEN ---
+        when(resourceLoader.getResource("classpath:csv/Keywords.csv")).thenReturn(kwCsvResource);
+        when(resourceLoader.getResource("classpath:csv/Products.csv")).thenReturn(prodCsvResource);
+        for (Resource resource : List.of(kwCsvResource, prodCsvResource)) {
+            when(resource.exists()).thenReturn(true);
+            when(resource.getInputStream()).thenAnswer(inv -> new ByteArrayInputStream(new byte[0]));
+        }
+
+        List<List<String>> kwData = List.of(
+                List.of("keyword", "categoryId"),
+                List.of("arroz", "ALIMENTOS"));
+        List<List<String>> prodData = List.of(
+                List.of("productName", "categoryId"),
+                List.of("arroz agulha 1kg", "ALIMENTOS"),
+                List.of("produto sem categoria"));
+
+        try (MockedStatic<CsvReader> csvReader = mockStatic(CsvReader.class)) {
+            csvReader.when(() -> CsvReader.stream(any(InputStream.class)))
+                    .thenReturn(kwData.stream())
+                    .thenReturn(prodData.stream());
 
-            // Mock the import methods (they return void)
-            doNothing().when(importer).importKeywordsFromList(any());
-            doNothing().when(importer).importProductsFromList(any());
+            List<Keyword> keywords = new ArrayList<>();
+            List<Product> products = new ArrayList<>();
+            when(importer.importKeywords(any(Stream.class))).thenAnswer(inv -> {
+                ((Stream<Keyword>) inv.getArgument(0)).forEach(keywords::add);
+                return keywords.size();
+            });
+            when(importer.importOfficialProducts(any(Stream.class))).thenAnswer(inv -> {
+                ((Stream<Product>) inv.getArgument(0)).forEach(products::add);
+                return products.size();
+            });
 
             // --- WHEN ---
             firestoreDataSeeder.run();
 
             // --- THEN ---
-            // Verify imports were called with correct data
-            ArgumentCaptor<List<Keyword>> keywordCaptor = ArgumentCaptor.forClass(List.class);
-            verify(importer, times(1)).importKeywordsFromList(keywordCaptor.capture());
-            assertThat(keywordCaptor.getValue()).hasSize(1);
-            assertThat(keywordCaptor.getValue().get(0).keyword()).isEqualTo("Arroz");
-
-            ArgumentCaptor<List<Product>> productCaptor = ArgumentCaptor.forClass(List.class);
-            verify(importer, times(1)).importProductsFromList(productCaptor.capture());
-            assertThat(productCaptor.getValue()).hasSize(1);
-
-            // Verify search keyword generation was called
-            verify(importer, times(1)).generateSearchKeywords("Feijão");
+            assertThat(keywords).containsExactly(new Keyword("arroz", "ALIMENTOS", null));
+            assertThat(products).extracting(Product::productName, Product::categoryId).containsExactly(
+                    tuple("arroz agulha 1kg", "ALIMENTOS"),
+                    tuple("produto sem categoria", null));
+            verify(resourceLoader, never()).getResource("classpath:excel/keywords.xlsx");
+            verify(importer, never()).importProductNames(any());
+        }
+    }
+
+    @ParameterizedTest
+    @CsvSource({"Products.csv, Products.xlsx", "Keywords.csv, keywords.xlsx"})
+    @DisplayName("Seed files: Each CSV should hold exactly the rows of the workbook it was exported from")
+    void seedCsvsMatchWorkbooks(String csv, String workbook) throws Exception {
+        try (InputStream csvIn = getClass().getResourceAsStream("/csv/" + csv);
+             InputStream workbookIn = getClass().getResourceAsStream("/excel/" + workbook);
+             Stream<List<String>> csvRows = CsvReader.stream(csvIn);
+             Stream<List<String>> workbookRows = ExcelReader.stream(workbookIn)) {
+            assertEquals(workbookRows.toList(), csvRows.toList());
         }
     }
 
@@ -93,7 +166,7 @@ class FirestoreDataSeederTest {
     @DisplayName("run: When exception occurs, should catch and log error")
     void run_WhenExceptionOccurs_ShouldCatchAndLog() throws Exception {
         // --- GIVEN ---
-        when(resourceLoader.getResource("classpath:excel/keywords.xlsx"))
+        when(resourceLoader.getResource("classpath:csv/Keywords.csv"))
                 .thenThrow(new RuntimeException("Seed file missing"));
 
         // --- WHEN/THEN ---
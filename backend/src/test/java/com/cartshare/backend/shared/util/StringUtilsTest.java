@@ -25,15 +25,24 @@ class StringUtilsTest {
     @ParameterizedTest
     @DisplayName("Should correctly transform various strings into safe IDs")
     @CsvSource({
-            "Pão Caseiro, paocaseiro",       // Mixed case, space, and accent
-            "Café EXPRESSO!, cafeexpresso",   // Upper case, accent, and punctuation
-            "123-ABC, 123abc",               // Numbers and symbols
-            "  Trim Test  , trimtest",       // Leading/trailing spaces
-            "música & dança, musicadanca",   // Ampersand and special chars
-            "Açaí, acai"                     // Cedilla and accent
+            "Pão Caseiro, pao-caseiro",       // Mixed case, space, and accent
+            "Café EXPRESSO!, cafe-expresso",   // Upper case, accent, and punctuation
+            "123-ABC, 123-abc",               // Numbers and symbols
+            "  Trim Test  , trim-test",       // Leading/trailing spaces
+            "música & dança, musica-danca",   // Ampersand and special chars
+            "Açaí, acai"                      // Cedilla and accent
     })
     void toSafeId_TransformsCorrectly(String input, String expected) {
         String result = StringUtils.toSafeId(input);
         assertThat(result).isEqualTo(expected);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should map names differing only in case, accents or punctuation to the same ID")
+    void toSafeId_SameIdForEquivalentNames() {
+        assertThat(StringUtils.toSafeId("Pão de Queijo"))
+                .isEqualTo(StringUtils.toSafeId("pao de queijo!"))
+                .isEqualTo(StringUtils.toSafeId("  PÃO-DE-QUEIJO "))
+                .isEqualTo("pao-de-queijo");
+    }
+}